@@ -0,0 +1,17 @@
+package adt;
+
+public interface ClinicHeapADT<T> {
+
+    // --- Priority-queue operations ---
+    void add(T item);
+    T peek();           // smallest item, or null if empty
+    T poll();           // removes and returns the smallest item, or null if empty
+
+    // --- Utility operations ---
+    int size();
+    boolean isEmpty();
+    void clear();
+
+    // --- Iterator (heap array order, not sorted) ---
+    ClinicADT.MyIterator<T> iterator();
+}
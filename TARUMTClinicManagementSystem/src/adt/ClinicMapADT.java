@@ -0,0 +1,19 @@
+package adt;
+
+public interface ClinicMapADT<K, V> {
+
+    // --- Map-like operations ---
+    V put(K key, V value);
+    V get(K key);
+    V remove(K key);
+    boolean containsKey(K key);
+
+    // --- Utility operations ---
+    int size();
+    boolean isEmpty();
+    void clear();
+
+    // --- Iterators (no particular order) ---
+    ClinicADT.MyIterator<K> keyIterator();
+    ClinicADT.MyIterator<V> valueIterator();
+}
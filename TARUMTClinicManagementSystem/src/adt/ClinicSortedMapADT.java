@@ -0,0 +1,24 @@
+package adt;
+
+public interface ClinicSortedMapADT<K, V> {
+
+    // --- Map-like operations ---
+    V put(K key, V value);
+    V get(K key);
+    V remove(K key);
+    boolean containsKey(K key);
+
+    // --- Ordered queries ---
+    K firstKey();                 // smallest key, or null if empty
+    int countBelow(K key);        // number of keys strictly less than key
+
+    // --- Utility operations ---
+    int size();
+    boolean isEmpty();
+    void clear();
+
+    // --- Iterators (ascending key order; a null bound is open) ---
+    ClinicADT.MyIterator<K> keyIterator();
+    ClinicADT.MyIterator<V> valueIterator();
+    ClinicADT.MyIterator<K> keyIterator(K fromInclusive, K toExclusive);
+}
@@ -0,0 +1,20 @@
+package adt;
+
+public interface ClinicStatusIndexADT<S extends Enum<S>, T> {
+
+    // --- Membership (a null status means "in the index, but in no bucket") ---
+    boolean add(int id, T item, S status);          // false if the id is already taken
+    boolean remove(int id, T item, S status);       // false unless item is the member for id
+    boolean move(int id, T item, S from, S to);     // status transition of a member
+
+    // --- Queries ---
+    T get(int id);                                  // member with this id, or null
+    boolean isIn(S status, int id);
+    int count(S status);                            // O(1)
+    ClinicADT<T> list(S status);                    // members in the bucket, ascending id
+
+    // --- Utility operations ---
+    int size();
+    boolean isEmpty();
+    void clear();
+}
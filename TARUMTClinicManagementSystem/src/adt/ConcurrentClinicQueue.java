@@ -0,0 +1,283 @@
+package adt;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe FIFO queue (circular array) for several producers and consumers.
+ * enqueue/dequeue/poll are O(1); the list-style operations from ClinicADT are kept so
+ * existing callers (index access, printing) work unchanged.
+ *
+ * Iterators walk a snapshot taken under the lock, so a counter can print the queue
+ * while another one is dequeuing.
+ */
+public class ConcurrentClinicQueue<T> implements ClinicADT<T> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Object[] ring = new Object[INITIAL_CAPACITY];
+    private int head;   // index of the front element
+    private int size;
+
+    // ---------------- Queue-like operations ----------------
+    @Override
+    public void enqueue(T item) {
+        lock.lock();
+        try {
+            growIfFull();
+            ring[slot(size)] = item;
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T dequeue() {
+        lock.lock();
+        try {
+            if (size == 0) throw new RuntimeException("Queue is empty");
+            return takeFront();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Like dequeue, but returns null instead of throwing when empty (no check-then-act race). */
+    public T poll() {
+        lock.lock();
+        try {
+            return (size == 0) ? null : takeFront();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T peek() {
+        lock.lock();
+        try {
+            if (size == 0) throw new RuntimeException("Queue is empty");
+            return at(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---------------- List-like operations ----------------
+    @Override
+    public void add(T item) { enqueue(item); }
+
+    @Override
+    public void add(int index, T item) {
+        lock.lock();
+        try {
+            if (index < 0 || index > size) throw new IndexOutOfBoundsException();
+            growIfFull();
+            for (int i = size; i > index; i--) ring[slot(i)] = ring[slot(i - 1)];
+            ring[slot(index)] = item;
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        lock.lock();
+        try {
+            check(index);
+            return at(index);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T set(int index, T item) {
+        lock.lock();
+        try {
+            check(index);
+            T old = at(index);
+            ring[slot(index)] = item;
+            return old;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T remove(int index) {
+        lock.lock();
+        try {
+            check(index);
+            return removeAt(index);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(T item) {
+        lock.lock();
+        try {
+            int i = find(item);
+            if (i < 0) return false;
+            removeAt(i);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Removes {@code item} and returns the index it held, or -1 if absent (one atomic step). */
+    public int removeAndGetIndex(T item) {
+        lock.lock();
+        try {
+            int i = find(item);
+            if (i >= 0) removeAt(i);
+            return i;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Puts {@code item} back at {@code index}, or at the end if the queue has since shrunk below it. */
+    public void reinsert(int index, T item) {
+        lock.lock();
+        try {
+            int at = Math.max(0, Math.min(index, size));
+            growIfFull();
+            for (int i = size; i > at; i--) ring[slot(i)] = ring[slot(i - 1)];
+            ring[slot(at)] = item;
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int indexOf(T item) {
+        lock.lock();
+        try {
+            return find(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(T item) { return indexOf(item) >= 0; }
+
+    // ---------------- Utility operations ----------------
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() { return size() == 0; }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            for (int i = 0; i < size; i++) ring[slot(i)] = null;
+            head = 0;
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---------------- Sorting / Searching ----------------
+    @Override
+    public void sort(MyComparator<T> comparator) {
+        lock.lock();
+        try {
+            MyClinicADT<T> tmp = snapshot();
+            tmp.sort(comparator);
+            for (int i = 0; i < size; i++) ring[slot(i)] = tmp.get(i);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int search(T key, MyComparator<T> comparator) {
+        MyClinicADT<T> tmp;
+        lock.lock();
+        try {
+            tmp = snapshot();
+        } finally {
+            lock.unlock();
+        }
+        return tmp.search(key, comparator);
+    }
+
+    // ---------------- Iterator ----------------
+    @Override
+    public MyIterator<T> iterator() {
+        MyClinicADT<T> tmp;
+        lock.lock();
+        try {
+            tmp = snapshot();
+        } finally {
+            lock.unlock();
+        }
+        return tmp.iterator();
+    }
+
+    // ---------------- Internals (lock held) ----------------
+    private int slot(int index) { return (head + index) % ring.length; }
+
+    @SuppressWarnings("unchecked")
+    private T at(int index) { return (T) ring[slot(index)]; }
+
+    private void check(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException();
+    }
+
+    private T takeFront() {
+        T item = at(0);
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        size--;
+        return item;
+    }
+
+    private T removeAt(int index) {
+        T item = at(index);
+        for (int i = index; i < size - 1; i++) ring[slot(i)] = ring[slot(i + 1)];
+        ring[slot(size - 1)] = null;
+        size--;
+        return item;
+    }
+
+    private int find(T item) {
+        for (int i = 0; i < size; i++) {
+            Object o = ring[slot(i)];
+            if (o == item || (o != null && o.equals(item))) return i;
+        }
+        return -1;
+    }
+
+    private void growIfFull() {
+        if (size < ring.length) return;
+        Object[] grown = new Object[ring.length * 2];
+        for (int i = 0; i < size; i++) grown[i] = ring[slot(i)];
+        ring = grown;
+        head = 0;
+    }
+
+    private MyClinicADT<T> snapshot() {
+        MyClinicADT<T> tmp = new MyClinicADT<>();
+        for (int i = 0; i < size; i++) tmp.add(at(i));
+        return tmp;
+    }
+}
@@ -0,0 +1,97 @@
+package adt;
+
+/**
+ * Binary min-heap on an array. The comparator decides what "smallest" means.
+ * add/poll are O(log n), peek is O(1).
+ */
+public class MyClinicHeapADT<T> implements ClinicHeapADT<T> {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final ClinicADT.MyComparator<T> comparator;
+    private Object[] heap = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    public MyClinicHeapADT(ClinicADT.MyComparator<T> comparator) {
+        this.comparator = comparator;
+    }
+
+    // ---------------- Priority-queue operations ----------------
+    @Override
+    public void add(T item) {
+        if (size == heap.length) {
+            Object[] grown = new Object[heap.length * 2];
+            System.arraycopy(heap, 0, grown, 0, size);
+            heap = grown;
+        }
+        heap[size] = item;
+        siftUp(size++);
+    }
+
+    @Override
+    public T peek() {
+        return (size == 0) ? null : at(0);
+    }
+
+    @Override
+    public T poll() {
+        if (size == 0) return null;
+        T top = at(0);
+        heap[0] = heap[--size];
+        heap[size] = null;
+        if (size > 0) siftDown(0);
+        return top;
+    }
+
+    // ---------------- Utility operations ----------------
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public boolean isEmpty() { return size == 0; }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) heap[i] = null;
+        size = 0;
+    }
+
+    // ---------------- Iterator ----------------
+    @Override
+    public ClinicADT.MyIterator<T> iterator() {
+        return new ClinicADT.MyIterator<T>() {
+            private int i = 0;
+            @Override public boolean hasNext() { return i < size; }
+            @Override public T next() { return at(i++); }
+        };
+    }
+
+    // ---------------- Internals ----------------
+    @SuppressWarnings("unchecked")
+    private T at(int i) { return (T) heap[i]; }
+
+    private void siftUp(int i) {
+        T item = at(i);
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (comparator.compare(item, at(parent)) >= 0) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = item;
+    }
+
+    private void siftDown(int i) {
+        T item = at(i);
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && comparator.compare(at(right), at(child)) < 0) child = right;
+            if (comparator.compare(item, at(child)) <= 0) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = item;
+    }
+}
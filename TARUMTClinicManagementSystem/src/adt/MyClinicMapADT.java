@@ -0,0 +1,187 @@
+package adt;
+
+/**
+ * Hash map (separate chaining) used for O(1) lookups by key.
+ * Keys must implement equals/hashCode consistently (String, Integer, Long ...).
+ */
+public class MyClinicMapADT<K, V> implements ClinicMapADT<K, V> {
+
+    private static final class Node<K, V> {
+        final K key;
+        final int hash;
+        V value;
+        Node<K, V> next;
+
+        Node(K key, int hash, V value, Node<K, V> next) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private Node<K, V>[] table;
+    private int size;
+
+    public MyClinicMapADT() {
+        this(INITIAL_CAPACITY);
+    }
+
+    @SuppressWarnings("unchecked")
+    public MyClinicMapADT(int expectedSize) {
+        int cap = INITIAL_CAPACITY;
+        while (cap * LOAD_FACTOR < expectedSize) cap <<= 1;
+        table = (Node<K, V>[]) new Node<?, ?>[cap];
+        size = 0;
+    }
+
+    private static int hash(Object key) {
+        if (key == null) return 0;
+        int h = key.hashCode();
+        return h ^ (h >>> 16); // spread high bits into the bucket index
+    }
+
+    private static boolean same(Object a, Object b) {
+        return (a == b) || (a != null && a.equals(b));
+    }
+
+    // ---------------- Map-like operations ----------------
+    @Override
+    public V put(K key, V value) {
+        int h = hash(key);
+        int idx = h & (table.length - 1);
+        for (Node<K, V> n = table[idx]; n != null; n = n.next) {
+            if (n.hash == h && same(n.key, key)) {
+                V old = n.value;
+                n.value = value;
+                return old;
+            }
+        }
+        table[idx] = new Node<>(key, h, value, table[idx]);
+        if (++size > table.length * LOAD_FACTOR) resize();
+        return null;
+    }
+
+    @Override
+    public V get(K key) {
+        int h = hash(key);
+        for (Node<K, V> n = table[h & (table.length - 1)]; n != null; n = n.next) {
+            if (n.hash == h && same(n.key, key)) return n.value;
+        }
+        return null;
+    }
+
+    @Override
+    public V remove(K key) {
+        int h = hash(key);
+        int idx = h & (table.length - 1);
+        Node<K, V> prev = null;
+        for (Node<K, V> n = table[idx]; n != null; prev = n, n = n.next) {
+            if (n.hash == h && same(n.key, key)) {
+                if (prev == null) table[idx] = n.next;
+                else prev.next = n.next;
+                size--;
+                return n.value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        int h = hash(key);
+        for (Node<K, V> n = table[h & (table.length - 1)]; n != null; n = n.next) {
+            if (n.hash == h && same(n.key, key)) return true;
+        }
+        return false;
+    }
+
+    // ---------------- Utility operations ----------------
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public boolean isEmpty() { return size == 0; }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < table.length; i++) table[i] = null;
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        Node<K, V>[] old = table;
+        Node<K, V>[] grown = (Node<K, V>[]) new Node<?, ?>[old.length * 2];
+        for (int i = 0; i < old.length; i++) {
+            Node<K, V> n = old[i];
+            while (n != null) {
+                Node<K, V> next = n.next;
+                int idx = n.hash & (grown.length - 1);
+                n.next = grown[idx];
+                grown[idx] = n;
+                n = next;
+            }
+        }
+        table = grown;
+    }
+
+    // ---------------- Iterators ----------------
+    private abstract class NodeIterator<R> implements ClinicADT.MyIterator<R> {
+        private int bucket = 0;
+        private Node<K, V> current = null;
+
+        NodeIterator() { advance(); }
+
+        private void advance() {
+            if (current != null) current = current.next;
+            while (current == null && bucket < table.length) current = table[bucket++];
+        }
+
+        @Override
+        public boolean hasNext() { return current != null; }
+
+        Node<K, V> nextNode() {
+            if (current == null) throw new RuntimeException("No more elements");
+            Node<K, V> n = current;
+            advance();
+            return n;
+        }
+    }
+
+    @Override
+    public ClinicADT.MyIterator<K> keyIterator() {
+        return new NodeIterator<K>() {
+            @Override
+            public K next() { return nextNode().key; }
+        };
+    }
+
+    @Override
+    public ClinicADT.MyIterator<V> valueIterator() {
+        return new NodeIterator<V>() {
+            @Override
+            public V next() { return nextNode().value; }
+        };
+    }
+
+    // ---------------- toString ----------------
+    @Override
+    public String toString() {
+        if (size == 0) return "{}";
+        StringBuilder sb = new StringBuilder("{");
+        boolean first = true;
+        for (int i = 0; i < table.length; i++) {
+            for (Node<K, V> n = table[i]; n != null; n = n.next) {
+                if (!first) sb.append(", ");
+                sb.append(n.key).append('=').append(n.value);
+                first = false;
+            }
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+}
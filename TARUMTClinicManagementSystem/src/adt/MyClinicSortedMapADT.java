@@ -0,0 +1,227 @@
+package adt;
+
+/**
+ * Sorted map on an AVL tree. Each node also keeps its subtree size, so besides
+ * put/get/remove the rank query countBelow is O(log n) as well.
+ * Range iterators walk only the part of the tree inside the bounds (O(log n + k)).
+ */
+public class MyClinicSortedMapADT<K, V> implements ClinicSortedMapADT<K, V> {
+
+    private static final class Node<K, V> {
+        K key;
+        V value;
+        Node<K, V> left, right;
+        int height = 1;
+        int size = 1;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final ClinicADT.MyComparator<K> comparator;
+    private Node<K, V> root;
+
+    public MyClinicSortedMapADT(ClinicADT.MyComparator<K> comparator) {
+        this.comparator = comparator;
+    }
+
+    // ---------------- Map-like operations ----------------
+    private V replaced;   // old value found by the last put/remove
+
+    @Override
+    public V put(K key, V value) {
+        replaced = null;
+        root = insert(root, key, value);
+        return replaced;
+    }
+
+    @Override
+    public V get(K key) {
+        Node<K, V> n = find(key);
+        return (n == null) ? null : n.value;
+    }
+
+    @Override
+    public V remove(K key) {
+        replaced = null;
+        root = delete(root, key);
+        return replaced;
+    }
+
+    @Override
+    public boolean containsKey(K key) { return find(key) != null; }
+
+    // ---------------- Ordered queries ----------------
+    @Override
+    public K firstKey() {
+        if (root == null) return null;
+        Node<K, V> n = root;
+        while (n.left != null) n = n.left;
+        return n.key;
+    }
+
+    @Override
+    public int countBelow(K key) {
+        int count = 0;
+        Node<K, V> n = root;
+        while (n != null) {
+            if (comparator.compare(n.key, key) < 0) {
+                count += size(n.left) + 1;
+                n = n.right;
+            } else {
+                n = n.left;
+            }
+        }
+        return count;
+    }
+
+    // ---------------- Utility operations ----------------
+    @Override
+    public int size() { return size(root); }
+
+    @Override
+    public boolean isEmpty() { return root == null; }
+
+    @Override
+    public void clear() { root = null; }
+
+    // ---------------- Iterators ----------------
+    @Override
+    public ClinicADT.MyIterator<K> keyIterator() { return keyIterator(null, null); }
+
+    @Override
+    public ClinicADT.MyIterator<V> valueIterator() {
+        return new RangeIterator<V>(null, null) {
+            @Override public V next() { return nextNode().value; }
+        };
+    }
+
+    @Override
+    public ClinicADT.MyIterator<K> keyIterator(K fromInclusive, K toExclusive) {
+        return new RangeIterator<K>(fromInclusive, toExclusive) {
+            @Override public K next() { return nextNode().key; }
+        };
+    }
+
+    /** In-order walk with an explicit stack, skipping subtrees outside [from, to). */
+    private abstract class RangeIterator<R> implements ClinicADT.MyIterator<R> {
+        private final K to;
+        private final MyClinicADT<Node<K, V>> stack = new MyClinicADT<>();
+
+        RangeIterator(K from, K to) {
+            this.to = to;
+            Node<K, V> n = root;
+            while (n != null) {
+                if (from != null && comparator.compare(n.key, from) < 0) {
+                    n = n.right;
+                } else {
+                    stack.add(n);
+                    n = n.left;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (stack.isEmpty()) return false;
+            return to == null || comparator.compare(top().key, to) < 0;
+        }
+
+        Node<K, V> nextNode() {
+            if (!hasNext()) throw new RuntimeException("No more elements");
+            Node<K, V> n = stack.remove(stack.size() - 1);
+            for (Node<K, V> c = n.right; c != null; c = c.left) stack.add(c);
+            return n;
+        }
+
+        private Node<K, V> top() { return stack.get(stack.size() - 1); }
+    }
+
+    // ---------------- AVL internals ----------------
+    private Node<K, V> find(K key) {
+        Node<K, V> n = root;
+        while (n != null) {
+            int c = comparator.compare(key, n.key);
+            if (c == 0) return n;
+            n = (c < 0) ? n.left : n.right;
+        }
+        return null;
+    }
+
+    private Node<K, V> insert(Node<K, V> n, K key, V value) {
+        if (n == null) return new Node<>(key, value);
+        int c = comparator.compare(key, n.key);
+        if (c == 0) {
+            replaced = n.value;
+            n.value = value;
+            return n;
+        }
+        if (c < 0) n.left = insert(n.left, key, value);
+        else n.right = insert(n.right, key, value);
+        return rebalance(n);
+    }
+
+    private Node<K, V> delete(Node<K, V> n, K key) {
+        if (n == null) return null;
+        int c = comparator.compare(key, n.key);
+        if (c < 0) {
+            n.left = delete(n.left, key);
+        } else if (c > 0) {
+            n.right = delete(n.right, key);
+        } else {
+            replaced = n.value;
+            if (n.left == null) return n.right;
+            if (n.right == null) return n.left;
+            Node<K, V> succ = n.right;
+            while (succ.left != null) succ = succ.left;
+            n.key = succ.key;
+            n.value = succ.value;
+            V keep = replaced;
+            n.right = delete(n.right, succ.key);
+            replaced = keep;
+        }
+        return rebalance(n);
+    }
+
+    private Node<K, V> rebalance(Node<K, V> n) {
+        update(n);
+        int balance = height(n.left) - height(n.right);
+        if (balance > 1) {
+            if (height(n.left.left) < height(n.left.right)) n.left = rotateLeft(n.left);
+            return rotateRight(n);
+        }
+        if (balance < -1) {
+            if (height(n.right.right) < height(n.right.left)) n.right = rotateRight(n.right);
+            return rotateLeft(n);
+        }
+        return n;
+    }
+
+    private Node<K, V> rotateRight(Node<K, V> n) {
+        Node<K, V> l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private Node<K, V> rotateLeft(Node<K, V> n) {
+        Node<K, V> r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    private void update(Node<K, V> n) {
+        n.height = 1 + Math.max(height(n.left), height(n.right));
+        n.size = 1 + size(n.left) + size(n.right);
+    }
+
+    private static int height(Node<?, ?> n) { return (n == null) ? 0 : n.height; }
+    private static int size(Node<?, ?> n) { return (n == null) ? 0 : n.size; }
+}
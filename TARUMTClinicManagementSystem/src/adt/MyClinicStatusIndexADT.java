@@ -0,0 +1,163 @@
+package adt;
+
+/**
+ * Per-status membership sets over dense integer IDs. Every status has its own bitset
+ * (one bit per ID) plus a running count, and the members themselves sit in an array
+ * indexed by ID, so a transition is two bit flips, a count is O(1) and listing a
+ * status walks only the words of that bitset (O(ids/64 + result)).
+ *
+ * IDs are stored relative to a base (the first ID seen, rounded down to 64); an ID
+ * below the base shifts everything up by whole words.
+ */
+public class MyClinicStatusIndexADT<S extends Enum<S>, T> implements ClinicStatusIndexADT<S, T> {
+
+    private static final int INITIAL_WORDS = 4;
+
+    private final long[][] bits;    // [status ordinal][word]
+    private final int[] counts;     // [status ordinal]
+    private Object[] items;         // [id - base]
+    private int base = -1;          // ID of slot 0, -1 until the first add
+    private int size;
+
+    public MyClinicStatusIndexADT(Class<S> statusType) {
+        int n = statusType.getEnumConstants().length;
+        bits = new long[n][INITIAL_WORDS];
+        counts = new int[n];
+        items = new Object[INITIAL_WORDS * 64];
+    }
+
+    // ---------------- Membership ----------------
+    @Override
+    public synchronized boolean add(int id, T item, S status) {
+        if (item == null) throw new IllegalArgumentException("item is null");
+        int slot = ensureSlot(id);
+        if (items[slot] != null) return false;
+        items[slot] = item;
+        size++;
+        if (status != null) set(status, slot);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean remove(int id, T item, S status) {
+        int slot = slotOf(id);
+        if (slot < 0 || items[slot] != item) return false;
+        if (status != null) unset(status, slot);
+        items[slot] = null;
+        size--;
+        return true;
+    }
+
+    @Override
+    public synchronized boolean move(int id, T item, S from, S to) {
+        int slot = slotOf(id);
+        if (slot < 0 || items[slot] != item) return false;
+        if (from == to) return true;
+        if (from != null) unset(from, slot);
+        if (to != null) set(to, slot);
+        return true;
+    }
+
+    // ---------------- Queries ----------------
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized T get(int id) {
+        int slot = slotOf(id);
+        return (slot < 0) ? null : (T) items[slot];
+    }
+
+    @Override
+    public synchronized boolean isIn(S status, int id) {
+        int slot = slotOf(id);
+        return slot >= 0 && (bits[status.ordinal()][slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    @Override
+    public synchronized int count(S status) { return counts[status.ordinal()]; }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized ClinicADT<T> list(S status) {
+        MyClinicADT<T> out = new MyClinicADT<>();
+        if (counts[status.ordinal()] == 0) return out;
+        long[] words = bits[status.ordinal()];
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                out.add((T) items[(w << 6) + bit]);
+                word &= word - 1;
+            }
+        }
+        return out;
+    }
+
+    // ---------------- Utility operations ----------------
+    @Override
+    public synchronized int size() { return size; }
+
+    @Override
+    public synchronized boolean isEmpty() { return size == 0; }
+
+    @Override
+    public synchronized void clear() {
+        for (int s = 0; s < bits.length; s++) {
+            bits[s] = new long[INITIAL_WORDS];
+            counts[s] = 0;
+        }
+        items = new Object[INITIAL_WORDS * 64];
+        base = -1;
+        size = 0;
+    }
+
+    // ---------------- Internals (lock held) ----------------
+    private void set(S status, int slot) {
+        long[] words = bits[status.ordinal()];
+        long mask = 1L << slot;
+        if ((words[slot >>> 6] & mask) == 0) {
+            words[slot >>> 6] |= mask;
+            counts[status.ordinal()]++;
+        }
+    }
+
+    private void unset(S status, int slot) {
+        long[] words = bits[status.ordinal()];
+        long mask = 1L << slot;
+        if ((words[slot >>> 6] & mask) != 0) {
+            words[slot >>> 6] &= ~mask;
+            counts[status.ordinal()]--;
+        }
+    }
+
+    /** Slot of an ID inside the current range, or -1. */
+    private int slotOf(int id) {
+        if (base < 0) return -1;
+        long slot = (long) id - base;
+        return (slot < 0 || slot >= items.length) ? -1 : (int) slot;
+    }
+
+    /** Slot of an ID, growing (upwards) or rebasing (downwards) as needed. */
+    private int ensureSlot(int id) {
+        if (id < 0) throw new IllegalArgumentException("negative id: " + id);
+        int floor = id & ~63;
+        if (base < 0) base = floor;
+        if (id < base) resize(items.length + (base - floor), (base - floor) >>> 6);
+        int slot = id - base;
+        if (slot >= items.length) resize(Math.max(items.length * 2, (slot + 64) & ~63), 0);
+        return id - base;
+    }
+
+    /** New capacity (multiple of 64); existing words move up by {@code shiftWords}. */
+    private void resize(int capacity, int shiftWords) {
+        int words = capacity >>> 6;
+        for (int s = 0; s < bits.length; s++) {
+            long[] grown = new long[words];
+            System.arraycopy(bits[s], 0, grown, shiftWords, bits[s].length);
+            bits[s] = grown;
+        }
+        Object[] grown = new Object[capacity];
+        System.arraycopy(items, 0, grown, shiftWords << 6, items.length);
+        items = grown;
+        base -= shiftWords << 6;
+    }
+}
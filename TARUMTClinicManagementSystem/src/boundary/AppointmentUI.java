@@ -5,11 +5,13 @@ import adt.MyClinicADT;
 import control.AppointmentControl;
 import control.DoctorControl;
 import control.PatientControl;
+import control.PatientFlowMetrics;
 import entity.Appointment;
 import entity.Consultation;
 import entity.Doctor;
 import entity.MedicalTreatment;
 import entity.Patient;
+import utility.LatencyHistogram;
 import utility.Report;
 
 import java.time.*;
@@ -100,6 +102,7 @@ public class AppointmentUI {
             System.out.println("=".repeat(60));
             System.out.println(" 1) Search & Reports");
             System.out.println(" 2) View All Appointments");
+            System.out.println(" 3) Bulk Import Bookings (CSV)");
             System.out.println(" 0) Back");
             System.out.print("Choice: ");
 
@@ -107,6 +110,7 @@ public class AppointmentUI {
             switch (choice) {
                 case 1 -> searchAndReportsMenu();
                 case 2 -> displayAllAppointments();
+                case 3 -> bulkImportBookings();
                 case 0 -> { System.out.println("Returning..."); return; }
                 default -> System.out.println("Invalid choice.");
             }
@@ -114,6 +118,23 @@ public class AppointmentUI {
         }
     }
      
+    private void bulkImportBookings() {
+        System.out.println("\n=== Bulk Import Bookings ===");
+        System.out.println("Format: patientId,patientName,doctorId,doctorName,yyyy-MM-dd HH:mm[,ONLINE|WALK_IN]");
+        System.out.print("CSV file path (blank to cancel): ");
+        String path = scanner.nextLine().trim();
+        if (path.isEmpty()) return;
+
+        AppointmentControl.ImportResult result = appointmentControl.importAppointmentsFromFile(path);
+        System.out.println("Import finished: " + result);
+        ClinicADT<String> rejected = result.getRejected();
+        if (!rejected.isEmpty()) {
+            System.out.println("\nRejected rows:");
+            ClinicADT.MyIterator<String> it = rejected.iterator();
+            while (it.hasNext()) System.out.println("  " + it.next());
+        }
+    }
+
     public void run() {
         while (true) {
             System.out.println("\n" + "=".repeat(60));
@@ -275,6 +296,9 @@ public class AppointmentUI {
                     picked.getStatus().name());
         }
         System.out.println(line);
+
+        var eta = appointmentControl.estimateCheckInWait(id);
+        if (eta != null) System.out.println("Estimated wait: " + eta);
     }
 
     // =========================
@@ -439,6 +463,7 @@ public class AppointmentUI {
         System.out.println("2. Doctor Workload Report");
         System.out.println("3. Patient Visit History");
         System.out.println("4. Status Distribution Report");
+        System.out.println("5. Patient Flow Latency Report");
         System.out.print("Select report type: ");
 
         int choice = getInt();
@@ -447,6 +472,7 @@ public class AppointmentUI {
             case 2 -> generateDoctorWorkloadReport();
             case 3 -> generatePatientVisitReport();
             case 4 -> generateStatusReport();
+            case 5 -> generateFlowLatencyReport();
             default -> System.out.println("Invalid choice.");
         }
     }
@@ -569,21 +595,14 @@ public class AppointmentUI {
 
     private void generateStatusReport() {
         Report.printHeader("Status Distribution");
-        ClinicADT<Appointment> all = appointmentControl.getAll();
 
-        int booked = 0, checkedIn = 0, consulting = 0, pendingPay = 0, treatment = 0, completed = 0;
-        ClinicADT.MyIterator<Appointment> it = all.iterator();
-        while (it.hasNext()) {
-            switch (it.next().getStatus()) {
-                case BOOKED -> booked++;
-                case CHECKED_IN -> checkedIn++;
-                case CONSULTING -> consulting++;
-                case PENDING_PAYMENT -> pendingPay++;
-                case TREATMENT -> treatment++;
-                case COMPLETED -> completed++;
-                default -> {}
-            }
-        }
+        // per-status counts are kept by the control's status index (no scan)
+        int booked     = appointmentControl.countByStatus(Appointment.AppointmentStatus.BOOKED);
+        int checkedIn  = appointmentControl.countByStatus(Appointment.AppointmentStatus.CHECKED_IN);
+        int consulting = appointmentControl.countByStatus(Appointment.AppointmentStatus.CONSULTING);
+        int pendingPay = appointmentControl.countByStatus(Appointment.AppointmentStatus.PENDING_PAYMENT);
+        int treatment  = appointmentControl.countByStatus(Appointment.AppointmentStatus.TREATMENT);
+        int completed  = appointmentControl.countByStatus(Appointment.AppointmentStatus.COMPLETED);
 
         String line = "+---------------------------+----------+";
         String fmt  = "| %-25s | %8d |%n";
@@ -604,6 +623,67 @@ public class AppointmentUI {
         Report.printFooter();
     }
 
+    private void generateFlowLatencyReport() {
+        PatientFlowMetrics m = appointmentControl.getFlowMetrics();
+        Report.printHeader("Patient Flow Latency");
+
+        // histograms are kept by the control as events arrive (no scan of history)
+        String line = "+-------------------------+--------+----------+----------+----------+----------+----------+";
+        String fmt  = "| %-23s | %6d | %8s | %8s | %8s | %8s | %8s |%n";
+        Report.cprintln("====== Stage Latency (since start-up) ======");
+        Report.cprintln(line);
+        Report.cprintf("| %-23s | %6s | %8s | %8s | %8s | %8s | %8s |%n", "Stage", "Count", "Mean", "p50", "p90", "p99", "Max");
+        Report.cprintln(line);
+        for (PatientFlowMetrics.Stage st : PatientFlowMetrics.Stage.values()) {
+            LatencyHistogram h = m.overall(st);
+            Report.cprintf(fmt, st.getLabel(), h.count(), dur(Math.round(h.mean())),
+                    dur(h.percentile(50)), dur(h.percentile(90)), dur(h.percentile(99)), dur(h.max()));
+        }
+        Report.cprintln(line);
+
+        String dLine = "+------------+-------------------------+--------+----------+----------+";
+        String dFmt  = "| %-10s | %-23s | %6d | %8s | %8s |%n";
+        System.out.println();
+        Report.cprintln("====== By Doctor ======");
+        Report.cprintln(dLine);
+        Report.cprintf("| %-10s | %-23s | %6s | %8s | %8s |%n", "Doctor ID", "Stage", "Count", "p50", "p90");
+        Report.cprintln(dLine);
+        ClinicADT.MyIterator<Doctor> di = doctorControl.getAllDoctors().iterator();
+        while (di.hasNext()) {
+            Doctor d = di.next();
+            for (PatientFlowMetrics.Stage st : PatientFlowMetrics.Stage.values()) {
+                LatencyHistogram h = m.forDoctor(d.getId(), st);
+                if (h.count() == 0) continue;
+                Report.cprintf(dFmt, d.getId(), st.getLabel(), h.count(), dur(h.percentile(50)), dur(h.percentile(90)));
+            }
+        }
+        Report.cprintln(dLine);
+
+        String hLine = "+-------+-------------------------+--------+----------+----------+";
+        String hFmt  = "| %02d:00 | %-23s | %6d | %8s | %8s |%n";
+        System.out.println();
+        Report.cprintln("====== By Hour (wait started) ======");
+        Report.cprintln(hLine);
+        Report.cprintf("| %-5s | %-23s | %6s | %8s | %8s |%n", "Hour", "Stage", "Count", "p50", "p90");
+        Report.cprintln(hLine);
+        for (int hour = 0; hour < 24; hour++) {
+            for (PatientFlowMetrics.Stage st : PatientFlowMetrics.Stage.values()) {
+                LatencyHistogram h = m.forHour(hour, st);
+                if (h.count() == 0) continue;
+                Report.cprintf(hFmt, hour, st.getLabel(), h.count(), dur(h.percentile(50)), dur(h.percentile(90)));
+            }
+        }
+        Report.cprintln(hLine);
+        Report.printFooter();
+    }
+
+    // 45s / 12m05s / 2h03m
+    private static String dur(long seconds) {
+        if (seconds < 60) return seconds + "s";
+        if (seconds < 3600) return String.format("%dm%02ds", seconds / 60, seconds % 60);
+        return String.format("%dh%02dm", seconds / 3600, (seconds % 3600) / 60);
+    }
+
     private void displayAllAppointments() {
         System.out.println("\n=== All Appointments ===");
         ClinicADT<Appointment> list = appointmentControl.getAll();
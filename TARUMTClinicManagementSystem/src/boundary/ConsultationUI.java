@@ -34,14 +34,14 @@ public class ConsultationUI {
     private final AppointmentControl appointmentControl;
 
     public ConsultationUI(PatientControl patientControl, DoctorControl doctorControl,
-                          ClinicADT<Consultation> consultations, ClinicADT<MedicalTreatment> treatments,
-                          AppointmentControl appointmentControl) {
+                          ConsultationControl consultationControl, TreatmentControl treatmentControl,
+                          ClinicADT<Consultation> consultations, AppointmentControl appointmentControl) {
         this.patientControl = patientControl;
         this.doctorControl = doctorControl;
         this.consultations = consultations;
-        this.treatments = treatments;
-        this.consultationControl = new ConsultationControl(patientControl, doctorControl, consultations, treatments, appointmentControl);
-        this.treatmentControl = new TreatmentControl(treatments);
+        this.treatments = treatmentControl.getAll();
+        this.consultationControl = consultationControl;
+        this.treatmentControl = treatmentControl;
         this.appointmentControl = appointmentControl;
         this.sc = new Scanner(System.in);
     }
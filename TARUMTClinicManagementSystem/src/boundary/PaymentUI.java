@@ -6,6 +6,7 @@ import control.AppointmentControl;
 import control.PaymentControl;
 import control.PharmacyControl;
 import control.PharmacyQueueControl;
+import control.TreatmentControl;
 import entity.Appointment;
 import entity.MedicalTreatment;
 import entity.Payment;
@@ -14,6 +15,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Scanner;
+import utility.Money;
 import utility.Report;
 
 /**
@@ -28,7 +30,7 @@ public class PaymentUI {
     private final PharmacyControl pharmacy;
     private final AppointmentControl apptCtrl;
     private final PharmacyQueueControl pharmQueue;
-    private final ClinicADT<MedicalTreatment> treatments; // infer treatment from this
+    private final TreatmentControl treatmentControl; // infer treatment from its records (hot + cold)
     private final PaymentControl control = new PaymentControl();
 
     private static final int WIDTH = 120;
@@ -38,11 +40,11 @@ public class PaymentUI {
     public PaymentUI(PharmacyControl pharmacyControl,
                      AppointmentControl appointmentControl,
                      PharmacyQueueControl pharmacyQueue,
-                     ClinicADT<MedicalTreatment> allTreatments) {
+                     TreatmentControl treatmentControl) {
         this.pharmacy = pharmacyControl;
         this.apptCtrl = appointmentControl;
         this.pharmQueue = pharmacyQueue;
-        this.treatments = allTreatments;
+        this.treatmentControl = treatmentControl;
     }
     
     public void patientPaymentMenu() {
@@ -120,9 +122,9 @@ public class PaymentUI {
         int apptId = a.getAppointmentId();
 
         // Calculate medicine fee from Pharmacy queues (READY + DISPENSED)
-        double medicineFee = pharmQueue.getTotalMedicineFeeForAppointment(apptId, pharmacy);
+        Money medicineFee = Money.ofCents(pharmQueue.getTotalMedicineFeeCentsForAppointment(apptId, pharmacy));
         String medBreakdown = pharmQueue.getMedicineBreakdownForAppointment(apptId);
-        if (medicineFee > 0) {
+        if (medicineFee.isPositive()) {
             System.out.println("\nMedicine breakdown:");
             System.out.print(medBreakdown);
         }
@@ -133,9 +135,9 @@ public class PaymentUI {
         boolean hasTreatment =
                 (a.isTreatmentNeeded())
              || inferTreatmentFromRecords(a)
-             || (medicineFee > 0.0);
+             || medicineFee.isPositive();
 
-        double previewTotal = new Payment(hasTreatment, medicineFee, Payment.PaymentMethod.CASH, 0.0).getTotal();
+        Money previewTotal = Money.ofCents(Payment.totalCents(hasTreatment, medicineFee.cents()));
 
         System.out.println("\n=== Bill Preview ===");
         String line = "+----------+------------+----------------------+----------------------+---------------------+";
@@ -148,19 +150,19 @@ public class PaymentUI {
                 a.getScheduledDateTime().format(DTF)));
         System.out.println(line);
 
-        System.out.printf("%nConsultation : RM %6.2f%n", Payment.CONSULTATION_FEE);
-        System.out.printf("Treatment    : %sRM %6.2f%n",
+        System.out.printf("%nConsultation : RM %6s%n", Money.format(Payment.CONSULTATION_FEE_CENTS));
+        System.out.printf("Treatment    : %sRM %6s%n",
                 (hasTreatment ? "" : "(skip) "),
-                (hasTreatment ? Payment.TREATMENT_FEE : 0.0));
-        System.out.printf("Medicine     : %sRM %6.2f%n",
-                (medicineFee > 0.0 ? "" : "(skip) "),
+                Money.format(hasTreatment ? Payment.TREATMENT_FEE_CENTS : 0L));
+        System.out.printf("Medicine     : %sRM %6s%n",
+                (medicineFee.isPositive() ? "" : "(skip) "),
                 medicineFee);
         System.out.println("--------------------------------");
-        System.out.printf("Current total: RM %6.2f%n", previewTotal);
+        System.out.printf("Current total: RM %6s%n", previewTotal);
 
         Payment.PaymentMethod method = selectPaymentMethod();
-        double amountPaid = processPaymentAmount(method, previewTotal);
-        if (amountPaid == 0.0 && method != Payment.PaymentMethod.CASH) {
+        Money amountPaid = processPaymentAmount(method, previewTotal);
+        if (amountPaid.isZero() && method != Payment.PaymentMethod.CASH) {
             System.out.println("Payment canceled.");
             return;
         }
@@ -530,7 +532,7 @@ public class PaymentUI {
         Report.printHeader("Daily Transaction Report");
         ClinicADT<PaymentControl.PaymentRecord> all = control.loadAllRecords();
         MyClinicADT<PaymentControl.PaymentRecord> out = new MyClinicADT<>();
-        double total = 0.0;
+        long total = 0L;
         int count = 0;
 
         ClinicADT.MyIterator<PaymentControl.PaymentRecord> it = all.iterator();
@@ -538,14 +540,14 @@ public class PaymentUI {
             PaymentControl.PaymentRecord r = it.next();
             if (r.dateTime.toLocalDate().equals(d)) {
                 out.add(r);
-                total += r.total;
+                total = Money.add(total, r.total.cents());
                 count++;
             }
         }
 
         printRecordListCentered("Daily Transactions - " + d, out);
         System.out.println(Report.center(String.format("Total Transactions: %d", count)));
-        System.out.println(Report.center(String.format("       Grand Total        : RM %.2f", total)));
+        System.out.println(Report.center(String.format("       Grand Total        : RM %s", Money.format(total))));
         Report.printFooter();
     }
 
@@ -554,19 +556,19 @@ public class PaymentUI {
         String pid = sc.nextLine().trim();
         ClinicADT<PaymentControl.PaymentRecord> all = control.loadAllRecords();
         MyClinicADT<PaymentControl.PaymentRecord> out = new MyClinicADT<>();
-        double total = 0.0;
+        long total = 0L;
 
         ClinicADT.MyIterator<PaymentControl.PaymentRecord> it = all.iterator();
         while (it.hasNext()) {
             PaymentControl.PaymentRecord r = it.next();
             if (r.patientId.equalsIgnoreCase(pid)) {
                 out.add(r);
-                total += r.total;
+                total = Money.add(total, r.total.cents());
             }
         }
         Report.printHeader("Patient Payment History");
         printRecordListCentered("Payment History - Patient " + pid, out);
-        System.out.println(Report.center(String.format("Total Paid: RM %.2f", total)));
+        System.out.println(Report.center(String.format("Total Paid: RM %s", Money.format(total))));
         Report.printFooter();
     }
 
@@ -600,7 +602,7 @@ public class PaymentUI {
 
         ClinicADT<PaymentControl.PaymentRecord> all = control.loadAllRecords();
         int count = 0;
-        double total = 0.0;
+        long total = 0L;
 
         ClinicADT.MyIterator<PaymentControl.PaymentRecord> it = all.iterator();
         while (it.hasNext()) {
@@ -608,14 +610,14 @@ public class PaymentUI {
             LocalDate d = r.dateTime.toLocalDate();
             if ((d.isAfter(s) || d.equals(s)) && (d.isBefore(e) || d.equals(e))) {
                 count++;
-                total += r.total;
+                total = Money.add(total, r.total.cents());
             }
         }
         System.out.println(Report.center("Date Range Summary"));
         System.out.println(Report.center("-------------------"));
         System.out.println(Report.center("From: " + s + "   To: " + e));
         System.out.println(Report.center(String.format("Transactions: %d", count)));
-        System.out.println(Report.center(String.format("Grand Total : RM %.2f", total)));
+        System.out.println(Report.center(String.format("Grand Total : RM %s", Money.format(total))));
         Report.printFooter();
     }
 
@@ -626,9 +628,9 @@ public class PaymentUI {
         MyClinicADT<String> keys   = new MyClinicADT<>();
         MyClinicADT<String> names  = new MyClinicADT<>();
         MyClinicADT<String> ids    = new MyClinicADT<>();
-        MyClinicADT<Double> totals = new MyClinicADT<>();
+        MyClinicADT<Long> totals   = new MyClinicADT<>();  // cents
 
-        double unknownTotal = 0.0;
+        long unknownTotal = 0L;
         int unknownCount = 0;
 
         ClinicADT.MyIterator<PaymentControl.PaymentRecord> it = all.iterator();
@@ -649,7 +651,7 @@ public class PaymentUI {
                 dispName = pname;
                 dispId = "-";
             } else {
-                unknownTotal += r.total;
+                unknownTotal = Money.add(unknownTotal, r.total.cents());
                 unknownCount++;
                 continue;
             }
@@ -659,9 +661,9 @@ public class PaymentUI {
                 keys.add(key);
                 names.add(dispName);
                 ids.add(dispId);
-                totals.add(r.total);
+                totals.add(r.total.cents());
             } else {
-                totals.set(idx, totals.get(idx) + r.total);
+                totals.set(idx, Money.add(totals.get(idx), r.total.cents()));
             }
         }
 
@@ -680,7 +682,7 @@ public class PaymentUI {
 
         String line = "+----+----------------------+------------+--------------+";
         String hdr  = "| No | Patient Name         | Patient ID | Total (RM)   |";
-        String row  = "| %-2d | %-20s | %-10s | %12.2f |";
+        String row  = "| %-2d | %-20s | %-10s | %12s |";
         System.out.println(Report.center(line));
         System.out.println(Report.center(hdr));
         System.out.println(Report.center(line));
@@ -689,13 +691,13 @@ public class PaymentUI {
         for (int k = 0; k < limit; k++) {
             int idx = order[k];
             System.out.println(Report.center(String.format(
-                    row, (printed + 1), cut(names.get(idx), 20), cut(ids.get(idx), 10), totals.get(idx)
+                    row, (printed + 1), cut(names.get(idx), 20), cut(ids.get(idx), 10), Money.format(totals.get(idx))
             )));
             printed++;
         }
 
         if (printed == 0 && unknownCount > 0) {
-            System.out.println(Report.center(String.format(row, 1, "(unknown)", "-", unknownTotal)));
+            System.out.println(Report.center(String.format(row, 1, "(unknown)", "-", Money.format(unknownTotal))));
             printed = 1;
         }
 
@@ -703,8 +705,8 @@ public class PaymentUI {
 
         if (unknownCount > 0 && printed > 0) {
             System.out.println(Report.center(String.format(
-                "(Note: %d legacy receipt%s without patient info totaling RM %.2f were omitted from ranking.)",
-                unknownCount, (unknownCount == 1 ? "" : "s"), unknownTotal
+                "(Note: %d legacy receipt%s without patient info totaling RM %s were omitted from ranking.)",
+                unknownCount, (unknownCount == 1 ? "" : "s"), Money.format(unknownTotal)
             )));
         }
         Report.printFooter();
@@ -755,13 +757,15 @@ public class PaymentUI {
     }
 
     /** Heuristic: treatment considered if a MedicalTreatment exists for the same patient
-        on/after appt time OR same calendar day. */
+        on/after appt time OR same calendar day. Reads through TreatmentControl so history
+        older than the hot window is loaded too. */
     private boolean inferTreatmentFromRecords(Appointment a) {
-        if (treatments == null || treatments.size() == 0) return false;
+        if (treatmentControl == null) return false;
         LocalDate apptDay = a.getScheduledDateTime().toLocalDate();
         LocalDateTime apptTs = a.getScheduledDateTime();
 
-        ClinicADT.MyIterator<MedicalTreatment> it = treatments.iterator();
+        ClinicADT.MyIterator<MedicalTreatment> it =
+                treatmentControl.getTreatmentsByPatient(a.getPatientId(), true).iterator();
         while (it.hasNext()) {
             MedicalTreatment t = it.next();
             if (!t.getPatientId().equalsIgnoreCase(a.getPatientId())) continue;
@@ -808,34 +812,34 @@ public class PaymentUI {
         }
     }
 
-    private double processPaymentAmount(Payment.PaymentMethod paymentMethod, double totalAmount) {
-        System.out.printf("%nTotal Amount: RM %.2f%n", totalAmount);
+    private Money processPaymentAmount(Payment.PaymentMethod paymentMethod, Money totalAmount) {
+        System.out.printf("%nTotal Amount: RM %s%n", totalAmount);
         if (paymentMethod == Payment.PaymentMethod.CASH) {
             while (true) {
                 System.out.print("Enter cash amount: RM ");
                 try {
-                    double amountPaid = Double.parseDouble(sc.nextLine().trim());
-                    if (amountPaid >= totalAmount) {
-                        double change = amountPaid - totalAmount;
-                        if (change > 0) System.out.printf("Change: RM %.2f%n", change);
+                    Money amountPaid = Money.parse(sc.nextLine());
+                    if (amountPaid.compareTo(totalAmount) >= 0) {
+                        Money change = amountPaid.minus(totalAmount);
+                        if (change.isPositive()) System.out.printf("Change: RM %s%n", change);
                         System.out.println("Cash payment accepted!");
                         return amountPaid;
                     } else {
-                        System.out.printf("Insufficient amount. Need RM %.2f more.%n", totalAmount - amountPaid);
+                        System.out.printf("Insufficient amount. Need RM %s more.%n", totalAmount.minus(amountPaid));
                     }
-                } catch (NumberFormatException e) {
+                } catch (NumberFormatException | ArithmeticException e) {
                     System.out.println("Please enter a valid number.\n");
                 }
             }
         } else {
-            System.out.printf("Amount to be charged: RM %.2f%n", totalAmount);
+            System.out.printf("Amount to be charged: RM %s%n", totalAmount);
             System.out.print("Confirm payment? (y/n): ");
             String s = sc.nextLine().trim().toLowerCase();
             if (s.equals("y")) {
                 System.out.println("Payment processed successfully!");
                 return totalAmount;
             } else {
-                return 0.0; // canceled
+                return Money.ZERO; // canceled
             }
         }
     } 
@@ -857,7 +861,7 @@ public class PaymentUI {
     private void printRecordListCentered(String title, ClinicADT<PaymentControl.PaymentRecord> recs) {
         String line = "+---------------------+----------+------------+----------------------+--------------+-----------------+------------+";
         String hdr  = "| Date/Time           | Receipt  | Appt ID    | Patient Name         | Patient ID   | Method          | Total (RM) |";
-        String row  = "| %-19s | %-8s | %-10s | %-20s | %-12s | %-15s | %10.2f |";
+        String row  = "| %-19s | %-8s | %-10s | %-20s | %-12s | %-15s | %10s |";
 
         System.out.println();
         System.out.println(Report.center(title));
@@ -4,8 +4,10 @@ import adt.ClinicADT;
 import control.AppointmentControl;
 import control.PharmacyControl;
 import control.PharmacyQueueControl;
+import control.WaitTimeEstimator;
 import entity.MedicalTreatment;
 import entity.Medicine;
+import entity.MedicineLot;
 import entity.MedicinePrescription;
 import utility.Report;
 import utility.Validation;
@@ -121,6 +123,8 @@ public class PharmacyUI {
             System.out.println("4. All Medicines (Sorted by Name)");
             System.out.println("5. Daily Dispense Report (Today)");
             System.out.println("6. Restock Report (Last 14 Days)");
+            System.out.println("7. Consumption Report (Date Range)");
+            System.out.println("8. Restock Suggestions (Demand Forecast)");
             System.out.println("0. Back");
             System.out.print("Choice: ");
 
@@ -133,6 +137,8 @@ public class PharmacyUI {
                     case 4 -> pharmacyControl.printAllMedicinesSortedByNameReport();
                     case 5 -> pharmacyControl.dailyDispenseReport(LocalDate.now());
                     case 6 -> pharmacyControl.restockReportLast14Days();
+                    case 7 -> consumptionReport();
+                    case 8 -> pharmacyControl.restockSuggestionReport();
                     case 0 -> System.out.println("Returning to main menu...");
                     default -> System.out.println("Invalid choice.");
                 }
@@ -276,35 +282,44 @@ public class PharmacyUI {
         }
 
         System.out.println("\n=== Pharmacy READY Queue ===");
-        String line = "+----+----------------------+------------+----------+----------------------+--------+";
-        String hdr  = "| No | Patient              | Patient ID | Med.ID   | Medicine             | Qty    |";
-        String row  = "| %-2d | %-20s | %-10s | %-8s | %-20s | %6d |";
+        String line = "+----+----------------------+------------+----------+----------------------+--------+-----------+";
+        String hdr  = "| No | Patient              | Patient ID | Med.ID   | Medicine             | Qty    | Est. Wait |";
+        String row  = "| %-2d | %-20s | %-10s | %-8s | %-20s | %6d | %-9s |";
         System.out.println(line);
         System.out.println(hdr);
         System.out.println(line);
 
         int i = 1;
+        ClinicADT<WaitTimeEstimator.Eta> etas = queueCtrl.readyQueueEtas();
         ClinicADT.MyIterator<MedicinePrescription> it = readyQueue.iterator();
         while (it.hasNext()) {
             MedicinePrescription p = it.next();
+            Object eta = (i - 1 < etas.size()) ? etas.get(i - 1) : "-";
             System.out.println(String.format(row,
                     i++,
                     cut(p.getPatientName(),20),
                     p.getPatientId(),
                     p.getMedicineId(),
                     cut(p.getMedicineName(),20),
-                    p.getQuantity()
+                    p.getQuantity(),
+                    eta
             ));
         }
         System.out.println(line);
         System.out.println("(Total in queue: " + readyQueue.size() + ")");
 
-        System.out.print("Press ENTER to dispense the FRONT prescription, or 0 to cancel: ");
+        System.out.print("Press ENTER to dispense the FRONT prescription, A for all of its appointment's lines, or 0 to cancel: ");
         String in = sc.nextLine().trim();
         if (in.equals("0")) return;
 
-        // Stock check that considers earlier reservations
         MedicinePrescription front = readyQueue.get(0);
+        if (in.equalsIgnoreCase("A")) {
+            // one stock check and one write for the whole appointment
+            queueCtrl.dispenseAppointment(front.getAppointmentId(), this.pharmacyControl);
+            return;
+        }
+
+        // Stock check that considers earlier reservations
         Medicine med   = pharmacyControl.getMedicineById(front.getMedicineId());
         if (med == null) {
             System.out.println("Cannot find medicine in stock: " + front.getMedicineId());
@@ -360,7 +375,24 @@ public class PharmacyUI {
             if (error != null) System.out.println(error + "\n");
         } while (error != null);
 
-        pharmacyControl.restockMedicineById(id, qty);
+        // Current lots, earliest expiry first
+        ClinicADT.MyIterator<MedicineLot> lots = pharmacyControl.getLots(id).iterator();
+        while (lots.hasNext()) {
+            MedicineLot lot = lots.next();
+            System.out.println("  Lot expiring " + lot.getExpiry() + " : " + lot.getQuantity() + " " + med.getUnit());
+        }
+
+        LocalDate expiry;
+        while (true) {
+            System.out.print("Expiry date of new stock (YYYY-MM-DD, or 0 to cancel): ");
+            String s = sc.nextLine().trim();
+            if (s.equals("0")) { System.out.println("Operation cancelled."); return; }
+            error = Validation.validateMedicineExpiry(s);
+            if (error == null) { expiry = LocalDate.parse(s); break; }
+            System.out.println(error + "\n");
+        }
+
+        pharmacyControl.restockMedicineById(id, qty, expiry);
     }
 
     private void removeMedicine() {
@@ -395,6 +427,29 @@ public class PharmacyUI {
         }
     }
 
+    private void consumptionReport() {
+        LocalDate from = promptForDate("Start date (yyyy-MM-dd, blank = first of this month, 0 to cancel): ",
+                LocalDate.now().withDayOfMonth(1));
+        if (from == null) { System.out.println("Operation cancelled."); return; }
+        LocalDate to = promptForDate("End date (yyyy-MM-dd, blank = today, 0 to cancel): ", LocalDate.now());
+        if (to == null) { System.out.println("Operation cancelled."); return; }
+        pharmacyControl.consumptionReport(from, to);
+    }
+
+    private LocalDate promptForDate(String message, LocalDate fallback) {
+        while (true) {
+            System.out.print(message);
+            String s = sc.nextLine().trim();
+            if (s.equals("0")) return null;
+            if (s.isEmpty()) return fallback;
+            try {
+                return LocalDate.parse(s);
+            } catch (Exception e) {
+                System.out.println("Please enter a valid date (yyyy-MM-dd).\n");
+            }
+        }
+    }
+
     private int promptForInt(String message) {
         while (true) {
             System.out.print(message);
@@ -34,15 +34,15 @@ public class TreatmentUI {
 
     public TreatmentUI(PatientControl patientControl,
                        DoctorControl doctorControl,
-                       ClinicADT<MedicalTreatment> treatments,
+                       TreatmentControl treatmentControl,
                        AppointmentControl apptCtrl,
                        PharmacyControl pharmacy,
                        PharmacyQueueControl pharmQueue) {
         this.patientControl = patientControl;
         this.doctorControl  = doctorControl;
-        this.treatments     = treatments;
+        this.treatments     = treatmentControl.getAll();
 
-        this.control  = new TreatmentControl(treatments);
+        this.control  = treatmentControl;
         this.apptCtrl = apptCtrl;
         this.pharmacy = pharmacy;
         this.pharmQueue = pharmQueue;
@@ -148,6 +148,7 @@ public class TreatmentUI {
     // Reports menu (5 items)
     // =========================
     private void generateReport() {
+        control.ensureHistoryLoaded();
         int choice;
         do {
             System.out.println("\n==========================================");
@@ -210,6 +211,7 @@ public class TreatmentUI {
 
         System.out.print("Process this case now? (y/n): ");
         if (!scanner.nextLine().trim().equalsIgnoreCase("y")) return;
+        apptCtrl.treatmentStarted(a.getAppointmentId());
 
         final String[] dxMenu = {
             "Common Cold", "Influenza", "Hypertension", "Diabetes",
@@ -280,7 +282,7 @@ public class TreatmentUI {
             System.out.println(mHdr);
             System.out.println(mLine);
 
-            if (med == null || med.getQuantity() <= 0) {
+            if (med == null || pharmacy.getAvailableQty(med) <= 0) {
                 System.out.println("|  N/A  | (Suggested item unavailable in stock)                                            |");
                 System.out.println(mLine);
                 System.out.println("Suggested medicine not available. Switching to manual selection.\n");
@@ -289,7 +291,7 @@ public class TreatmentUI {
             }
 
             System.out.println(String.format(mRow,
-                    med.getId(), cut(med.getName(),20), med.getQuantity(), med.getUnit(),
+                    med.getId(), cut(med.getName(),20), pharmacy.getAvailableQty(med), med.getUnit(),
                     med.getPricePerUnit(),
                     cut(dosage + " | " + instr,24)));
             System.out.println(mLine);
@@ -316,9 +318,9 @@ public class TreatmentUI {
     }
 
     private void manualPickAndEnqueue(Appointment a, String diagnosis) {
-        String sLine = "+-------+----------------------+----------+----------+------------+";
-        String sHdr  = "| ID    | Name                 |   Stock  |  Unit    | Price(MYR) |";
-        String sRow  = "| %-5s | %-20s | %8d | %-8s | %10.2f |";
+        String sLine = "+-------+----------------------+----------+-----------+----------+------------+";
+        String sHdr  = "| ID    | Name                 |   Stock  | Available |  Unit    | Price(MYR) |";
+        String sRow  = "| %-5s | %-20s | %8d | %9d | %-8s | %10s |";
 
         System.out.println("\nStock (pick an ID):");
         System.out.println(sLine);
@@ -329,7 +331,7 @@ public class TreatmentUI {
         while (it.hasNext()) {
             var m = it.next();
             System.out.println(String.format(sRow, m.getId(), cut(m.getName(),20),
-                    m.getQuantity(), m.getUnit(), m.getPricePerUnit()));
+                    m.getQuantity(), pharmacy.getAvailableQty(m), m.getUnit(), m.getPrice()));
         }
         System.out.println(sLine);
 
@@ -362,13 +364,12 @@ public class TreatmentUI {
         if (med == null) { System.out.println("Invalid medicine."); return false; }
         if (qty <= 0) { System.out.println("Quantity must be > 0."); return false; }
 
-        int reserved = pharmQueue.getReservedQtyForMedicine(med.getId());
-        int available = med.getQuantity() - reserved;
-        if (available < 0) available = 0;
+        // unexpired stock minus READY reservations, the same figure the pick list shows
+        int available = pharmacy.getAvailableQty(med);
 
         if (qty > available) {
-            System.out.printf("Cannot prepare %d unit(s). Available after reservations: %d (stock %d, reserved %d)%n",
-                    qty, available, med.getQuantity(), reserved);
+            System.out.printf("Cannot prepare %d unit(s). Available after expiry and reservations: %d (stock %d, reserved %d)%n",
+                    qty, available, med.getQuantity(), pharmacy.getReservedQty(med.getId()));
             return false;
         }
         return true;
@@ -400,19 +401,22 @@ public class TreatmentUI {
             return;
         }
 
-        String line = "+----+----------+----------------------+----------------------+---------------------+";
-        String hdr  = "| No | Appt ID  | Patient              | Doctor               | Scheduled Time      |";
-        String row  = "| %-2d | %-8d | %-20s | %-20s | %-19s |";
+        String line = "+----+----------+----------------------+----------------------+---------------------+-----------+";
+        String hdr  = "| No | Appt ID  | Patient              | Doctor               | Scheduled Time      | Est. Wait |";
+        String row  = "| %-2d | %-8d | %-20s | %-20s | %-19s | %-9s |";
 
         System.out.println(line);
         System.out.println(hdr);
         System.out.println(line);
 
-        int pos = 1;
+        int pos = 1, at = 0;
+        ClinicADT<WaitTimeEstimator.Eta> etas = apptCtrl.treatmentQueueEtas();
         ClinicADT.MyIterator<Integer> it = apptCtrl.getTreatmentQueueSnapshot().iterator();
         while (it.hasNext()) {
             Integer id = it.next();
             Appointment a = apptCtrl.getById(id);
+            WaitTimeEstimator.Eta eta = (at < etas.size()) ? etas.get(at) : null;
+            at++;
             if (a == null) continue;
 
             System.out.println(String.format(
@@ -420,7 +424,8 @@ public class TreatmentUI {
                     a.getAppointmentId(),
                     cut(a.getPatientName(), 20),
                     cut(a.getDoctorName(), 20),
-                    a.getScheduledDateTime().format(DTF)
+                    a.getScheduledDateTime().format(DTF),
+                    (eta == null) ? "-" : eta
             ));
         }
         System.out.println(line);
@@ -516,6 +521,7 @@ public class TreatmentUI {
     }
 
     private void printAllTreatmentsSorted() {
+        control.ensureHistoryLoaded();
         // make a sorted copy by date/time
         MyClinicADT<MedicalTreatment> copy = new MyClinicADT<>();
         ClinicADT.MyIterator<MedicalTreatment> it = treatments.iterator();
@@ -585,6 +591,7 @@ public class TreatmentUI {
 
     // ======= Search submenu (ADT-only) =======
     private void searchMenu() {
+        control.ensureHistoryLoaded();
         int c;
         do {
             System.out.println("\n=== Search Treatments ===");
@@ -1,32 +1,77 @@
 package control;
 
 import adt.ClinicADT;
+import adt.ClinicMapADT;
+import adt.ClinicSortedMapADT;
+import adt.ClinicStatusIndexADT;
 import adt.MyClinicADT;
+import adt.MyClinicMapADT;
+import adt.MyClinicSortedMapADT;
+import adt.MyClinicStatusIndexADT;
 import entity.Appointment;
+import utility.CsvCursor;
+import utility.TimestampCodec;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class AppointmentControl {
+public final class AppointmentControl {
 
     // ===== Constructors =====
     public AppointmentControl(PatientControl patientControl, DoctorControl doctorControl) {
-        loadAppointmentsFromFile();
-        initTreatmentQueue();      // load queue file (respect empty), or build on first run
-        rebuildCheckedInQueueOnly();
+        this();
     }
     public AppointmentControl() {
         loadAppointmentsFromFile();
-        initTreatmentQueue();
-        rebuildCheckedInQueueOnly();
+        initTreatmentQueue();      // load queue file (respect empty), or build on first run
+        rebuildCheckedInQueueOnly(); // recovery: derive the checked-in order from loaded statuses
+    }
+
+    /**
+     * Subscribes appointments.txt persistence and the flow metrics to the event bus.
+     * Called once by ClinicBootstrap after construction, so the bus never sees a half-built control.
+     */
+    public synchronized void startEventSubscribers() {
+        if (subscribed) return;
+        subscribed = true;
+        ClinicEventBus.shared().subscribe("appointments-store", this::onEvents);
+        ClinicEventBus.shared().subscribe("patient-flow-metrics", flowMetrics::onEvents);
     }
 
     // ===== Storage =====
+    private boolean subscribed;
+    // status moves so far, and how many of them the last appointments.txt rewrite covered
+    private final AtomicLong statusChanges = new AtomicLong();
+    private long savedThrough;
     private final ClinicADT<Appointment> all = new MyClinicADT<>();
-    private final MyClinicADT<Integer>   queue = new MyClinicADT<>();          // CHECKED_IN order
+    private final ClinicSortedMapADT<Appointment, Integer> queue =
+            new MyClinicSortedMapADT<>(AppointmentControl::compareCheckedIn);  // CHECKED_IN order -> id
     private final MyClinicADT<Integer>   treatmentQueue = new MyClinicADT<>(); // waiting for treatment (FIFO)
+    // id -> appointment plus one bitset per status; Appointment moves itself between buckets,
+    // and every move is published as an AppointmentStatusChanged event
+    private final ClinicStatusIndexADT<Appointment.AppointmentStatus, Appointment> byStatus =
+            new MyClinicStatusIndexADT<>(Appointment.AppointmentStatus.class) {
+                @Override
+                public boolean move(int id, Appointment a,
+                                    Appointment.AppointmentStatus from, Appointment.AppointmentStatus to) {
+                    if (!super.move(id, a, from, to)) return false;
+                    if (from != to) statusChanges.incrementAndGet();
+                    if (from != to) ClinicEventBus.shared().publish(new ClinicEvent.AppointmentStatusChanged(a, from, to));
+                    return true;
+                }
+            };
+    // (patient, doctor, time) -> appointment, for the consultation handoff (first one wins)
+    private final ClinicMapADT<String, Appointment> byHandoff = new MyClinicMapADT<>(256);
+    // per-stage latency histograms, fed by the same status events
+    private final PatientFlowMetrics flowMetrics = new PatientFlowMetrics(id -> {
+        Appointment a = getById(id);
+        return (a == null) ? null : a.getDoctorId();
+    });
     private Integer calledId = null; // appointment currently CONSULTING
+    private final WaitTimeEstimator waitTimes = WaitTimeEstimator.shared();
 
     // ===== Files =====
     private static final String FILE_PATH        = "src/textFile/appointments.txt";
@@ -36,6 +81,7 @@ public class AppointmentControl {
     // ===== External accessors =====
     public ClinicADT<Appointment> getAll() { return all; }
     public Appointment getCalled() { return (calledId == null) ? null : getById(calledId); }
+    public PatientFlowMetrics getFlowMetrics() { return flowMetrics; }
 
     public ClinicADT<Integer> getTreatmentQueueSnapshot() {
         MyClinicADT<Integer> snap = new MyClinicADT<>();
@@ -67,8 +113,11 @@ public class AppointmentControl {
         removeConflictingAppointments(patientId, when);
 
         Appointment a = new Appointment(patientId, patientName, doctorId, doctorName, when, type);
-        all.add(a);
-        rebuildCheckedInQueueOnly();
+        synchronized (this) {
+            all.add(a);
+            index(a);
+        }
+        enqueueCheckedIn(a); // walk-ins start CHECKED_IN
         saveAppointmentsToFile();
         return a;
     }
@@ -94,8 +143,11 @@ public class AppointmentControl {
             int idx = all.indexOf(ex);
             if (idx >= 0) {
                 int id = ex.getAppointmentId();
-                all.remove(idx);
-                try { queue.remove(id); } catch (Exception ignored) {}
+                synchronized (this) {
+                    all.remove(idx);
+                    unindex(ex);
+                }
+                queue.remove(ex);
                 try { treatmentQueue.remove(id); } catch (Exception ignored) {}
                 if (calledId != null && calledId == id) calledId = null;
                 removed = true;
@@ -103,7 +155,6 @@ public class AppointmentControl {
         }
 
         if (removed) {
-            rebuildCheckedInQueueOnly();
             persistQueues();
             saveAppointmentsToFile();
         }
@@ -114,8 +165,8 @@ public class AppointmentControl {
         if (a == null) return false;
         boolean ok = a.checkIn();
         if (ok) {
-            rebuildCheckedInQueueOnly();
-            saveAppointmentsToFile();
+            enqueueCheckedIn(a);
+            saveAppointmentsToFile(); // front-desk transition: on disk before we return
         }
         return ok;
     }
@@ -129,9 +180,8 @@ public class AppointmentControl {
             System.out.println("No checked-in patients in queue.");
             return false;
         }
-        int id = queue.dequeue();
-        Appointment a = getById(id);
-        if (a == null) return false;
+        Appointment a = queue.firstKey();
+        int id = queue.remove(a);
 
         if (!a.startConsultation()) return false; // sets CONSULTING
         calledId = id;
@@ -140,8 +190,6 @@ public class AppointmentControl {
                 + a.getScheduledDateTime().format(FMT)
                 + " with Dr. " + a.getDoctorName());
         System.out.println(">> STATUS: Changed to CONSULTING");
-
-        saveAppointmentsToFile();
         return true;
     }
 
@@ -164,7 +212,6 @@ public class AppointmentControl {
         }
 
         clearCalled();
-        saveAppointmentsToFile();
         return true;
     }
 
@@ -175,6 +222,13 @@ public class AppointmentControl {
         return completeConsultation(symptoms, treatmentNeeded);
     }
 
+    /** Called by Treatment module when it takes a case off the queue (ends its treatment wait). */
+    public void treatmentStarted(int apptId) {
+        Appointment a = getById(apptId);
+        if (a == null || a.getStatus() != Appointment.AppointmentStatus.TREATMENT) return;
+        ClinicEventBus.shared().publish(new ClinicEvent.TreatmentStarted(a));
+    }
+
     /** Called by Treatment module when a treatment session is finished. */
     public void finishTreatment(int apptId, boolean needsPharmacy) {
         Appointment a = getById(apptId);
@@ -187,7 +241,7 @@ public class AppointmentControl {
         try { treatmentQueue.remove(apptId); } catch (Exception ignored) {}
         purgeTreatmentQueueAgainstAppointments();
 
-        // persist
+        // persist now; the payment desk works from this status
         saveTreatmentQueueToFile();
         saveAppointmentsToFile();
     }
@@ -198,36 +252,37 @@ public class AppointmentControl {
         if (a == null) return false;
         if (a.getStatus() != Appointment.AppointmentStatus.PENDING_PAYMENT) return false;
         a.completePayment();
-        saveAppointmentsToFile();
+        saveAppointmentsToFile(); // payment is recorded; don't leave it to the bus
         return true;
     }
 
     // =========================== Search / printing ===========================
     public Appointment peekNext() {
-        if (queue.isEmpty()) return null;
-        Integer id = queue.peek();
-        return (id == null) ? null : getById(id);
+        return queue.firstKey();
     }
 
     public ClinicADT<Appointment> getOnlineAppointmentsPendingCheckIn() {
         ClinicADT<Appointment> out = new MyClinicADT<>();
-        ClinicADT.MyIterator<Appointment> it = all.iterator();
+        ClinicADT.MyIterator<Appointment> it = byStatus.list(Appointment.AppointmentStatus.BOOKED).iterator();
         while (it.hasNext()) {
             Appointment a = it.next();
-            if (a.getType() == Appointment.AppointmentType.ONLINE
-                    && a.getStatus() == Appointment.AppointmentStatus.BOOKED) out.add(a);
+            if (a.getType() == Appointment.AppointmentType.ONLINE) out.add(a);
         }
         return out;
     }
 
     public ClinicADT<Appointment> getConsultingAppointments() {
-        ClinicADT<Appointment> out = new MyClinicADT<>();
-        ClinicADT.MyIterator<Appointment> it = all.iterator();
-        while (it.hasNext()) {
-            Appointment a = it.next();
-            if (a.getStatus() == Appointment.AppointmentStatus.CONSULTING) out.add(a);
-        }
-        return out;
+        return byStatus.list(Appointment.AppointmentStatus.CONSULTING);
+    }
+
+    /** Appointments currently in {@code status}, ascending id (O(result)). */
+    public ClinicADT<Appointment> getByStatus(Appointment.AppointmentStatus status) {
+        return byStatus.list(status);
+    }
+
+    /** O(1). */
+    public int countByStatus(Appointment.AppointmentStatus status) {
+        return byStatus.count(status);
     }
 
    // In AppointmentControl
@@ -385,38 +440,96 @@ public class AppointmentControl {
         System.out.println("\n=== Checked-in Queue (nearest scheduled time first) ===");
         if (queue.isEmpty()) { System.out.println("(empty)"); return; }
 
-        String line = "+----+--------+---------------------+----------------------+----------------------+";
-        String head = "| No |   ID   | Scheduled Time      | Patient              | Doctor               |%n";
-        String row  = "| %-2d | %-6d | %-19s | %-20s | %-20s |%n";
+        String line = "+----+--------+---------------------+----------------------+----------------------+--------------+";
+        String head = "| No |   ID   | Scheduled Time      | Patient              | Doctor               | Est. Wait    |%n";
+        String row  = "| %-2d | %-6d | %-19s | %-20s | %-20s | %-12s |%n";
 
         System.out.println(line);
         System.out.printf(head);
         System.out.println(line);
 
         int pos = 1;
-        MyClinicADT.MyIterator<Integer> it = queue.iterator();
+        WaitTimeEstimator.Line eta = consultationLine();
+        ClinicADT.MyIterator<Appointment> it = queue.keyIterator();
         while (it.hasNext()) {
-            Appointment a = getById(it.next());
-            if (a == null) continue;
+            Appointment a = it.next();
             System.out.printf(row, pos++,
                     a.getAppointmentId(),
                     a.getScheduledDateTime().format(FMT),
                     fit(a.getPatientName(),20),
-                    fit(a.getDoctorName(),20));
+                    fit(a.getDoctorName(),20),
+                    eta.next(WaitTimeEstimator.doctor(a.getDoctorId())));
         }
         System.out.println(line);
     }
 
-    // ================================ Internals ================================
-    public Appointment getById(int apptId) {
-        ClinicADT.MyIterator<Appointment> it = all.iterator();
+    // ===== Wait-time estimates =====
+    /** Expected wait of every checked-in patient, in queue order (one pass, O(1) per position). */
+    public ClinicADT<WaitTimeEstimator.Eta> checkInQueueEtas() {
+        ClinicADT<WaitTimeEstimator.Eta> out = new MyClinicADT<>();
+        WaitTimeEstimator.Line eta = consultationLine();
+        ClinicADT.MyIterator<Appointment> it = queue.keyIterator();
+        while (it.hasNext()) out.add(eta.next(WaitTimeEstimator.doctor(it.next().getDoctorId())));
+        return out;
+    }
+
+    /** Expected wait of one checked-in appointment, or null if it is not in the queue. */
+    public WaitTimeEstimator.Eta estimateCheckInWait(int appointmentId) {
+        WaitTimeEstimator.Line eta = consultationLine();
+        ClinicADT.MyIterator<Appointment> it = queue.keyIterator();
         while (it.hasNext()) {
             Appointment a = it.next();
-            if (a.getAppointmentId() == apptId) return a;
+            WaitTimeEstimator.Eta e = eta.next(WaitTimeEstimator.doctor(a.getDoctorId()));
+            if (a.getAppointmentId() == appointmentId) return e;
         }
         return null;
     }
 
+    /** Expected wait of every appointment in the treatment FIFO, in queue order. */
+    public ClinicADT<WaitTimeEstimator.Eta> treatmentQueueEtas() {
+        ClinicADT<WaitTimeEstimator.Eta> out = new MyClinicADT<>();
+        // the line starts behind the case being treated now, if any
+        WaitTimeEstimator.Line eta = waitTimes.line().inService(WaitTimeEstimator.TREATMENT);
+        ClinicADT.MyIterator<Integer> it = getTreatmentQueueSnapshot().iterator();
+        while (it.hasNext()) {
+            it.next();
+            out.add(eta.next(WaitTimeEstimator.TREATMENT));
+        }
+        return out;
+    }
+
+    /** Patients are called one at a time, so the line starts behind whoever is in consultation now. */
+    private WaitTimeEstimator.Line consultationLine() {
+        WaitTimeEstimator.Line eta = waitTimes.line();
+        Appointment called = getCalled();
+        if (called != null && called.getStatus() == Appointment.AppointmentStatus.CONSULTING) {
+            eta.inService(WaitTimeEstimator.doctor(called.getDoctorId()));
+        }
+        return eta;
+    }
+
+    // ================================ Internals ================================
+    public Appointment getById(int apptId) {
+        return byStatus.get(apptId);
+    }
+
+    /** Appointment on exactly this (patient, doctor, time), or null. O(1). */
+    public Appointment findByHandoff(String patientId, String doctorId, LocalDateTime when) {
+        return (when == null) ? null : byHandoff.get(ConsultationIndex.handoffKey(patientId, doctorId, when));
+    }
+
+    private void index(Appointment a) {
+        a.attachStatusIndex(byStatus);
+        String key = ConsultationIndex.handoffKey(a.getPatientId(), a.getDoctorId(), a.getScheduledDateTime());
+        if (!byHandoff.containsKey(key)) byHandoff.put(key, a);
+    }
+
+    private void unindex(Appointment a) {
+        a.detachStatusIndex();
+        String key = ConsultationIndex.handoffKey(a.getPatientId(), a.getDoctorId(), a.getScheduledDateTime());
+        if (byHandoff.get(key) == a) byHandoff.remove(key);
+    }
+
     public boolean isDoctorBooked(String doctorId, LocalDateTime start) {
         LocalDateTime newEnd = start.plusHours(1);
         ClinicADT.MyIterator<Appointment> it = all.iterator();
@@ -434,6 +547,236 @@ public class AppointmentControl {
 
     private void clearCalled() { calledId = null; }
 
+    // ==================== Bulk import ====================
+    /** One booking from an external feed; {@code row} is its position in the source (for the report). */
+    public static final class BookingRequest {
+        public final int row;
+        public final String patientId, patientName;
+        public final String doctorId, doctorName;
+        public final LocalDateTime when;
+        public final Appointment.AppointmentType type;
+
+        public BookingRequest(int row, String patientId, String patientName,
+                              String doctorId, String doctorName,
+                              LocalDateTime when, Appointment.AppointmentType type) {
+            this.row = row;
+            this.patientId = patientId;
+            this.patientName = patientName;
+            this.doctorId = doctorId;
+            this.doctorName = doctorName;
+            this.when = when;
+            this.type = (type == null) ? Appointment.AppointmentType.ONLINE : type;
+        }
+    }
+
+    /** Outcome of an import: created appointments, rejected rows ("row N: reason"), stored bookings replaced. */
+    public static final class ImportResult {
+        private final ClinicADT<Appointment> accepted = new MyClinicADT<>();
+        private final ClinicADT<String> rejected = new MyClinicADT<>();
+        private int replaced;
+
+        public ClinicADT<Appointment> getAccepted() { return accepted; }
+        public ClinicADT<String> getRejected() { return rejected; }
+        public int getReplaced() { return replaced; }
+
+        @Override
+        public String toString() {
+            return accepted.size() + " accepted, " + rejected.size() + " rejected, "
+                    + replaced + " existing booking(s) replaced";
+        }
+    }
+
+    /**
+     * Books a whole feed at once, with the same outcome as calling addAppointment for each row
+     * in (time, doctor, row) order: a row is rejected if its doctor is busy within an hour of it,
+     * otherwise it replaces any booking of the same patient at the same time (stored or earlier
+     * in the feed). The feed is sorted once, checked against per-doctor time trees and a
+     * (patient, time) map built in one pass over the stored appointments, and saved once.
+     */
+    public ImportResult importAppointments(ClinicADT<BookingRequest> feed) {
+        ImportResult result = new ImportResult();
+        if (feed == null || feed.isEmpty()) return result;
+
+        // 1) validate, then sort once
+        MyClinicADT<BookingRequest> rows = new MyClinicADT<>();
+        ClinicADT.MyIterator<BookingRequest> fit = feed.iterator();
+        while (fit.hasNext()) {
+            BookingRequest r = fit.next();
+            if (r == null) continue;
+            if (blank(r.patientId) || blank(r.doctorId) || r.when == null) {
+                result.rejected.add("row " + r.row + ": missing patient, doctor or time");
+            } else {
+                rows.add(r);
+            }
+        }
+        rows.sort((x, y) -> {
+            int c = x.when.compareTo(y.when);
+            if (c != 0) return c;
+            c = key(x.doctorId).compareTo(key(y.doctorId));
+            return (c != 0) ? c : Integer.compare(x.row, y.row);
+        });
+
+        synchronized (this) {
+            // 2) indexes over the stored appointments the feed can touch (one pass)
+            ClinicMapADT<String, ClinicSortedMapADT<LocalDateTime, int[]>> doctorTimes = new MyClinicMapADT<>(64);
+            ClinicMapADT<String, ClinicADT<Appointment>> patientSlots = new MyClinicMapADT<>(rows.size() * 2);
+            for (int i = 0; i < rows.size(); i++) {
+                BookingRequest r = rows.get(i);
+                String d = key(r.doctorId);
+                if (doctorTimes.get(d) == null) doctorTimes.put(d, new MyClinicSortedMapADT<>(LocalDateTime::compareTo));
+                String p = slotKey(r.patientId, r.when);
+                if (patientSlots.get(p) == null) patientSlots.put(p, new MyClinicADT<>());
+            }
+            ClinicADT.MyIterator<Appointment> ait = all.iterator();
+            while (ait.hasNext()) {
+                Appointment a = ait.next();
+                ClinicSortedMapADT<LocalDateTime, int[]> times = doctorTimes.get(key(a.getDoctorId()));
+                if (times != null) bookSlot(times, a.getScheduledDateTime(), 1);
+                ClinicADT<Appointment> same = patientSlots.get(slotKey(a.getPatientId(), a.getScheduledDateTime()));
+                if (same != null) same.add(a);
+            }
+
+            // 3) resolve in order
+            ClinicMapADT<Integer, Appointment> removed = new MyClinicMapADT<>(64);
+            ClinicMapADT<Integer, BookingRequest> rowOf = new MyClinicMapADT<>(rows.size() * 2);
+            Appointment[] made = new Appointment[rows.size()];
+            ClinicMapADT<Integer, Integer> madeAt = new MyClinicMapADT<>(rows.size() * 2);
+            for (int i = 0; i < rows.size(); i++) {
+                BookingRequest r = rows.get(i);
+                ClinicSortedMapADT<LocalDateTime, int[]> times = doctorTimes.get(key(r.doctorId));
+                if (doctorBusy(times, r.when)) {
+                    result.rejected.add("row " + r.row + ": Dr. " + r.doctorId + " already booked near "
+                            + r.when.format(FMT));
+                    continue;
+                }
+                ClinicADT<Appointment> same = patientSlots.get(slotKey(r.patientId, r.when));
+                for (int k = 0; k < same.size(); k++) {
+                    Appointment old = same.get(k);
+                    ClinicSortedMapADT<LocalDateTime, int[]> oldTimes = doctorTimes.get(key(old.getDoctorId()));
+                    if (oldTimes != null) bookSlot(oldTimes, old.getScheduledDateTime(), -1);
+                    Integer pos = madeAt.remove(old.getAppointmentId());
+                    if (pos != null) {
+                        made[pos] = null;
+                        result.rejected.add("row " + rowOf.get(old.getAppointmentId()).row
+                                + ": replaced by row " + r.row + " (same patient and time)");
+                    } else {
+                        removed.put(old.getAppointmentId(), old);
+                    }
+                }
+                same.clear();
+
+                Appointment a = new Appointment(r.patientId, r.patientName, r.doctorId, r.doctorName, r.when, r.type);
+                made[i] = a;
+                madeAt.put(a.getAppointmentId(), i);
+                rowOf.put(a.getAppointmentId(), r);
+                same.add(a);
+                bookSlot(times, r.when, 1);
+            }
+
+            // 4) apply: drop replaced bookings in one compaction, then append the new ones
+            if (!removed.isEmpty()) {
+                int w = 0;
+                for (int i = 0; i < all.size(); i++) {
+                    Appointment a = all.get(i);
+                    if (removed.get(a.getAppointmentId()) == a) {
+                        unindex(a);
+                        queue.remove(a);
+                        if (calledId != null && calledId == a.getAppointmentId()) calledId = null;
+                    } else {
+                        all.set(w++, a);
+                    }
+                }
+                while (all.size() > w) all.remove(all.size() - 1);
+                // a replaced booking may already be waiting for treatment; drop it there too
+                int t = 0;
+                for (int i = 0; i < treatmentQueue.size(); i++) {
+                    Integer id = treatmentQueue.get(i);
+                    if (removed.get(id) == null) treatmentQueue.set(t++, id);
+                }
+                while (treatmentQueue.size() > t) treatmentQueue.remove(treatmentQueue.size() - 1);
+                result.replaced = removed.size();
+            }
+            for (Appointment a : made) {
+                if (a == null) continue;
+                all.add(a);
+                index(a);
+                enqueueCheckedIn(a);
+                result.accepted.add(a);
+            }
+        }
+
+        // 5) persist once
+        if (result.replaced > 0) persistQueues();
+        if (!result.accepted.isEmpty() || result.replaced > 0) saveAppointmentsToFile();
+        return result;
+    }
+
+    /**
+     * Reads a booking feed (patientId,patientName,doctorId,doctorName,yyyy-MM-dd HH:mm[,ONLINE|WALK_IN])
+     * and imports it; {@code row} is the line number, and malformed lines are reported as rejected.
+     */
+    public ImportResult importAppointmentsFromFile(String path) {
+        ClinicADT<BookingRequest> feed = new MyClinicADT<>();
+        ClinicADT<String> bad = new MyClinicADT<>();
+        CsvCursor c = new CsvCursor(path);
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                c.reset(line);
+                if (c.isBlankOrComment()) continue;
+                try {
+                    c.requireFields(5);
+                    String patientId   = c.nextString();
+                    String patientName = c.nextString();
+                    String doctorId    = c.nextString();
+                    String doctorName  = c.nextString();
+                    LocalDateTime when = c.nextDateTime();
+                    Appointment.AppointmentType type = Appointment.AppointmentType.ONLINE;
+                    if (c.hasMore()) {
+                        String t = c.nextString().trim();
+                        if (!t.isEmpty()) type = Appointment.AppointmentType.valueOf(t.toUpperCase());
+                    }
+                    feed.add(new BookingRequest(c.getLineNumber(), patientId, patientName,
+                                                doctorId, doctorName, when, type));
+                } catch (CsvCursor.MalformedRowException e) {
+                    bad.add(e.getMessage()); // already names the line and field
+                } catch (IllegalArgumentException e) {
+                    bad.add("row " + c.getLineNumber() + ": unknown appointment type");
+                }
+            }
+        } catch (IOException e) {
+            bad.add("cannot read " + path + ": " + e.getMessage());
+        }
+
+        ImportResult result = importAppointments(feed);
+        ClinicADT.MyIterator<String> it = bad.iterator();
+        while (it.hasNext()) result.rejected.add(it.next());
+        return result;
+    }
+
+    /** Doctor has a booking whose hour overlaps [when, when + 1h). */
+    private static boolean doctorBusy(ClinicSortedMapADT<LocalDateTime, int[]> times, LocalDateTime when) {
+        LocalDateTime from = when.minusHours(1);
+        ClinicADT.MyIterator<LocalDateTime> it = times.keyIterator(from, when.plusHours(1));
+        while (it.hasNext()) {
+            if (it.next().isAfter(from)) return true;
+        }
+        return false;
+    }
+
+    private static void bookSlot(ClinicSortedMapADT<LocalDateTime, int[]> times, LocalDateTime when, int delta) {
+        int[] n = times.get(when);
+        if (n == null) times.put(when, n = new int[1]);
+        n[0] += delta;
+        if (n[0] <= 0) times.remove(when);
+    }
+
+    private static String slotKey(String patientId, LocalDateTime when) { return key(patientId) + '|' + when; }
+
+    private static String key(String id) { return (id == null) ? "" : id.trim().toUpperCase(); }
+
+    private static boolean blank(String s) { return s == null || s.isBlank(); }
+
     private String fit(String s, int w) {
         if (s == null) s = "";
         if (s.length() <= w) return s;
@@ -443,10 +786,10 @@ public class AppointmentControl {
         if (s == null) return "";
         return s.replace('\n',' ').replace('\r',' ').replace(',', ' ');
     }
-    private int parseIntSafe(String s) { try { return Integer.parseInt(s.trim()); } catch (Exception ignored) { return -1; } }
 
     // ================================ Persistence ================================
-    private void saveAppointmentsToFile() {
+    private synchronized void saveAppointmentsToFile() {
+        savedThrough = statusChanges.get();   // every move counted so far is in memory already
         try {
             File file = new File(FILE_PATH);
             File parentDir = file.getParentFile();
@@ -467,31 +810,42 @@ public class AppointmentControl {
 
     private void loadAppointmentsFromFile() {
         all.clear();
+        byStatus.clear();
+        byHandoff.clear();
         File file = new File(FILE_PATH);
         if (!file.exists() || !file.isFile()) return;
 
+        CsvCursor c = new CsvCursor(FILE_PATH);
         try (BufferedReader br = new BufferedReader(new FileReader(file))) {
             String line;
             while ((line = br.readLine()) != null) {
-                String raw = line.trim();
-                if (raw.isEmpty() || raw.startsWith("#")) continue;
-
-                String[] parts = raw.split(",", -1);
-                if (parts.length < 8) continue;
-
-                int idx = 0;
-                /* int id = */ parseIntSafe(parts[idx++]); // entity doesn't restore explicit id
-                String patientId   = parts[idx++].trim();
-                String patientName = parts[idx++].trim();
-                String doctorId    = parts[idx++].trim();
-                String doctorName  = parts[idx++].trim();
-                LocalDateTime scheduled = LocalDateTime.parse(parts[idx++].trim(), FMT);
-                Appointment.AppointmentType type =
-                        Appointment.AppointmentType.valueOf(parts[idx++].trim());
-                Appointment.AppointmentStatus status =
-                        Appointment.AppointmentStatus.valueOf(parts[idx++].trim());
-
-                Appointment a = new Appointment(patientId, patientName, doctorId, doctorName, scheduled, type);
+                c.reset(line);
+                if (c.isBlankOrComment()) continue;
+
+                int id;
+                String patientId, patientName, doctorId, doctorName;
+                LocalDateTime scheduled;
+                Appointment.AppointmentType type;
+                Appointment.AppointmentStatus status;
+                try {
+                    c.requireFields(8);
+                    id          = c.nextInt();
+                    patientId   = c.nextString();
+                    patientName = c.nextString();
+                    doctorId    = c.nextString();
+                    doctorName  = c.nextString();
+                    scheduled   = c.nextDateTime();
+                    type   = Appointment.AppointmentType.valueOf(c.nextString());
+                    status = Appointment.AppointmentStatus.valueOf(c.nextString());
+                } catch (CsvCursor.MalformedRowException e) {
+                    c.report(e);
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    c.report(c.malformed("unknown type/status"));
+                    continue;
+                }
+
+                Appointment a = new Appointment(id, patientId, patientName, doctorId, doctorName, scheduled, type);
 
                 // Recreate status chain (do NOT touch treatmentQueue here)
                 switch (status) {
@@ -522,6 +876,7 @@ public class AppointmentControl {
                     default -> { /* no-op */ }
                 }
                 all.add(a);
+                index(a);
             }
         } catch (Exception e) {
             System.out.println("Error loading appointments: " + e.getMessage());
@@ -529,11 +884,12 @@ public class AppointmentControl {
     }
 
     private String formatAppointment(Appointment a) {
-        return a.getAppointmentId() + "," +
-               safe(a.getPatientId()) + "," + safe(a.getPatientName()) + "," +
-               safe(a.getDoctorId()) + "," + safe(a.getDoctorName()) + "," +
-               a.getScheduledDateTime().format(FMT) + "," +
-               a.getType() + "," + a.getStatus();
+        StringBuilder sb = new StringBuilder(96);
+        sb.append(a.getAppointmentId()).append(',')
+          .append(safe(a.getPatientId())).append(',').append(safe(a.getPatientName())).append(',')
+          .append(safe(a.getDoctorId())).append(',').append(safe(a.getDoctorName())).append(',');
+        TimestampCodec.appendMinute(sb, a.getScheduledDateTime());
+        return sb.append(',').append(a.getType()).append(',').append(a.getStatus()).toString();
     }
 
     // ===================== Treatment FIFO Persistence =====================
@@ -587,16 +943,22 @@ public class AppointmentControl {
         File f = new File(TREATMENT_Q_FILE);
         if (!f.exists() || !f.isFile()) return false;
 
+        CsvCursor c = new CsvCursor(TREATMENT_Q_FILE);
         try (BufferedReader br = new BufferedReader(new FileReader(f))) {
             String line;
             while ((line = br.readLine()) != null) {
-                String raw = line.trim();
-                if (raw.isEmpty() || raw.startsWith("#")) continue;
-
-                // Format: id,patientId,patientName,doctorId,doctorName,yyyy-MM-dd HH:mm
-                String[] a = raw.split(",", -1);
-                if (a.length < 6) continue;
-                int id = parseIntSafe(a[0]);
+                c.reset(line);
+                if (c.isBlankOrComment()) continue;
+
+                // Format: id,patientId,patientName,doctorId,doctorName,yyyy-MM-dd HH:mm (only the id is used)
+                int id;
+                try {
+                    c.requireFields(6);
+                    id = c.nextInt();
+                } catch (CsvCursor.MalformedRowException e) {
+                    c.report(e);
+                    continue;
+                }
                 if (id <= 0) continue;
 
                 Appointment ap = getById(id);
@@ -659,7 +1021,7 @@ public class AppointmentControl {
                             safe(a.getPatientName()),
                             safe(a.getDoctorId()),
                             safe(a.getDoctorName()),
-                            a.getScheduledDateTime().format(FMT));
+                            TimestampCodec.formatMinute(a.getScheduledDateTime()));
                 }
             }
         } catch (IOException e) {
@@ -671,52 +1033,62 @@ public class AppointmentControl {
     private void persistQueues() { saveTreatmentQueueToFile(); }
 
     // ==================== Checked-in queue ====================
-    private void rebuildCheckedInQueueOnly() {
-        // Collect candidates (CHECKED_IN)
-        MyClinicADT<Appointment> candidates = new MyClinicADT<>();
-        ClinicADT.MyIterator<Appointment> it = all.iterator();
-        while (it.hasNext()) {
-            Appointment a = it.next();
-            if (a.getStatus() == Appointment.AppointmentStatus.CHECKED_IN) {
-                candidates.add(a);
-            }
-        }
-
-        if (candidates.isEmpty()) {
-            queue.clear();
-            return;
+    /**
+     * Queue order: scheduled time, then check-in time (nulls last), then appointment id.
+     * None of these change while an appointment is CHECKED_IN, so it is safe as a tree key.
+     */
+    private static int compareCheckedIn(Appointment x, Appointment y) {
+        int c = x.getScheduledDateTime().compareTo(y.getScheduledDateTime());
+        if (c != 0) return c;
+
+        LocalDateTime xi = x.getCheckInTime(), yi = y.getCheckInTime();
+        if (xi == null && yi != null) return 1;
+        if (xi != null && yi == null) return -1;
+        if (xi != null) {
+            int cc = xi.compareTo(yi);
+            if (cc != 0) return cc;
         }
+        return Integer.compare(x.getAppointmentId(), y.getAppointmentId());
+    }
 
-        // Sort by:
-        // 1) scheduled time asc
-        // 2) check-in time asc (nulls last)
-        // 3) appointment id asc
-        candidates.sort((x, y) -> {
-            int c = x.getScheduledDateTime().compareTo(y.getScheduledDateTime());
-            if (c != 0) return c;
-
-            // nulls last for check-in
-            if (x.getCheckInTime() == null && y.getCheckInTime() != null) return 1;
-            if (x.getCheckInTime() != null && y.getCheckInTime() == null) return -1;
-            if (x.getCheckInTime() != null && y.getCheckInTime() != null) {
-                int cc = x.getCheckInTime().compareTo(y.getCheckInTime());
-                if (cc != 0) return cc;
-            }
-            return Integer.compare(x.getAppointmentId(), y.getAppointmentId());
-        });
+    /** O(log n); no-op unless the appointment is CHECKED_IN. */
+    private void enqueueCheckedIn(Appointment a) {
+        if (a.getStatus() == Appointment.AppointmentStatus.CHECKED_IN) queue.put(a, a.getAppointmentId());
+    }
 
-        // Rebuild queue in that order
+    /** Full rebuild from statuses; only used at startup (recovery), normal paths update incrementally. */
+    private void rebuildCheckedInQueueOnly() {
         queue.clear();
-        ClinicADT.MyIterator<Appointment> it2 = candidates.iterator();
-        while (it2.hasNext()) {
-            queue.enqueue(it2.next().getAppointmentId());
-        }
+        ClinicADT.MyIterator<Appointment> it = all.iterator();
+        while (it.hasNext()) enqueueCheckedIn(it.next());
     }
 
+    /**
+     * Status changes persist themselves: check-in, treatment finish and payment save directly,
+     * the rest through the event bus. Only needed after other edits to an appointment.
+     */
     public void persistForExternalMutation() {
         saveAppointmentsToFile();
     }
 
+    /**
+     * Subscriber of the event bus: one rewrite per batch that touches one of our appointments,
+     * skipped when a direct save has already covered every status change.
+     */
+    private void onEvents(ClinicADT<ClinicEvent> batch) {
+        synchronized (this) {
+            if (savedThrough >= statusChanges.get()) return;
+        }
+        ClinicADT.MyIterator<ClinicEvent> it = batch.iterator();
+        while (it.hasNext()) {
+            if (it.next() instanceof ClinicEvent.AppointmentStatusChanged e
+                    && byStatus.get(e.getAppointmentId()) == e.getAppointment()) {
+                saveAppointmentsToFile();
+                return;
+            }
+        }
+    }
+
     // === Begin a consultation for a specific appointment (used by UI handover) ===
     public boolean beginConsultation(int apptId) {
         Appointment a = getById(apptId);
@@ -726,14 +1098,13 @@ public class AppointmentControl {
 
         if (a.getStatus() == Appointment.AppointmentStatus.BOOKED) a.checkIn();
 
-        try { queue.remove(apptId); } catch (Exception ignored) {}
+        queue.remove(a);
 
         if (a.getStatus() != Appointment.AppointmentStatus.CONSULTING) {
             if (!a.startConsultation()) return false;
         }
 
         calledId = apptId;
-        saveAppointmentsToFile();
         return true;
     }
 }
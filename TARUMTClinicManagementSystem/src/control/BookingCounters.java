@@ -0,0 +1,145 @@
+package control;
+
+import adt.ClinicADT;
+import adt.ClinicMapADT;
+import adt.ClinicSortedMapADT;
+import adt.MyClinicMapADT;
+import adt.MyClinicSortedMapADT;
+import entity.Consultation;
+import entity.MedicalTreatment;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Counts behind the consultation booking rules, so each rule check is a lookup instead
+ * of a scan over every consultation/treatment:
+ *   (doctor, day)            -> consultations that day           O(1)
+ *   (patient, day)           -> consultations / treatments        O(1)
+ *   patient, on/after a day  -> consultations (sliding window)    O(1) amortized
+ *
+ * Consultations are fed by ConsultationIndex (attach/detach, so a reschedule is a
+ * remove + add). Treatments are append-only in their shared list, so they are read
+ * through a tail cursor: a query first counts the rows added since the last one.
+ */
+class BookingCounters {
+
+    /** One patient's consultations per epoch day, plus the running count from {@code from} on. */
+    private static final class Window {
+        final ClinicSortedMapADT<Long, int[]> days = new MyClinicSortedMapADT<>(Long::compare);
+        long from = Long.MIN_VALUE;
+        int recent;
+
+        void add(long day, int delta) {
+            int[] n = days.get(day);
+            if (n == null) days.put(day, n = new int[1]);
+            n[0] += delta;
+            if (n[0] <= 0) days.remove(day);
+            if (day >= from) recent += delta;
+        }
+
+        /** Slides the window start to {@code cutoff}; only the days passed over are visited. */
+        int countFrom(long cutoff) {
+            if (cutoff > from) recent -= sum(from, cutoff);
+            else if (cutoff < from) recent += sum(cutoff, from);
+            from = cutoff;
+            return recent;
+        }
+
+        private int sum(long lo, long hi) {
+            int s = 0;
+            ClinicADT.MyIterator<Long> it = days.keyIterator(lo, hi);
+            while (it.hasNext()) s += days.get(it.next())[0];
+            return s;
+        }
+    }
+
+    private final ClinicMapADT<String, int[]> doctorDay  = new MyClinicMapADT<>(256);
+    private final ClinicMapADT<String, int[]> patientDay = new MyClinicMapADT<>(256);
+    private final ClinicMapADT<String, Window> patientWindow = new MyClinicMapADT<>(256);
+
+    // treatment tail cursor
+    private final ClinicMapADT<String, int[]> treatmentDay = new MyClinicMapADT<>(256);
+    private ClinicADT<MedicalTreatment> treatmentSource;
+    private int treatmentsSeen;
+    private MedicalTreatment lastSeen;
+
+    // ===== Consultations (called by ConsultationIndex) =====
+    synchronized void add(Consultation c) { count(c, 1); }
+
+    synchronized void remove(Consultation c) { count(c, -1); }
+
+    synchronized void clear() {
+        doctorDay.clear();
+        patientDay.clear();
+        patientWindow.clear();
+    }
+
+    // ===== Rule queries =====
+    synchronized int consultationsForDoctor(String doctorId, LocalDate day) {
+        return valueOf(doctorDay.get(key(doctorId, day.toEpochDay())));
+    }
+
+    synchronized int consultationsForPatient(String patientId, LocalDate day) {
+        return valueOf(patientDay.get(key(patientId, day.toEpochDay())));
+    }
+
+    /** Consultations of the patient dated on or after {@code from} (future ones included). */
+    synchronized int consultationsForPatientSince(String patientId, LocalDate from) {
+        Window w = patientWindow.get(norm(patientId));
+        return (w == null) ? 0 : w.countFrom(from.toEpochDay());
+    }
+
+    synchronized int treatmentsForPatient(ClinicADT<MedicalTreatment> treatments, String patientId, LocalDate day) {
+        if (treatments == null) return 0;
+        catchUpTreatments(treatments);
+        return valueOf(treatmentDay.get(key(patientId, day.toEpochDay())));
+    }
+
+    // ===== Internals (lock held) =====
+    private void count(Consultation c, int delta) {
+        LocalDateTime when = c.getConsultationDate();
+        if (when == null) return;
+        long day = when.toLocalDate().toEpochDay();
+        bump(doctorDay, key(c.getDoctorId(), day), delta);
+        bump(patientDay, key(c.getPatientId(), day), delta);
+
+        String p = norm(c.getPatientId());
+        Window w = patientWindow.get(p);
+        if (w == null) patientWindow.put(p, w = new Window());
+        w.add(day, delta);
+        if (w.days.isEmpty()) patientWindow.remove(p);
+    }
+
+    /** Counts rows appended since the last call; starts over if the list was replaced or reloaded. */
+    private void catchUpTreatments(ClinicADT<MedicalTreatment> treatments) {
+        int n = treatments.size();
+        if (treatments != treatmentSource || n < treatmentsSeen
+                || (treatmentsSeen > 0 && treatments.get(treatmentsSeen - 1) != lastSeen)) {
+            treatmentDay.clear();
+            treatmentSource = treatments;
+            treatmentsSeen = 0;
+        }
+        for (int i = treatmentsSeen; i < n; i++) {
+            MedicalTreatment t = treatments.get(i);
+            if (t != null && t.getTreatmentDateTime() != null) {
+                bump(treatmentDay, key(t.getPatientId(), t.getTreatmentDateTime().toLocalDate().toEpochDay()), 1);
+            }
+        }
+        treatmentsSeen = n;
+        lastSeen = (n == 0) ? null : treatments.get(n - 1);
+    }
+
+    private static void bump(ClinicMapADT<String, int[]> map, String key, int delta) {
+        int[] n = map.get(key);
+        if (n == null) map.put(key, n = new int[1]);
+        n[0] += delta;
+        if (n[0] <= 0) map.remove(key);
+    }
+
+    private static int valueOf(int[] n) { return (n == null) ? 0 : n[0]; }
+
+    private static String key(String id, long epochDay) { return norm(id) + '|' + epochDay; }
+
+    private static String norm(String id) { return (id == null) ? "" : id.trim().toUpperCase(); }
+}
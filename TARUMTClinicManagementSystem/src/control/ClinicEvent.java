@@ -0,0 +1,90 @@
+package control;
+
+import entity.Appointment;
+import entity.Consultation;
+import entity.MedicinePrescription;
+
+/**
+ * Domain events published on the {@link ClinicEventBus}. Immutable; each carries the
+ * wall-clock time it happened so subscribers that run later still see the real moment.
+ */
+public abstract class ClinicEvent {
+
+    private final long atMillis;
+
+    protected ClinicEvent() { this.atMillis = System.currentTimeMillis(); }
+
+    public long getAtMillis() { return atMillis; }
+
+    // ===== Event types =====
+    /** An appointment moved between statuses (BOOKED -> CHECKED_IN -> ... -> COMPLETED). */
+    public static final class AppointmentStatusChanged extends ClinicEvent {
+        private final Appointment appointment;
+        private final Appointment.AppointmentStatus from;
+        private final Appointment.AppointmentStatus to;
+        private final long sinceMillis;
+
+        public AppointmentStatusChanged(Appointment appointment,
+                                        Appointment.AppointmentStatus from, Appointment.AppointmentStatus to) {
+            this.appointment = appointment;
+            this.from = from;
+            this.to = to;
+            this.sinceMillis = (from == null) ? 0L : appointment.getStageMillis(from);
+        }
+
+        public Appointment getAppointment() { return appointment; }
+        public int getAppointmentId() { return appointment.getAppointmentId(); }
+        public Appointment.AppointmentStatus getFrom() { return from; }
+        public Appointment.AppointmentStatus getTo() { return to; }
+        /** When the appointment entered {@code from} (epoch ms), or 0 if unknown (loaded from file). */
+        public long getSinceMillis() { return sinceMillis; }
+    }
+
+    /** A consultation moved between statuses (PENDING -> CONSULTING -> PROCESSED ...). */
+    public static final class ConsultationStatusChanged extends ClinicEvent {
+        private final Consultation consultation;
+        private final Consultation.Status from;
+        private final Consultation.Status to;
+
+        public ConsultationStatusChanged(Consultation consultation, Consultation.Status from, Consultation.Status to) {
+            this.consultation = consultation;
+            this.from = from;
+            this.to = to;
+        }
+
+        public Consultation getConsultation() { return consultation; }
+        public Consultation.Status getFrom() { return from; }
+        public Consultation.Status getTo() { return to; }
+    }
+
+    /** The treatment room took an appointment off the treatment queue and began the session. */
+    public static final class TreatmentStarted extends ClinicEvent {
+        private final Appointment appointment;
+        private final long sinceMillis;
+
+        public TreatmentStarted(Appointment appointment) {
+            this.appointment = appointment;
+            this.sinceMillis = appointment.getStageMillis(Appointment.AppointmentStatus.TREATMENT);
+        }
+
+        public Appointment getAppointment() { return appointment; }
+        /** When the appointment entered TREATMENT (epoch ms), or 0 if unknown (loaded from file). */
+        public long getSinceMillis() { return sinceMillis; }
+    }
+
+    /** A READY prescription line was handed over at the pharmacy counter. */
+    public static final class PrescriptionDispensed extends ClinicEvent {
+        private final MedicinePrescription prescription;
+
+        public PrescriptionDispensed(MedicinePrescription prescription) {
+            this.prescription = prescription;
+        }
+
+        public MedicinePrescription getPrescription() { return prescription; }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "@" + atMillis;
+    }
+}
@@ -0,0 +1,191 @@
+package control;
+
+import adt.ClinicADT;
+import adt.MyClinicADT;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process publish/subscribe between the controls.
+ *
+ * Every subscriber has its own bounded ring buffer and its own (virtual) thread, which is
+ * the only thread that ever calls that subscriber - so a subscriber needs no locking of
+ * its own state (single writer). The thread waits for one event, then drains whatever
+ * else is queued (up to MAX_BATCH) and hands the whole batch over at once, so e.g. a burst
+ * of ten status changes costs one file rewrite instead of ten.
+ *
+ * publish() never runs subscriber code; it only blocks when a subscriber has fallen
+ * CAPACITY events behind (back-pressure instead of unbounded memory).
+ * Pending batches are flushed by a shutdown hook before the JVM exits.
+ */
+public final class ClinicEventBus {
+
+    /** Receives events in publish order, always on the subscription's own thread. */
+    public interface Subscriber {
+        void onEvents(ClinicADT<ClinicEvent> batch);
+    }
+
+    public static final int CAPACITY = 1024;
+    public static final int MAX_BATCH = 256;
+
+    private static final ClinicEventBus SHARED = new ClinicEventBus();
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> SHARED.awaitIdle(2000), "event-bus-flush"));
+    }
+
+    /** The bus the controls publish on. */
+    public static ClinicEventBus shared() { return SHARED; }
+
+    private volatile Subscription[] subscriptions = new Subscription[0];
+
+    // ===== Subscribe / publish =====
+    public synchronized Subscription subscribe(String name, Subscriber subscriber) {
+        Subscription s = new Subscription(name, subscriber);
+        Subscription[] cur = subscriptions;
+        Subscription[] next = new Subscription[cur.length + 1];
+        System.arraycopy(cur, 0, next, 0, cur.length);
+        next[cur.length] = s;
+        subscriptions = next;
+        s.start();
+        return s;
+    }
+
+    public synchronized void unsubscribe(Subscription s) {
+        Subscription[] cur = subscriptions;
+        int at = -1;
+        for (int i = 0; i < cur.length; i++) if (cur[i] == s) at = i;
+        if (at < 0) return;
+        Subscription[] next = new Subscription[cur.length - 1];
+        System.arraycopy(cur, 0, next, 0, at);
+        System.arraycopy(cur, at + 1, next, at, cur.length - at - 1);
+        subscriptions = next;
+        s.stop();
+    }
+
+    public void publish(ClinicEvent event) {
+        if (event == null) return;
+        for (Subscription s : subscriptions) s.offer(event);
+    }
+
+    /** Waits until every subscriber has handled everything published so far. */
+    public boolean awaitIdle(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (Subscription s : subscriptions) {
+            if (!s.awaitIdle(deadline)) return false;
+        }
+        return true;
+    }
+
+    // ===== One subscriber's mailbox =====
+    public static final class Subscription {
+        private final String name;
+        private final Subscriber subscriber;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private final Condition idle = lock.newCondition();
+        private final ClinicEvent[] ring = new ClinicEvent[CAPACITY];
+        private int head, size;
+        private boolean busy;       // a batch is being handled
+        private boolean stopped;
+        private long delivered;
+
+        private Subscription(String name, Subscriber subscriber) {
+            this.name = name;
+            this.subscriber = subscriber;
+        }
+
+        public String getName() { return name; }
+
+        public long getDelivered() {
+            lock.lock();
+            try { return delivered; } finally { lock.unlock(); }
+        }
+
+        private void start() {
+            Thread.ofVirtual().name("event-bus-" + name).start(this::run);
+        }
+
+        private void stop() {
+            lock.lock();
+            try {
+                stopped = true;
+                notEmpty.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void offer(ClinicEvent e) {
+            lock.lock();
+            try {
+                while (size == CAPACITY && !stopped) notFull.awaitUninterruptibly();
+                if (stopped) return;
+                ring[(head + size) % CAPACITY] = e;
+                size++;
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void run() {
+            while (true) {
+                MyClinicADT<ClinicEvent> batch = new MyClinicADT<>();
+                lock.lock();
+                try {
+                    while (size == 0 && !stopped) {
+                        idle.signalAll();
+                        notEmpty.awaitUninterruptibly();
+                    }
+                    if (size == 0) { idle.signalAll(); return; }
+                    while (size > 0 && batch.size() < MAX_BATCH) {
+                        batch.add(ring[head]);
+                        ring[head] = null;
+                        head = (head + 1) % CAPACITY;
+                        size--;
+                    }
+                    busy = true;
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+
+                try {
+                    subscriber.onEvents(batch);
+                } catch (RuntimeException ex) {
+                    System.out.println("Event subscriber '" + name + "' failed: " + ex.getMessage());
+                }
+
+                lock.lock();
+                try {
+                    busy = false;
+                    delivered += batch.size();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        private boolean awaitIdle(long deadlineNanos) {
+            lock.lock();
+            try {
+                while (size > 0 || busy) {
+                    long left = deadlineNanos - System.nanoTime();
+                    if (left <= 0 || stopped) return size == 0 && !busy;
+                    idle.awaitNanos(left);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
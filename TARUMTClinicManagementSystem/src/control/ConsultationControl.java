@@ -1,7 +1,9 @@
 package control;
 
 import adt.ClinicADT;
+import adt.ClinicMapADT;
 import adt.MyClinicADT;
+import adt.MyClinicMapADT;
 import entity.Appointment;
 import entity.Consultation;
 import entity.Doctor;
@@ -22,7 +24,9 @@ import java.time.format.DateTimeFormatter;
 import java.util.Scanner;
 
 import static entity.Appointment.AppointmentStatus.*;
+import utility.CsvCursor;
 import utility.Report;
+import utility.TimestampCodec;
 
 public class ConsultationControl {
     private ClinicADT<Consultation> consultations;
@@ -41,6 +45,10 @@ public class ConsultationControl {
     // === Waiting queue of pending consultation IDs (ordered by nearest to now) ===
     private final MyClinicADT<Integer> waitingQueue = new MyClinicADT<>();
 
+    // === id -> consultation, one bitset per status, and the handoff lookups (Consultation.setStatus keeps it current) ===
+    private final BookingCounters bookingCounters = new BookingCounters();
+    private final ConsultationIndex byStatus = new ConsultationIndex(bookingCounters);
+
     // === The only consultation currently allowed to be processed ===
     private Integer currentCalledConsultationId = null;
 
@@ -104,12 +112,12 @@ public class ConsultationControl {
     }
 
     private Consultation findById(int id) {
-        ClinicADT.MyIterator<Consultation> it = consultations.iterator();
-        while (it.hasNext()) {
-            Consultation c = it.next();
-            if (c.getId() == id) return c;
-        }
-        return null;
+        return byStatus.get(id);
+    }
+
+    /** O(1) per-status count. */
+    public int countByStatus(Consultation.Status status) {
+        return byStatus.count(status);
     }
 
     /** Call the next consultation based on the ordered queue (does NOT delete patient). */
@@ -392,6 +400,7 @@ public class ConsultationControl {
         Consultation consultation = new Consultation(patientId, patientName, doctorName, doctorId, date, diagnosis);
         consultation.setStatus(Consultation.Status.PENDING);
         consultations.add(consultation);
+        consultation.attachStatusIndex(byStatus);
         saveConsultationToFile(consultation, true);
         displayConsultationConfirmation(consultation);
         rebuildWaitingQueueFromPending();
@@ -532,18 +541,7 @@ public class ConsultationControl {
     // ===== Status mapping (Appointment-driven when available) =====
     private Appointment findApptForConsultation(Consultation c) {
         if (appointmentControl == null || c == null) return null;
-        ClinicADT<Appointment> all = appointmentControl.getAll();
-        ClinicADT.MyIterator<Appointment> it = all.iterator();
-        while (it.hasNext()) {
-            Appointment a = it.next();
-            if (a.getPatientId().equalsIgnoreCase(c.getPatientId())
-                    && a.getDoctorId().equalsIgnoreCase(c.getDoctorId())
-                    && a.getScheduledDateTime() != null
-                    && a.getScheduledDateTime().equals(c.getConsultationDate())) {
-                return a;
-            }
-        }
-        return null;
+        return appointmentControl.findByHandoff(c.getPatientId(), c.getDoctorId(), c.getConsultationDate());
     }
 
     /** Status string for display (Appointment-driven where possible). */
@@ -626,98 +624,89 @@ public class ConsultationControl {
 
     /** Write ONE row (append) or the WHOLE file (truncate+rewrite). */
     private synchronized void saveConsultationToFile(Consultation consultation, boolean appendMode) {
-        ensureFileExists(CONSULTATIONS_PATH);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-
-        try {
-            if (!appendMode) {
-                try (BufferedWriter bw = Files.newBufferedWriter(
-                        CONSULTATIONS_PATH,
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.WRITE,
-                        StandardOpenOption.TRUNCATE_EXISTING)) {
-
-                    ClinicADT.MyIterator<Consultation> it = consultations.iterator();
-                    while (it.hasNext()) {
-                        Consultation c = it.next();
-
-                        String dateStr = (c.getConsultationDate() == null)
-                                ? ""
-                                : c.getConsultationDate().format(formatter);
-
-                        String line = String.format(
-                                "%d,%s,%s,%s,%s,%s,%s,%s%n",
-                                c.getId(),
-                                cleanCSV(c.getPatientId(), "N/A"),
-                                cleanCSV(c.getPatientName(), "N/A"),
-                                cleanCSV(c.getDoctorName(), "N/A"),
-                                cleanCSV(c.getDoctorId(), "N/A"),
-                                dateStr,
-                                cleanCSV(c.getDiagnosis(), "To be diagnosed during appointment"),
-                                (c.getStatus() == null ? Consultation.Status.PENDING : c.getStatus()).name()
-                        );
-                        bw.write(line);
-                    }
-                    bw.flush();
-                }
-            } else {
-                try (BufferedWriter bw = Files.newBufferedWriter(
-                        CONSULTATIONS_PATH,
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.APPEND)) {
-
-                    String dateStr = (consultation.getConsultationDate() == null)
-                            ? ""
-                            : consultation.getConsultationDate().format(formatter);
-
-                    String line = String.format(
-                            "%d,%s,%s,%s,%s,%s,%s,%s%n",
-                            consultation.getId(),
-                            cleanCSV(consultation.getPatientId(), "N/A"),
-                            cleanCSV(consultation.getPatientName(), "N/A"),
-                            cleanCSV(consultation.getDoctorName(), "N/A"),
-                            cleanCSV(consultation.getDoctorId(), "N/A"),
-                            dateStr,
-                            cleanCSV(consultation.getDiagnosis(), "To be diagnosed during appointment"),
-                            (consultation.getStatus() == null ? Consultation.Status.PENDING : consultation.getStatus()).name()
-                    );
-                    bw.write(line);
-                    bw.flush();
-                }
+        if (!appendMode) {
+            ensureFileExists(CONSULTATIONS_PATH);
+            try (BufferedWriter bw = Files.newBufferedWriter(
+                    CONSULTATIONS_PATH,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+
+                ClinicADT.MyIterator<Consultation> it = consultations.iterator();
+                while (it.hasNext()) bw.write(formatRow(it.next()));
+                bw.flush();
+            } catch (IOException e) {
+                System.out.println("Error saving consultation: " + e.getMessage());
             }
+        } else {
+            MyClinicADT<Consultation> one = new MyClinicADT<>();
+            one.add(consultation);
+            appendConsultationRows(one);
+        }
+    }
+
+    /**
+     * Incremental update path: appends the current state of these consultations. A row for
+     * an ID already in the file supersedes it on the next load (last row wins), and the
+     * next full rewrite compacts the file again.
+     */
+    private synchronized void appendConsultationRows(ClinicADT<Consultation> rows) {
+        ensureFileExists(CONSULTATIONS_PATH);
+        try (BufferedWriter bw = Files.newBufferedWriter(
+                CONSULTATIONS_PATH,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)) {
+
+            ClinicADT.MyIterator<Consultation> it = rows.iterator();
+            while (it.hasNext()) bw.write(formatRow(it.next()));
+            bw.flush();
         } catch (IOException e) {
             System.out.println("Error saving consultation: " + e.getMessage());
         }
     }
 
+    private static String formatRow(Consultation c) {
+        return String.format(
+                "%d,%s,%s,%s,%s,%s,%s,%s%n",
+                c.getId(),
+                cleanCSV(c.getPatientId(), "N/A"),
+                cleanCSV(c.getPatientName(), "N/A"),
+                cleanCSV(c.getDoctorName(), "N/A"),
+                cleanCSV(c.getDoctorId(), "N/A"),
+                TimestampCodec.formatMinute(c.getConsultationDate()),
+                cleanCSV(c.getDiagnosis(), "To be diagnosed during appointment"),
+                (c.getStatus() == null ? Consultation.Status.PENDING : c.getStatus()).name()
+        );
+    }
+
     public void loadConsultationsFromFile() {
+        detachAll();
         consultations.clear();
         ensureFileExists(CONSULTATIONS_PATH);
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        CsvCursor cur = new CsvCursor(CONSULTATIONS_PATH.toString());
+        ClinicMapADT<Integer, Integer> rowOf = new MyClinicMapADT<>(256); // id -> position in consultations
         try (BufferedReader br = Files.newBufferedReader(CONSULTATIONS_PATH)) {
             String line;
             while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.split(",", -1);
-                if (parts.length < 7) continue;
+                cur.reset(line);
+                if (cur.isBlankOrComment()) continue;
 
                 try {
-                    int consultationId = Integer.parseInt(parts[0].trim());
-                    String patientId   = parts[1].trim();
-                    String patientName = parts[2].trim();
-                    String doctorName  = parts[3].trim();
-                    String doctorId    = parts[4].trim();
-                    LocalDateTime consultationDate = parts[5].trim().isEmpty()
-                            ? null
-                            : LocalDateTime.parse(parts[5].trim(), formatter);
-                    String diagnosis   = parts[6].trim();
+                    cur.requireFields(7);
+                    int consultationId = cur.nextInt();
+                    String patientId   = cur.nextString();
+                    String patientName = cur.nextString();
+                    String doctorName  = cur.nextString();
+                    String doctorId    = cur.nextString();
+                    LocalDateTime consultationDate = cur.nextDateTimeOrNull();
+                    String diagnosis   = cur.nextString();
 
                     Consultation c = new Consultation(
                             consultationId, patientId, patientName, doctorName, doctorId, consultationDate, diagnosis);
 
-                    if (parts.length >= 8) {
-                        String st = parts[7].trim();
+                    if (cur.hasMore()) {
+                        String st = cur.nextString();
                         try {
                             c.setStatus(Consultation.Status.valueOf(st));
                         } catch (Exception ignored) { c.setStatus(Consultation.Status.PENDING); }
@@ -725,17 +714,29 @@ public class ConsultationControl {
                         c.setStatus(Consultation.Status.PENDING);
                     }
 
-                    consultations.add(c);
-
-                    if (c.getStatus() == Consultation.Status.CONSULTING && currentCalledConsultationId == null) {
-                        currentCalledConsultationId = c.getId();
+                    // an appended update row replaces the earlier row for the same ID, in place
+                    Consultation earlier = byStatus.get(consultationId);
+                    if (earlier == null) {
+                        rowOf.put(consultationId, consultations.size());
+                        consultations.add(c);
+                    } else {
+                        earlier.detachStatusIndex();
+                        consultations.set(rowOf.get(consultationId), c);
                     }
-                } catch (Exception ignored) {}
+                    c.attachStatusIndex(byStatus);
+                } catch (CsvCursor.MalformedRowException e) {
+                    cur.report(e);
+                }
             }
         } catch (IOException e) {
             System.out.println("Error loading consultations: " + e.getMessage());
         }
 
+        // statuses are final only after the last row per ID, so resolve the lock afterwards
+        if (currentCalledConsultationId == null) {
+            ClinicADT<Consultation> consulting = byStatus.list(Consultation.Status.CONSULTING);
+            if (!consulting.isEmpty()) currentCalledConsultationId = consulting.get(0).getId();
+        }
         rebuildWaitingQueueFromPending();
     }
 
@@ -746,6 +747,7 @@ public class ConsultationControl {
             Consultation c = it.next();
             if (c.getId() == id) {
                 consultations.remove(idx);
+                c.detachStatusIndex();
                 try { waitingQueue.remove(id); } catch (Exception ignored) {}
                 if (currentCalledConsultationId != null && currentCalledConsultationId == id) {
                     currentCalledConsultationId = null;
@@ -842,56 +844,41 @@ public class ConsultationControl {
         if (justFinished == null) return;
         if (minutesUsed >= CONSULTATION_DURATION_MIN) return;
 
-        final String doctorId = justFinished.getDoctorId();
+        if (justFinished.getConsultationDate() == null) return;
         final LocalDate theDay = justFinished.getConsultationDate().toLocalDate();
 
-        // Collect doctor/day consultations (>= current start)
-        MyClinicADT<Consultation> sameDoctorDay = new MyClinicADT<>();
-        ClinicADT.MyIterator<Consultation> it = consultations.iterator();
-        while (it.hasNext()) {
-            Consultation c = it.next();
-            if (c.getDoctorId().equalsIgnoreCase(doctorId)
-                    && c.getConsultationDate() != null
-                    && c.getConsultationDate().toLocalDate().equals(theDay)
-                    && !c.getConsultationDate().isBefore(justFinished.getConsultationDate())) {
-                sameDoctorDay.add(c);
-            }
-        }
-        if (sameDoctorDay.isEmpty()) return;
-
-        // Sort by consultationDate ascending (bubble logic replaced by ADT.sort with same ordering)
-        sameDoctorDay.sort((a, b) -> a.getConsultationDate().compareTo(b.getConsultationDate()));
-
-        // find current index
-        int idxCurrent = -1, idx = 0;
-        ClinicADT.MyIterator<Consultation> itIdx = sameDoctorDay.iterator();
-        while (itIdx.hasNext()) {
-            if (itIdx.next().getId() == justFinished.getId()) { idxCurrent = idx; break; }
-            idx++;
-        }
-        if (idxCurrent == -1) return;
+        // Only the entries after the current one on this doctor's day (copy: rescheduling re-keys them)
+        ClinicADT<Consultation> tail = byStatus.timelineAfter(justFinished);
+        if (tail.isEmpty()) return;
 
         LocalDateTime currentStart = justFinished.getConsultationDate();
         LocalDateTime actualEnd = alignToAllowedWindows(currentStart.plusMinutes(minutesUsed));
         LocalDateTime nextStart = actualEnd;
 
         // Walk forward and pull up while respecting windows — unchanged logic
-        for (int i = idxCurrent + 1; i < estimateSize(sameDoctorDay); i++) {
-            Consultation c = sameDoctorDay.get(i);
+        MyClinicADT<Consultation> shifted = new MyClinicADT<>();
+        ClinicADT.MyIterator<Consultation> it = tail.iterator();
+        while (it.hasNext()) {
+            Consultation c = it.next();
             LocalDateTime originalStart = c.getConsultationDate();
             if (!nextStart.isBefore(originalStart)) nextStart = originalStart; // do not push later
             nextStart = alignToAllowedWindows(nextStart);
             if (!nextStart.toLocalTime().isBefore(NIGHT_END)) break;
 
-            if (nextStart.isBefore(originalStart)) c.setConsultationDate(nextStart);
+            if (nextStart.isBefore(originalStart)) {
+                reschedule(c, nextStart);
+                shifted.add(c);
+            }
 
             nextStart = c.getConsultationDate().plusMinutes(CONSULTATION_DURATION_MIN);
             nextStart = alignToAllowedWindows(nextStart);
             if (!nextStart.toLocalTime().isBefore(NIGHT_END)) break;
         }
+        if (shifted.isEmpty()) return;
 
-        saveConsultationToFile(null, false);
-        rebuildWaitingQueueFromPending();
+        // Append the moved rows only; the loader keeps the last row per ID.
+        // (The waiting queue is rebuilt by every reader, so it is not touched here.)
+        appendConsultationRows(shifted);
 
         System.out.println("\nSchedule compressed for Dr. " + justFinished.getDoctorName() + " on " + theDay + ".");
         System.out.println("Subsequent consultations were pulled forward where possible.");
@@ -1176,6 +1163,7 @@ public void searchByDoctor(Scanner sc, DoctorControl doctorControl, ClinicADT<Co
      * Immediately persists to consultations.txt so nothing comes back after restart.
      */
     public void removeAllConsultations() {
+        detachAll();
         consultations.clear();
         waitingQueue.clear();
         currentCalledConsultationId = null;
@@ -1244,6 +1232,7 @@ public void searchByDoctor(Scanner sc, DoctorControl doctorControl, ClinicADT<Co
                     && c.getConsultationDate().equals(consultationDate)) {
 
                 consultations.remove(idx);
+                c.detachStatusIndex();
                 try { waitingQueue.remove(c.getId()); } catch (Exception ignored) {}
                 if (currentCalledConsultationId != null && currentCalledConsultationId == c.getId()) {
                     currentCalledConsultationId = null;
@@ -1335,7 +1324,10 @@ public void searchByDoctor(Scanner sc, DoctorControl doctorControl, ClinicADT<Co
         boolean printedAny = false;
         int printed = 0;
 
-        ClinicADT.MyIterator<Consultation> it = consultations.iterator();
+        // unprocessed rows can only come from the PENDING bucket
+        ClinicADT.MyIterator<Consultation> it = onlyProcessed
+                ? consultations.iterator()
+                : byStatus.list(Consultation.Status.PENDING).iterator();
         while (it.hasNext()) {
             Consultation c = it.next();
 
@@ -1387,19 +1379,7 @@ public void searchByDoctor(Scanner sc, DoctorControl doctorControl, ClinicADT<Co
             return false;    // someone else is locked
         }
 
-        Consultation best = null;
-        ClinicADT.MyIterator<Consultation> it = consultations.iterator();
-        while (it.hasNext()) {
-            Consultation c = it.next();
-            if (c == null) continue;
-            if (!patientId.equalsIgnoreCase(c.getPatientId())) continue;
-            if (!isPending(c)) continue;
-
-            if (best == null || c.getConsultationDate().isBefore(best.getConsultationDate())) {
-                best = c;
-            }
-        }
-
+        Consultation best = byStatus.earliestPending(patientId);
         if (best == null) return false;
 
         currentCalledConsultationId = best.getId();
@@ -1410,12 +1390,7 @@ public void searchByDoctor(Scanner sc, DoctorControl doctorControl, ClinicADT<Co
         waitingQueue.clear();
 
         // Collect all pending consultations into a temp ADT
-        MyClinicADT<Consultation> pend = new MyClinicADT<>();
-        ClinicADT.MyIterator<Consultation> it = consultations.iterator();
-        while (it.hasNext()) {
-            Consultation c = it.next();
-            if (isPending(c)) pend.add(c);
-        }
+        ClinicADT<Consultation> pend = byStatus.list(Consultation.Status.PENDING);
         if (pend.isEmpty()) return;
 
         // Sort by:
@@ -1444,19 +1419,7 @@ public void searchByDoctor(Scanner sc, DoctorControl doctorControl, ClinicADT<Co
             LocalDateTime scheduledDateTime,
             boolean createIfMissing) {
 
-        Consultation exact = null;
-        ClinicADT.MyIterator<Consultation> it = consultations.iterator();
-        while (it.hasNext()) {
-            Consultation c = it.next();
-            if (c == null) continue;
-            if (patientId.equalsIgnoreCase(c.getPatientId())
-                    && doctorId.equalsIgnoreCase(c.getDoctorId())
-                    && c.getConsultationDate() != null
-                    && c.getConsultationDate().equals(scheduledDateTime)) {
-                exact = c;
-                break;
-            }
-        }
+        Consultation exact = byStatus.findBySlot(patientId, doctorId, scheduledDateTime);
 
         if (exact == null) {
             if (!createIfMissing) return false;   // <<--- do NOT recreate
@@ -1465,6 +1428,7 @@ public void searchByDoctor(Scanner sc, DoctorControl doctorControl, ClinicADT<Co
                     scheduledDateTime, "To be diagnosed during appointment");
             exact.setStatus(Consultation.Status.CONSULTING);
             consultations.add(exact);
+            exact.attachStatusIndex(byStatus);
             saveConsultationToFile(null, false);
             rebuildWaitingQueueFromPending();
         } else if (exact.getStatus() != Consultation.Status.CONSULTING) {
@@ -1481,31 +1445,8 @@ public void searchByDoctor(Scanner sc, DoctorControl doctorControl, ClinicADT<Co
     public boolean setExternalCalledByPatientAndTime(
             String patientId, java.time.LocalDateTime scheduledDateTime) {
 
-        Consultation best = null;
-        ClinicADT.MyIterator<Consultation> it = consultations.iterator();
-        while (it.hasNext()) {
-            Consultation c = it.next();
-            if (c == null) continue;
-            if (patientId.equalsIgnoreCase(c.getPatientId())
-                    && c.getConsultationDate() != null
-                    && c.getConsultationDate().equals(scheduledDateTime)
-                    && isPending(c)) {
-                best = c;
-                break;
-            }
-        }
-        if (best == null) {
-            it = consultations.iterator();
-            while (it.hasNext()) {
-                Consultation c = it.next();
-                if (c == null) continue;
-                if (!patientId.equalsIgnoreCase(c.getPatientId())) continue;
-                if (!isPending(c)) continue;
-                if (best == null || c.getConsultationDate().isBefore(best.getConsultationDate())) {
-                    best = c;
-                }
-            }
-        }
+        Consultation best = byStatus.pendingAt(patientId, scheduledDateTime);
+        if (best == null) best = byStatus.earliestPending(patientId);
         if (best == null) return false;
         currentCalledConsultationId = best.getId();
         return true;
@@ -1525,58 +1466,17 @@ public void searchByDoctor(Scanner sc, DoctorControl doctorControl, ClinicADT<Co
     }
 
     private boolean hasDoctorReachedDailyLimit(String doctorId, LocalDate date) {
-        int count = 0;
-        ClinicADT.MyIterator<Consultation> it = consultations.iterator();
-        while (it.hasNext()) {
-            Consultation c = it.next();
-            if (c.getDoctorId().equalsIgnoreCase(doctorId)
-                    && c.getConsultationDate().toLocalDate().equals(date)) {
-                count++;
-                if (count >= MAX_DAILY_CONSULTATIONS_PER_DOCTOR) return true;
-            }
-        }
-        return false;
+        return bookingCounters.consultationsForDoctor(doctorId, date) >= MAX_DAILY_CONSULTATIONS_PER_DOCTOR;
     }
 
     private boolean hasPatientExceededFrequency(String patientId) {
         LocalDate oneWeekAgo = LocalDate.now().minusDays(7);
-        int count = 0;
-        ClinicADT.MyIterator<Consultation> it = consultations.iterator();
-        while (it.hasNext()) {
-            Consultation c = it.next();
-            if (c.getPatientId().equalsIgnoreCase(patientId)
-                    && !c.getConsultationDate().toLocalDate().isBefore(oneWeekAgo)) {
-                count++;
-                if (count >= MAX_WEEKLY_CONSULTATIONS_PER_PATIENT) return true;
-            }
-        }
-        return false;
+        return bookingCounters.consultationsForPatientSince(patientId, oneWeekAgo) >= MAX_WEEKLY_CONSULTATIONS_PER_PATIENT;
     }
 
     private boolean isPatientAlreadyBooked(String patientId, LocalDate selectedDate, boolean includeTreatments) {
-        int consultationCount = 0;
-        int treatmentCount = 0;
-
-        ClinicADT.MyIterator<Consultation> it = consultations.iterator();
-        while (it.hasNext()) {
-            Consultation c = it.next();
-            if (c.getPatientId().equalsIgnoreCase(patientId)
-                    && c.getConsultationDate().toLocalDate().equals(selectedDate)) {
-                consultationCount++;
-            }
-        }
-
-        if (includeTreatments && treatments != null) {
-            ClinicADT.MyIterator<MedicalTreatment> tit = treatments.iterator();
-            while (tit.hasNext()) {
-                MedicalTreatment t = tit.next();
-                if (t.getPatientId().equalsIgnoreCase(patientId)
-                        && t.getTreatmentDateTime().toLocalDate().equals(selectedDate)) {
-                    treatmentCount++;
-                }
-            }
-        }
-        return (consultationCount > 0 || treatmentCount > 0);
+        if (bookingCounters.consultationsForPatient(patientId, selectedDate) > 0) return true;
+        return includeTreatments && bookingCounters.treatmentsForPatient(treatments, patientId, selectedDate) > 0;
     }
 
     private boolean hasMinimumGap(Doctor doctor, LocalDateTime newStart) {
@@ -1824,6 +1724,23 @@ public void searchByDoctor(Scanner sc, DoctorControl doctorControl, ClinicADT<Co
         return result;
     }
 
+    /** The date is part of the handoff keys, so the record leaves the index while it changes. */
+    private void reschedule(Consultation c, LocalDateTime when) {
+        c.detachStatusIndex();
+        c.setConsultationDate(when);
+        c.attachStatusIndex(byStatus);
+    }
+
+    /** Drops every current record from the status index (before the list is cleared/reloaded). */
+    private void detachAll() {
+        ClinicADT.MyIterator<Consultation> it = consultations.iterator();
+        while (it.hasNext()) {
+            Consultation c = it.next();
+            if (c != null) c.detachStatusIndex();
+        }
+        byStatus.clear();
+    }
+
     // --- tiny helper so we never forget to persist a status change ---
     private synchronized void setStatusAndPersist(Consultation c, Consultation.Status s) {
         if (c == null) return;
@@ -1835,9 +1752,7 @@ public void searchByDoctor(Scanner sc, DoctorControl doctorControl, ClinicADT<Co
         if (appointmentControl == null || c == null) return;
         Appointment a = findApptForConsultation(c);
         if (a != null) {
-            a.setStatus(st);
-            // persist to appointments.txt so nothing resurrects next run
-            appointmentControl.persistForExternalMutation();
+            a.setStatus(st); // published on the event bus; AppointmentControl persists it
         }
     }
 }
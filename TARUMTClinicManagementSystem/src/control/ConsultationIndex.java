@@ -0,0 +1,207 @@
+package control;
+
+import adt.ClinicADT;
+import adt.ClinicMapADT;
+import adt.ClinicSortedMapADT;
+import adt.MyClinicADT;
+import adt.MyClinicMapADT;
+import adt.MyClinicSortedMapADT;
+import adt.MyClinicStatusIndexADT;
+import entity.Consultation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status index for consultations that also keeps the lookups used when the Appointment
+ * module hands a patient over:
+ *   (patient, doctor, time) -> consultation           O(1)
+ *   patient -> PENDING consultations by time          earliest / exact-time in O(log n)
+ *   (doctor, day) -> that day's timeline by time      tail from a slot in O(log n + k)
+ * Both are updated from the same add/remove/move calls as the status buckets, so
+ * Consultation.setStatus keeps them current; add/remove also feed the BookingCounters,
+ * and every move is published on the ClinicEventBus. Patient, doctor and date are part of the
+ * keys: detach the consultation before changing them and attach it again afterwards.
+ */
+class ConsultationIndex extends MyClinicStatusIndexADT<Consultation.Status, Consultation> {
+
+    /** Date (nulls last), then ID. */
+    private static final ClinicADT.MyComparator<Consultation> BY_TIME = new ClinicADT.MyComparator<Consultation>() {
+        @Override
+        public int compare(Consultation a, Consultation b) {
+            LocalDateTime x = a.getConsultationDate(), y = b.getConsultationDate();
+            if (x == null || y == null) {
+                if (x != y) return (x == null) ? 1 : -1;
+            } else {
+                int c = x.compareTo(y);
+                if (c != 0) return c;
+            }
+            return Integer.compare(a.getId(), b.getId());
+        }
+    };
+
+    // handoff key -> consultations on that slot (almost always exactly one), in add order
+    private final ClinicMapADT<String, ClinicADT<Consultation>> bySlot = new MyClinicMapADT<>(256);
+    // PATIENT ID -> that patient's PENDING consultations
+    private final ClinicMapADT<String, ClinicSortedMapADT<Consultation, Consultation>> pendingByPatient =
+            new MyClinicMapADT<>(256);
+
+    // DOCTOR ID|epoch day -> every consultation of that doctor on that day, any status
+    private final ClinicMapADT<String, ClinicSortedMapADT<Consultation, Consultation>> byDoctorDay =
+            new MyClinicMapADT<>(256);
+
+    private final BookingCounters counters;
+
+    ConsultationIndex(BookingCounters counters) {
+        super(Consultation.Status.class);
+        this.counters = counters;
+    }
+
+    /** Shared with AppointmentControl so both sides build the same key. */
+    static String handoffKey(String patientId, String doctorId, LocalDateTime when) {
+        StringBuilder sb = new StringBuilder(40);
+        sb.append(patientId == null ? "" : patientId.trim().toUpperCase()).append('|')
+          .append(doctorId == null ? "" : doctorId.trim().toUpperCase()).append('|');
+        return (when == null ? sb : sb.append(when)).toString();
+    }
+
+    // ===== Maintenance (hooked into the status index) =====
+    @Override
+    public synchronized boolean add(int id, Consultation c, Consultation.Status status) {
+        if (!super.add(id, c, status)) return false;
+        String key = slotKey(c);
+        ClinicADT<Consultation> same = bySlot.get(key);
+        if (same == null) bySlot.put(key, same = new MyClinicADT<>());
+        same.add(c);
+        if (status == Consultation.Status.PENDING) addPending(c);
+        addToTimeline(c);
+        counters.add(c);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean remove(int id, Consultation c, Consultation.Status status) {
+        if (!super.remove(id, c, status)) return false;
+        String key = slotKey(c);
+        ClinicADT<Consultation> same = bySlot.get(key);
+        if (same != null) {
+            int at = same.indexOf(c);
+            if (at >= 0) same.remove(at);
+            if (same.isEmpty()) bySlot.remove(key);
+        }
+        if (status == Consultation.Status.PENDING) removePending(c);
+        removeFromTimeline(c);
+        counters.remove(c);
+        return true;
+    }
+
+    @Override
+    public boolean move(int id, Consultation c, Consultation.Status from, Consultation.Status to) {
+        synchronized (this) {
+            if (!super.move(id, c, from, to)) return false;
+            if (from == to) return true;
+            if (from == Consultation.Status.PENDING) removePending(c);
+            if (to == Consultation.Status.PENDING) addPending(c);
+        }
+        ClinicEventBus.shared().publish(new ClinicEvent.ConsultationStatusChanged(c, from, to));
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        bySlot.clear();
+        pendingByPatient.clear();
+        byDoctorDay.clear();
+        counters.clear();
+    }
+
+    // ===== Handoff queries =====
+    /** First consultation on exactly this (patient, doctor, time), any status. */
+    synchronized Consultation findBySlot(String patientId, String doctorId, LocalDateTime when) {
+        if (when == null) return null;
+        ClinicADT<Consultation> same = bySlot.get(handoffKey(patientId, doctorId, when));
+        return (same == null || same.isEmpty()) ? null : same.get(0);
+    }
+
+    /** The patient's earliest PENDING consultation, or null. */
+    synchronized Consultation earliestPending(String patientId) {
+        ClinicSortedMapADT<Consultation, Consultation> p = pendingByPatient.get(idKey(patientId));
+        return (p == null) ? null : p.firstKey();
+    }
+
+    /** A PENDING consultation of the patient at exactly {@code when} (lowest ID), or null. */
+    synchronized Consultation pendingAt(String patientId, LocalDateTime when) {
+        if (when == null) return null;
+        ClinicSortedMapADT<Consultation, Consultation> p = pendingByPatient.get(idKey(patientId));
+        if (p == null) return null;
+        ClinicADT.MyIterator<Consultation> it = p.keyIterator(probe(when), null);
+        if (!it.hasNext()) return null;
+        Consultation c = it.next();
+        return when.equals(c.getConsultationDate()) ? c : null;
+    }
+
+    /** The consultations after {@code c} on its doctor's day, in time order (a copy). */
+    synchronized ClinicADT<Consultation> timelineAfter(Consultation c) {
+        ClinicADT<Consultation> out = new MyClinicADT<>();
+        String key = timelineKey(c);
+        ClinicSortedMapADT<Consultation, Consultation> day = (key == null) ? null : byDoctorDay.get(key);
+        if (day == null) return out;
+        ClinicADT.MyIterator<Consultation> it = day.keyIterator(c, null);
+        while (it.hasNext()) {
+            Consultation next = it.next();
+            if (next != c) out.add(next);
+        }
+        return out;
+    }
+
+    // ===== Internals (lock held) =====
+    private void addPending(Consultation c) {
+        String key = idKey(c.getPatientId());
+        ClinicSortedMapADT<Consultation, Consultation> p = pendingByPatient.get(key);
+        if (p == null) pendingByPatient.put(key, p = new MyClinicSortedMapADT<>(BY_TIME));
+        p.put(c, c);
+    }
+
+    private void removePending(Consultation c) {
+        String key = idKey(c.getPatientId());
+        ClinicSortedMapADT<Consultation, Consultation> p = pendingByPatient.get(key);
+        if (p == null) return;
+        p.remove(c);
+        if (p.isEmpty()) pendingByPatient.remove(key);
+    }
+
+    private void addToTimeline(Consultation c) {
+        String key = timelineKey(c);
+        if (key == null) return;
+        ClinicSortedMapADT<Consultation, Consultation> day = byDoctorDay.get(key);
+        if (day == null) byDoctorDay.put(key, day = new MyClinicSortedMapADT<>(BY_TIME));
+        day.put(c, c);
+    }
+
+    private void removeFromTimeline(Consultation c) {
+        String key = timelineKey(c);
+        ClinicSortedMapADT<Consultation, Consultation> day = (key == null) ? null : byDoctorDay.get(key);
+        if (day == null) return;
+        day.remove(c);
+        if (day.isEmpty()) byDoctorDay.remove(key);
+    }
+
+    /** null for undated consultations (they are on no timeline). */
+    private static String timelineKey(Consultation c) {
+        if (c.getConsultationDate() == null) return null;
+        return idKey(c.getDoctorId()) + '|' + c.getConsultationDate().toLocalDate().toEpochDay();
+    }
+
+    private static String slotKey(Consultation c) {
+        return handoffKey(c.getPatientId(), c.getDoctorId(), c.getConsultationDate());
+    }
+
+    private static String idKey(String id) {
+        return (id == null) ? "" : id.trim().toUpperCase();
+    }
+
+    /** Sorts before every real consultation at {@code when} (lowest possible ID). */
+    private static Consultation probe(LocalDateTime when) {
+        return new Consultation(Integer.MIN_VALUE, "", "", "", "", when, "");
+    }
+}
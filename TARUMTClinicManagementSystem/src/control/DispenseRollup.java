@@ -0,0 +1,253 @@
+package control;
+
+import adt.ClinicADT;
+import adt.ClinicMapADT;
+import adt.MyClinicADT;
+import adt.MyClinicMapADT;
+import utility.CsvCursor;
+import utility.Money;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Per-day, per-medicine dispensing totals (quantity + revenue in cents).
+ * Updated at dispense time so reports never re-scan the raw dispense log.
+ *
+ * File format (one delta per line, folded on load):
+ *   yyyy-MM-dd,medicineId,qty,revenueCents
+ */
+public class DispenseRollup {
+
+    /** One (day, medicine) cell. */
+    public static final class Cell {
+        private final long epochDay;
+        private final String medicineId;
+        private int quantity;
+        private long revenueCents;
+
+        Cell(long epochDay, String medicineId) {
+            this.epochDay = epochDay;
+            this.medicineId = medicineId;
+        }
+
+        public LocalDate getDate() { return LocalDate.ofEpochDay(epochDay); }
+        public String getMedicineId() { return medicineId; }
+        public int getQuantity() { return quantity; }
+        public long getRevenueCents() { return revenueCents; }
+    }
+
+    // epochDay -> (MEDICINE_ID -> cell)
+    private final ClinicMapADT<Long, ClinicMapADT<String, Cell>> byDay = new MyClinicMapADT<>();
+    private final String rollupPath;
+    private final String sourceLogPath;
+
+    public DispenseRollup(String rollupPath, String sourceLogPath) {
+        this.rollupPath = rollupPath;
+        this.sourceLogPath = sourceLogPath;
+        load();
+    }
+
+    // ===== Updates =====
+    /** Accumulate one dispense and persist the delta. */
+    public synchronized void record(LocalDate day, String medicineId, int qty, long revenueCents) {
+        if (day == null || medicineId == null || qty <= 0) return;
+        String key = medicineId.trim().toUpperCase();
+        accumulate(day.toEpochDay(), key, qty, revenueCents);
+        appendDelta(day, key, qty, revenueCents);
+    }
+
+    /** Several dispenses on one day; deltas are written with a single append. */
+    public synchronized void recordAll(LocalDate day, String[] medicineIds, int[] qtys, long[] revenueCents) {
+        if (day == null || medicineIds == null) return;
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < medicineIds.length; i++) {
+            if (medicineIds[i] == null || qtys[i] <= 0) continue;
+            String key = medicineIds[i].trim().toUpperCase();
+            accumulate(day.toEpochDay(), key, qtys[i], revenueCents[i]);
+            out.append(day).append(',').append(key).append(',').append(qtys[i]).append(',')
+               .append(revenueCents[i]).append(System.lineSeparator());
+        }
+        if (out.length() > 0) appendRaw(out);
+    }
+
+    // ===== Queries =====
+    public synchronized Cell get(LocalDate day, String medicineId) {
+        if (day == null || medicineId == null) return null;
+        ClinicMapADT<String, Cell> cells = byDay.get(day.toEpochDay());
+        return (cells == null) ? null : cells.get(medicineId.trim().toUpperCase());
+    }
+
+    /** Totals per medicine over [from, to] inclusive, sorted by medicine ID. */
+    public synchronized ClinicADT<Cell> totalsBetween(LocalDate from, LocalDate to) {
+        ClinicMapADT<String, Cell> merged = new MyClinicMapADT<>();
+        long start = from.toEpochDay(), end = to.toEpochDay();
+        for (long d = start; d <= end; d++) {
+            ClinicMapADT<String, Cell> cells = byDay.get(d);
+            if (cells == null) continue;
+            ClinicADT.MyIterator<Cell> it = cells.valueIterator();
+            while (it.hasNext()) {
+                Cell c = it.next();
+                Cell t = merged.get(c.medicineId);
+                if (t == null) {
+                    t = new Cell(start, c.medicineId);
+                    merged.put(c.medicineId, t);
+                }
+                t.quantity += c.quantity;
+                t.revenueCents += c.revenueCents;
+            }
+        }
+
+        ClinicADT<Cell> out = new MyClinicADT<>();
+        ClinicADT.MyIterator<Cell> it = merged.valueIterator();
+        while (it.hasNext()) out.add(it.next());
+        out.sort(new ClinicADT.MyComparator<Cell>() {
+            @Override
+            public int compare(Cell a, Cell b) { return a.medicineId.compareTo(b.medicineId); }
+        });
+        return out;
+    }
+
+    public synchronized int quantityBetween(String medicineId, LocalDate from, LocalDate to) {
+        if (medicineId == null) return 0;
+        String key = medicineId.trim().toUpperCase();
+        int sum = 0;
+        for (long d = from.toEpochDay(); d <= to.toEpochDay(); d++) {
+            ClinicMapADT<String, Cell> cells = byDay.get(d);
+            if (cells == null) continue;
+            Cell c = cells.get(key);
+            if (c != null) sum += c.quantity;
+        }
+        return sum;
+    }
+
+    public synchronized long revenueCentsBetween(LocalDate from, LocalDate to) {
+        long sum = 0;
+        for (long d = from.toEpochDay(); d <= to.toEpochDay(); d++) {
+            ClinicMapADT<String, Cell> cells = byDay.get(d);
+            if (cells == null) continue;
+            ClinicADT.MyIterator<Cell> it = cells.valueIterator();
+            while (it.hasNext()) sum += it.next().revenueCents;
+        }
+        return sum;
+    }
+
+    // ===== Internals =====
+    private Cell accumulate(long epochDay, String medicineId, int qty, long revenueCents) {
+        ClinicMapADT<String, Cell> cells = byDay.get(epochDay);
+        if (cells == null) {
+            cells = new MyClinicMapADT<>();
+            byDay.put(epochDay, cells);
+        }
+        Cell c = cells.get(medicineId);
+        if (c == null) {
+            c = new Cell(epochDay, medicineId);
+            cells.put(medicineId, c);
+        }
+        c.quantity += qty;
+        c.revenueCents += revenueCents;
+        return c;
+    }
+
+    private int cellCount() {
+        int n = 0;
+        ClinicADT.MyIterator<ClinicMapADT<String, Cell>> it = byDay.valueIterator();
+        while (it.hasNext()) n += it.next().size();
+        return n;
+    }
+
+    // ===== File I/O =====
+    private void load() {
+        File f = new File(rollupPath);
+        if (!f.exists()) {
+            seedFromDispenseLog();
+            return;
+        }
+        int rows = 0;
+        CsvCursor c = new CsvCursor(rollupPath);
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                c.reset(line);
+                if (c.isBlankOrComment()) continue;
+                try {
+                    c.requireFields(4);
+                    long day = c.nextDate().toEpochDay();
+                    String medId = c.nextString().toUpperCase();
+                    int qty = c.nextInt();
+                    accumulate(day, medId, qty, c.nextLong());
+                    rows++;
+                } catch (CsvCursor.MalformedRowException ignored) {
+                    // skip malformed row
+                }
+            }
+        } catch (IOException ignored) {}
+
+        // fold repeated deltas back into one row per cell
+        if (rows > cellCount()) saveCompacted();
+    }
+
+    /** First run: build the rollup once from the existing dispense log. */
+    private void seedFromDispenseLog() {
+        File log = new File(sourceLogPath);
+        if (!log.exists()) return;
+        CsvCursor c = new CsvCursor(sourceLogPath);
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(log), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                c.reset(line);
+                if (c.isBlankOrComment()) continue;
+                try {
+                    // dateTime,medId,medName,qty,unitPrice,lineTotal
+                    c.requireFields(6);
+                    LocalDate day = c.nextDateTime().toLocalDate();
+                    String medId = c.nextString().toUpperCase();
+                    c.skip();
+                    int qty = c.nextInt();
+                    c.skip();
+                    accumulate(day.toEpochDay(), medId, qty, c.nextCents());
+                } catch (CsvCursor.MalformedRowException ignored) {
+                    // skip malformed row
+                }
+            }
+        } catch (IOException ignored) {}
+        saveCompacted();
+    }
+
+    private synchronized void saveCompacted() {
+        ensureParentDir(rollupPath);
+        try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(rollupPath), StandardCharsets.UTF_8))) {
+            ClinicADT.MyIterator<ClinicMapADT<String, Cell>> days = byDay.valueIterator();
+            while (days.hasNext()) {
+                ClinicADT.MyIterator<Cell> it = days.next().valueIterator();
+                while (it.hasNext()) {
+                    Cell c = it.next();
+                    pw.println(c.getDate() + "," + c.medicineId + "," + c.quantity + "," + c.revenueCents);
+                }
+            }
+        } catch (IOException ignored) {}
+    }
+
+    private void appendDelta(LocalDate day, String medicineId, int qty, long revenueCents) {
+        ensureParentDir(rollupPath);
+        try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(rollupPath, true), StandardCharsets.UTF_8))) {
+            pw.println(day + "," + medicineId + "," + qty + "," + revenueCents);
+        } catch (IOException ignored) {}
+    }
+
+    private void appendRaw(CharSequence lines) {
+        ensureParentDir(rollupPath);
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(rollupPath, true), StandardCharsets.UTF_8)) {
+            w.append(lines);
+        } catch (IOException ignored) {}
+    }
+
+    private static void ensureParentDir(String path) {
+        try {
+            File f = new File(path);
+            File dir = f.getParentFile();
+            if (dir != null && !dir.exists()) dir.mkdirs();
+        } catch (Exception ignored) {}
+    }
+}
@@ -19,6 +19,7 @@ import java.util.Scanner;
 import static tarumtclinicmanagementsystem.Session.AFTERNOON;
 import static tarumtclinicmanagementsystem.Session.MORNING;
 import static tarumtclinicmanagementsystem.Session.NIGHT;
+import utility.CsvCursor;
 import utility.Report;
 
 public class DoctorControl {
@@ -328,6 +329,7 @@ public class DoctorControl {
             return;
         }
 
+        CsvCursor c = new CsvCursor(file.getName());
         try (Scanner fileScanner = new Scanner(file)) {
             Doctor currentDoctor = null;
             DutySchedule currentSchedule = null;
@@ -339,20 +341,20 @@ public class DoctorControl {
 
                 // Doctor info line: does NOT start with whitespace
                 if (!rawLine.startsWith(" ")) {
-                    String[] parts = line.split(",", -1);
-                    if (parts.length >= 6) {
+                    c.reset(line);
+                    if (c.fieldCount() >= 6) {
                         try {
-                            String id = parts[0].trim();
-                            String name = parts[1].trim();
-                            int room = Integer.parseInt(parts[2].trim());
-                            String gender = parts[3].trim();
-                            String ic = parts[4].trim();
-                            String phone = parts[5].trim();
+                            String id = c.nextString();
+                            String name = c.nextString();
+                            int room = c.nextInt();
+                            String gender = c.nextString();
+                            String ic = c.nextString();
+                            String phone = c.nextString();
 
                             currentSchedule = new DutySchedule();
                             currentDoctor = new Doctor(id, name, room, gender, ic, phone, currentSchedule);
                             doctorList.add(currentDoctor);
-                        } catch (NumberFormatException e) {
+                        } catch (CsvCursor.MalformedRowException e) {
                             System.out.println("Warning: Invalid doctor data line: " + line);
                             currentDoctor = null;
                             currentSchedule = null;
@@ -0,0 +1,86 @@
+package control;
+
+import adt.ClinicADT;
+import adt.ClinicSortedMapADT;
+import adt.MyClinicADT;
+import adt.MyClinicSortedMapADT;
+import entity.Medicine;
+import entity.MedicineLot;
+
+import java.time.LocalDate;
+
+/**
+ * Every stock lot in the pharmacy, sorted by expiry (epoch day, then medicine ID).
+ * Kept up to date by PharmacyControl whenever a lot is created or emptied, so expiry
+ * questions never scan the catalogue:
+ *   countExpiringBefore(day) -> O(log n)
+ *   expiringBefore(day)      -> O(log n + k)
+ * Methods are synchronized so a background alert job can poll while counters dispense.
+ */
+public class ExpiryIndex {
+
+    /** Expiry first, then medicine ID: one key per lot (a medicine has at most one lot per day). */
+    private static final ClinicADT.MyComparator<MedicineLot> KEY_ORDER = new ClinicADT.MyComparator<MedicineLot>() {
+        @Override
+        public int compare(MedicineLot a, MedicineLot b) {
+            int c = MedicineLot.BY_EXPIRY.compare(a, b);
+            return (c != 0) ? c : a.getMedicineId().compareTo(b.getMedicineId());
+        }
+    };
+
+    // lot -> owning medicine
+    private final ClinicSortedMapADT<MedicineLot, Medicine> lots = new MyClinicSortedMapADT<>(KEY_ORDER);
+
+    // ===== Updates =====
+    public synchronized void add(Medicine m, MedicineLot lot) {
+        if (m != null && lot != null) lots.put(lot, m);
+    }
+
+    public synchronized void remove(MedicineLot lot) {
+        if (lot != null) lots.remove(lot);
+    }
+
+    // ===== Queries =====
+    /** Lots whose expiry is before {@code day} (i.e. expired as of that day). */
+    public synchronized int countExpiringBefore(LocalDate day) {
+        return lots.countBelow(probe(day));
+    }
+
+    public synchronized int countBetween(LocalDate fromInclusive, LocalDate toExclusive) {
+        return Math.max(0, lots.countBelow(probe(toExclusive)) - lots.countBelow(probe(fromInclusive)));
+    }
+
+    public synchronized int size() { return lots.size(); }
+
+    /** Earliest expiry in stock, or null when there is no stock. */
+    public synchronized LocalDate earliestExpiry() {
+        MedicineLot first = lots.firstKey();
+        return (first == null) ? null : first.getExpiry();
+    }
+
+    public ClinicADT<MedicineLot> expiringBefore(LocalDate day) { return between(null, day); }
+
+    public ClinicADT<MedicineLot> expiringOnOrAfter(LocalDate day) { return between(day, null); }
+
+    /** Copies of the lots in [from, to), earliest first; a null bound is open. */
+    public synchronized ClinicADT<MedicineLot> between(LocalDate fromInclusive, LocalDate toExclusive) {
+        ClinicADT<MedicineLot> out = new MyClinicADT<>();
+        ClinicADT.MyIterator<MedicineLot> it = lots.keyIterator(probe(fromInclusive), probe(toExclusive));
+        while (it.hasNext()) {
+            MedicineLot l = it.next();
+            out.add(new MedicineLot(l.getMedicineId(), l.getExpiryEpochDay(), l.getQuantity()));
+        }
+        return out;
+    }
+
+    /** The medicine a lot (or a copy returned by this index) belongs to. */
+    public synchronized Medicine medicineOf(MedicineLot lot) {
+        return (lot == null) ? null : lots.get(lot);
+    }
+
+    // ===== Internals =====
+    /** Sorts before every real lot of that day ("" is below any medicine ID). */
+    private static MedicineLot probe(LocalDate day) {
+        return (day == null) ? null : new MedicineLot("", day.toEpochDay(), 0);
+    }
+}
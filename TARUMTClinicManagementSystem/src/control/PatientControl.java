@@ -1,8 +1,11 @@
 package control;
 
 import adt.ClinicADT;
+import adt.ClinicMapADT;
 import adt.MyClinicADT;
+import adt.MyClinicMapADT;
 import entity.Patient;
+import utility.CsvCursor;
 import utility.Report;
 
 import java.io.BufferedReader;
@@ -145,19 +148,21 @@ public class PatientControl {
             return;
         }
 
-        try (java.util.Scanner sc = new java.util.Scanner(file)) {
-            while (sc.hasNextLine()) {
-                String line = sc.nextLine().trim();
-                if (line.isEmpty()) continue;
-
-                String[] parts = line.split(",", -1);
-                if (parts.length == 6) {
-                    String id = parts[0];
-                    String name = parts[1];
-                    int age = Integer.parseInt(parts[2]);
-                    String gender = parts[3];
-                    String icNumber = parts[4];
-                    String contact = parts[5];
+        CsvCursor c = new CsvCursor(filePath);
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                c.reset(line);
+                if (c.isBlankOrComment()) continue;
+
+                try {
+                    if (c.fieldCount() != 6) throw c.malformed("expected 6 fields, found " + c.fieldCount());
+                    String id = c.nextString();
+                    String name = c.nextString();
+                    int age = c.nextInt();
+                    String gender = c.nextString();
+                    String icNumber = c.nextString();
+                    String contact = c.nextString();
 
                     Patient patient = new Patient(id, name, age, gender, icNumber, contact);
                     patientQueue.enqueue(patient);
@@ -170,13 +175,13 @@ public class PatientControl {
                     } catch (NumberFormatException e) {
                         System.out.println("Invalid ID format in file: " + id);
                     }
-                } else {
-                    System.out.println("Skipping malformed line in patient file: " + line);
+                } catch (CsvCursor.MalformedRowException e) {
+                    c.report(e);
                 }
             }
 
             Patient.setIdCounter(maxId);
-        } catch (IOException | NumberFormatException e) {
+        } catch (IOException e) {
             System.out.println("Error reading patients from file: " + e.getMessage());
         }
     }
@@ -235,36 +240,59 @@ public class PatientControl {
         System.out.printf(headerFormat, "Patient ID", "Date", "Patient Name", "Doctor ID", "Diagnosis");
         System.out.println(border);
 
+        // ConsultationControl appends update rows; keep the last row per consultation ID, in first-seen order
+        MyClinicADT<String> rows = new MyClinicADT<>();
+        ClinicMapADT<String, Integer> rowOf = new MyClinicMapADT<>(256);
         try (BufferedReader br = new BufferedReader(new FileReader(consultationFilePath))) {
             String line;
             while ((line = br.readLine()) != null) {
                 if (line.isBlank()) continue;
-
-                String[] parts = line.split(",");
-                if (parts.length < 7) continue; // skip invalid rows
-
-                String patientId   = parts[1].trim();
-                String patientName = parts[2].trim();
-                String doctorId    = parts[4].trim();
-                LocalDateTime consultationDate = LocalDateTime.parse(parts[5].trim(), formatter);
-                String diagnosis   = parts[6].trim();
-
-                // Only show rows with completed diagnosis (not the placeholder)
-                if (!diagnosis.equalsIgnoreCase("To be diagnosed during appointment")
-                        && !diagnosis.equalsIgnoreCase("Pending")
-                        && !diagnosis.isBlank()) {
-                    System.out.printf(rowFormat,
-                            patientId,
-                            consultationDate.format(formatter),
-                            patientName,
-                            doctorId,
-                            diagnosis);
+                int comma = line.indexOf(',');
+                String id = (comma < 0) ? line.trim() : line.substring(0, comma).trim();
+                Integer at = rowOf.get(id);
+                if (at == null) {
+                    rowOf.put(id, rows.size());
+                    rows.add(line);
+                } else {
+                    rows.set(at, line);
                 }
             }
         } catch (IOException e) {
             System.out.println("Error reading consultations: " + e.getMessage());
         }
 
+        CsvCursor c = new CsvCursor(consultationFilePath);
+        ClinicADT.MyIterator<String> rowIt = rows.iterator();
+        while (rowIt.hasNext()) {
+            String patientId, patientName, doctorId, diagnosis;
+            LocalDateTime consultationDate;
+            try {
+                c.reset(rowIt.next());
+                c.requireFields(7);
+                c.skip();
+                patientId   = c.nextString();
+                patientName = c.nextString();
+                c.skip();
+                doctorId    = c.nextString();
+                consultationDate = c.nextDateTime();
+                diagnosis   = c.nextString();
+            } catch (CsvCursor.MalformedRowException e) {
+                continue; // skip invalid rows
+            }
+
+            // Only show rows with completed diagnosis (not the placeholder)
+            if (!diagnosis.equalsIgnoreCase("To be diagnosed during appointment")
+                    && !diagnosis.equalsIgnoreCase("Pending")
+                    && !diagnosis.isBlank()) {
+                System.out.printf(rowFormat,
+                        patientId,
+                        consultationDate.format(formatter),
+                        patientName,
+                        doctorId,
+                        diagnosis);
+            }
+        }
+
         System.out.println(border);
         Report.printFooter();
     }
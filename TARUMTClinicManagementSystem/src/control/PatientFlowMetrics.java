@@ -0,0 +1,130 @@
+package control;
+
+import adt.ClinicADT;
+import adt.ClinicMapADT;
+import adt.MyClinicMapADT;
+import entity.Appointment;
+import entity.MedicinePrescription;
+import utility.LatencyHistogram;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.function.IntFunction;
+
+/**
+ * Per-stage latency of the patient flow, fed from the ClinicEventBus.
+ *
+ * Every stage has one histogram (seconds) overall, one per doctor and one per hour of day
+ * the wait began; all three are updated as each event arrives, so the admin report only
+ * reads counters and never walks appointment history. Only transitions seen in this run
+ * count: an appointment loaded from file has no stage times until it moves again, and a
+ * pharmacy line saved without its prescribed time is not sampled.
+ *
+ * Written by the bus subscriber thread, read by the UI; both go through this monitor.
+ */
+public final class PatientFlowMetrics {
+
+    public enum Stage {
+        CONSULT_WAIT("Wait for consultation"),   // CHECKED_IN -> CONSULTING
+        CONSULTATION("Consultation"),            // CONSULTING -> TREATMENT / PENDING_PAYMENT
+        TREATMENT_WAIT("Treatment queue wait"),  // TREATMENT -> treatment session started
+        PHARMACY_WAIT("Pharmacy wait"),          // prescription prepared -> dispensed
+        PAYMENT_WAIT("Payment wait");            // PENDING_PAYMENT -> COMPLETED
+
+        private final String label;
+        Stage(String label) { this.label = label; }
+        public String getLabel() { return label; }
+    }
+
+    private static final int STAGES = Stage.values().length;
+
+    private final LatencyHistogram[] overall = newRow();
+    private final LatencyHistogram[][] byHour = new LatencyHistogram[24][];       // created on first sample
+    private final ClinicMapADT<String, LatencyHistogram[]> byDoctor = new MyClinicMapADT<>(64);
+    private final IntFunction<String> doctorOfAppointment;                         // for pharmacy lines
+
+    PatientFlowMetrics(IntFunction<String> doctorOfAppointment) {
+        this.doctorOfAppointment = doctorOfAppointment;
+    }
+
+    // ===== Event feed (bus subscriber) =====
+    synchronized void onEvents(ClinicADT<ClinicEvent> batch) {
+        ClinicADT.MyIterator<ClinicEvent> it = batch.iterator();
+        while (it.hasNext()) {
+            ClinicEvent e = it.next();
+            if (e instanceof ClinicEvent.AppointmentStatusChanged s) {
+                Stage stage = stageOf(s.getFrom(), s.getTo());
+                if (stage != null) {
+                    record(stage, s.getAppointment().getDoctorId(), s.getSinceMillis(), s.getAtMillis());
+                }
+            } else if (e instanceof ClinicEvent.TreatmentStarted t) {
+                record(Stage.TREATMENT_WAIT, t.getAppointment().getDoctorId(), t.getSinceMillis(), t.getAtMillis());
+            } else if (e instanceof ClinicEvent.PrescriptionDispensed d) {
+                MedicinePrescription p = d.getPrescription();
+                record(Stage.PHARMACY_WAIT, doctorOfAppointment.apply(p.getAppointmentId()),
+                       millisOf(p.getPrescribedDateTime()), millisOf(p.getDispensedDateTime()));
+            }
+        }
+    }
+
+    // ===== Queries (copies; safe to read while events keep arriving) =====
+    public synchronized LatencyHistogram overall(Stage stage) {
+        return overall[stage.ordinal()].copy();
+    }
+
+    public synchronized LatencyHistogram forDoctor(String doctorId, Stage stage) {
+        LatencyHistogram[] row = byDoctor.get(key(doctorId));
+        return (row == null) ? new LatencyHistogram() : row[stage.ordinal()].copy();
+    }
+
+    /** Waits that began in {@code hour} (0-23) of any day. */
+    public synchronized LatencyHistogram forHour(int hour, Stage stage) {
+        LatencyHistogram[] row = (hour < 0 || hour > 23) ? null : byHour[hour];
+        return (row == null) ? new LatencyHistogram() : row[stage.ordinal()].copy();
+    }
+
+    // ===== Internals (lock held) =====
+    /** The stage a transition closes, or null if it does not end a measured stage. */
+    private static Stage stageOf(Appointment.AppointmentStatus from, Appointment.AppointmentStatus to) {
+        if (from == null || to == null) return null;
+        return switch (from) {
+            case CHECKED_IN -> (to == Appointment.AppointmentStatus.CONSULTING) ? Stage.CONSULT_WAIT : null;
+            case CONSULTING -> (to == Appointment.AppointmentStatus.TREATMENT
+                             || to == Appointment.AppointmentStatus.PENDING_PAYMENT) ? Stage.CONSULTATION : null;
+            case PENDING_PAYMENT -> (to == Appointment.AppointmentStatus.COMPLETED) ? Stage.PAYMENT_WAIT : null;
+            default -> null;
+        };
+    }
+
+    private void record(Stage stage, String doctorId, long startMillis, long endMillis) {
+        if (startMillis <= 0 || endMillis < startMillis) return; // start not seen in this run
+        long seconds = (endMillis - startMillis) / 1000;
+        int s = stage.ordinal();
+
+        overall[s].record(seconds);
+
+        int hour = Instant.ofEpochMilli(startMillis).atZone(ZoneId.systemDefault()).getHour();
+        if (byHour[hour] == null) byHour[hour] = newRow();
+        byHour[hour][s].record(seconds);
+
+        if (doctorId != null && !doctorId.isBlank()) {
+            String k = key(doctorId);
+            LatencyHistogram[] row = byDoctor.get(k);
+            if (row == null) byDoctor.put(k, row = newRow());
+            row[s].record(seconds);
+        }
+    }
+
+    private static LatencyHistogram[] newRow() {
+        LatencyHistogram[] row = new LatencyHistogram[STAGES];
+        for (int i = 0; i < STAGES; i++) row[i] = new LatencyHistogram();
+        return row;
+    }
+
+    private static long millisOf(LocalDateTime t) {
+        return (t == null) ? 0L : t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String key(String id) { return (id == null) ? "" : id.trim().toUpperCase(); }
+}
@@ -3,10 +3,13 @@ package control;
 import adt.ClinicADT;
 import adt.MyClinicADT;
 import entity.Payment;
+import utility.CsvCursor;
+import utility.Money;
+import utility.ReceiptIdGenerator;
+import utility.TimestampCodec;
 
 import java.io.*;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Payment control – builds payments, renders/prints receipts,
@@ -25,10 +28,14 @@ public class PaymentControl {
         public String patientId;           // may be empty
         public String patientName;         // may be empty
         public Payment.PaymentMethod method;
-        public double consultation;
-        public double treatment;
-        public double medicine;
-        public double total;
+        public Money consultation = Money.ZERO;
+        public Money treatment    = Money.ZERO;
+        public Money medicine     = Money.ZERO;
+        public Money total        = Money.ZERO;
+    }
+
+    public PaymentControl() {
+        reseedReceiptIds();
     }
 
     // ======================= Public API =======================
@@ -58,8 +65,12 @@ public class PaymentControl {
 
     /** Simple helper to compute a medicine line cost. */
     public double lineCost(entity.Medicine med, int qty) {
-        if (med == null || qty <= 0) return 0.0;
-        return med.getPricePerUnit() * qty;
+        return lineCostCents(med, qty) / 100.0;
+    }
+
+    public long lineCostCents(entity.Medicine med, int qty) {
+        if (med == null || qty <= 0) return 0L;
+        return Money.times(med.getPriceCents(), qty);
     }
 
     public Payment.PaymentMethod[] getAvailablePaymentMethods() {
@@ -73,6 +84,26 @@ public class PaymentControl {
 
     // ======================= Persistence (Append) =======================
 
+    /** New receipt IDs must sort after the newest saved one (the clock may have moved back). */
+    private void reseedReceiptIds() {
+        File f = new File(receiptsFilePath);
+        if (!f.exists()) return;
+        final int tailBytes = 16 * 1024;   // newest receipts are appended at the end
+        try (RandomAccessFile raf = new RandomAccessFile(f, "r")) {
+            long start = Math.max(0L, raf.length() - tailBytes);
+            byte[] buf = new byte[(int) (raf.length() - start)];
+            raf.seek(start);
+            raf.readFully(buf);
+            String tail = new String(buf, java.nio.charset.StandardCharsets.UTF_8);
+            String marker = "=== RECEIPT BEGIN [";
+            for (int i = tail.indexOf(marker); i >= 0; i = tail.indexOf(marker, i + 1)) {
+                int open = i + marker.length();
+                int close = tail.indexOf(']', open);
+                if (close > open) ReceiptIdGenerator.reseed(tail.substring(open, close));
+            }
+        } catch (IOException ignored) {}
+    }
+
     /**
      * Append a complete receipt block with META.
      * META CSV format (kept the same for compatibility):
@@ -84,17 +115,18 @@ public class PaymentControl {
             // BEGIN marker
             out.printf("=== RECEIPT BEGIN [%s] ===%n", p.getReceiptId());
             // META line (machine-friendly)
-            out.printf("META,%s,%s,%d,%s,%s,%s,%.2f,%.2f,%.2f,%.2f%n",
-                    p.getReceiptId(),
-                    p.getDateTime().replace(' ', 'T'), // getDateTime() is a String
-                    apptId,
-                    stripCsv(patientId),
-                    stripCsv(patientName),
-                    p.getPaymentMethod().name(),
-                    p.getConsultationFee(),
-                    p.getTreatmentFee(),
-                    p.getMedicineFee(),
-                    p.getTotal());
+            StringBuilder meta = new StringBuilder(128);
+            meta.append("META,").append(p.getReceiptId())
+                .append(',').append(p.getDateTime().replace(' ', 'T')) // getDateTime() is a String
+                .append(',').append(apptId)
+                .append(',').append(stripCsv(patientId))
+                .append(',').append(stripCsv(patientName))
+                .append(',').append(p.getPaymentMethod().name());
+            Money.appendTo(meta.append(','), p.getConsultationFeeCents());
+            Money.appendTo(meta.append(','), p.getTreatmentFeeCents());
+            Money.appendTo(meta.append(','), p.getMedicineFeeCents());
+            Money.appendTo(meta.append(','), p.getTotalCents());
+            out.println(meta);
 
             // Pretty layout (human-friendly)
             out.print(renderReceiptLayout(p, clinicName));
@@ -149,17 +181,17 @@ public class PaymentControl {
         sb.append(boxLeft("Doctor Name   : " + docNmStr, inner)).append("\n");
         sb.append(hr).append("\n");
 
-        sb.append(moneyRow("Consultation", p.getConsultationFee(), inner)).append("\n");
-        if (p.hasTreatment()) sb.append(moneyRow("Treatment", p.getTreatmentFee(), inner)).append("\n");
-        if (p.getMedicineFee() > 0.0) sb.append(moneyRow("Medicine", p.getMedicineFee(), inner)).append("\n");
+        sb.append(moneyRow("Consultation", p.getConsultationFeeCents(), inner)).append("\n");
+        if (p.hasTreatment()) sb.append(moneyRow("Treatment", p.getTreatmentFeeCents(), inner)).append("\n");
+        if (p.getMedicineFeeCents() > 0L) sb.append(moneyRow("Medicine", p.getMedicineFeeCents(), inner)).append("\n");
 
         sb.append(hr).append("\n");
-        sb.append(moneyRow("TOTAL", p.getTotal(), inner)).append("\n");
+        sb.append(moneyRow("TOTAL", p.getTotalCents(), inner)).append("\n");
         sb.append(hr).append("\n");
         sb.append(boxLeft("Payment Method: " + p.getPaymentMethod().getDisplayName(), inner)).append("\n");
-        sb.append(boxLeft("Amount Paid: RM " + String.format("%.2f", p.getAmountPaid()), inner)).append("\n");
-        if (p.getPaymentMethod() == Payment.PaymentMethod.CASH && p.getChange() > 0) {
-            sb.append(boxLeft("Change: RM " + String.format("%.2f", p.getChange()), inner)).append("\n");
+        sb.append(boxLeft("Amount Paid: RM " + Money.format(p.getAmountPaidCents()), inner)).append("\n");
+        if (p.getPaymentMethod() == Payment.PaymentMethod.CASH && p.getChangeCents() > 0L) {
+            sb.append(boxLeft("Change: RM " + Money.format(p.getChangeCents()), inner)).append("\n");
         }
         sb.append(top).append("\n");
         sb.append(boxCenter("THANK YOU & GET WELL SOON!", inner)).append("\n");
@@ -293,32 +325,29 @@ public class PaymentControl {
 
     private static PaymentRecord parseMetaLine(String ln) {
         // META,<rid>,<isoDateTime>,<apptId>,<patientId>,<patientName>,<method>,<consult>,<treat>,<med>,<total>
-        String[] p = ln.split(",", -1);
-        if (p.length < 11) return null;
+        CsvCursor c = new CsvCursor("receipts.txt").reset(ln);
         try {
+            c.requireFields(11);
+            c.skip();
             PaymentRecord r = new PaymentRecord();
-            int i = 1;
-            r.receiptId    = p[i++].trim();
-            r.dateTime     = parseIsoOrHuman(p[i++].trim());
-            r.apptId       = parseIntSafe(p[i++].trim());
-            r.patientId    = p[i++].trim();
-            r.patientName  = p[i++].trim();
-            r.method       = Payment.PaymentMethod.valueOf(p[i++].trim());
-            r.consultation = parseDoubleSafe(p[i++].trim());
-            r.treatment    = parseDoubleSafe(p[i++].trim());
-            r.medicine     = parseDoubleSafe(p[i++].trim());
-            r.total        = parseDoubleSafe(p[i++].trim());
+            r.receiptId    = c.nextString();
+            r.dateTime     = parseIsoOrHuman(c.nextString());
+            r.apptId       = parseIntSafe(c.nextString());
+            r.patientId    = c.nextString();
+            r.patientName  = c.nextString();
+            r.method       = Payment.PaymentMethod.valueOf(c.nextString());
+            r.consultation = parseMoneySafe(c.nextString());
+            r.treatment    = parseMoneySafe(c.nextString());
+            r.medicine     = parseMoneySafe(c.nextString());
+            r.total        = parseMoneySafe(c.nextString());
             return r;
-        } catch (Exception e) {
+        } catch (CsvCursor.MalformedRowException | IllegalArgumentException e) {
             return null;
         }
     }
 
     private static LocalDateTime parseIsoOrHuman(String s) {
-        try { return LocalDateTime.parse(s); } catch (Exception ignored) {}
-        try { return LocalDateTime.parse(s.replace(' ', 'T')); } catch (Exception ignored) {}
-        try { return LocalDateTime.parse(s, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")); } catch (Exception ignored) {}
-        try { return LocalDateTime.parse(s, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")); } catch (Exception ignored) {}
+        try { return TimestampCodec.parse(s.trim()); } catch (Exception ignored) {}
         return LocalDateTime.now();
     }
 
@@ -330,12 +359,11 @@ public class PaymentControl {
         return s;
     }
 
-    private static double extractAmount(String boxedMoneyRow) {
+    private static Money extractAmount(String boxedMoneyRow) {
         // assumes "... RM  123.45 |"
         int idx = boxedMoneyRow.lastIndexOf("RM");
-        if (idx < 0) return 0.0;
-        String s = boxedMoneyRow.substring(idx + 2).replace("|","").trim();
-        try { return Double.parseDouble(s); } catch (Exception e) { return 0.0; }
+        if (idx < 0) return Money.ZERO;
+        return parseMoneySafe(boxedMoneyRow.substring(idx + 2).replace("|",""));
     }
 
     private static Payment.PaymentMethod mapDisplayToMethod(String display) {
@@ -351,8 +379,8 @@ public class PaymentControl {
         try { return Integer.parseInt(s.trim()); } catch (Exception e) { return -1; }
     }
 
-    private static double parseDoubleSafe(String s) {
-        try { return Double.parseDouble(s.trim()); } catch (Exception e) { return 0.0; }
+    private static Money parseMoneySafe(String s) {
+        try { return Money.parse(s); } catch (Exception e) { return Money.ZERO; }
     }
 
     private static void ensureParentDir(String path) {
@@ -388,9 +416,9 @@ public class PaymentControl {
         return "|" + t + "|";
     }
 
-    private static String moneyRow(String label, double amount, int inner) {
+    private static String moneyRow(String label, long cents, int inner) {
         String left = String.format("%-20s", label);
-        String amt  = String.format("%10.2f", amount);
+        String amt  = String.format("%10s", Money.format(cents));
         String line = String.format("| %s RM %s |", left, amt);
         int padLen = inner + 2 - line.length();
         if (padLen > 0) line = line.substring(0, line.length() - 1) + " ".repeat(padLen) + "|";
@@ -409,4 +437,15 @@ public class PaymentControl {
         appendReceiptBlock(p, "TARUMTClinic", apptId, safeMeta(patientId), safeMeta(patientName));
         return p;
     }
+
+    /** Same as above with exact amounts. */
+    public Payment buildPaymentWithDoctor(boolean hasTreatment, Money medicineFee,
+                                          Payment.PaymentMethod method, Money amountPaid,
+                                          int apptId, String patientId, String patientName,
+                                          String doctorId, String doctorName) {
+        Payment p = new Payment(hasTreatment, medicineFee, method, amountPaid,
+                                apptId, patientId, patientName, doctorId, doctorName);
+        appendReceiptBlock(p, "TARUMTClinic", apptId, safeMeta(patientId), safeMeta(patientName));
+        return p;
+    }
 }
@@ -1,27 +1,84 @@
 package control;
 
 import adt.ClinicADT;
+import adt.ClinicHeapADT;
+import adt.ClinicMapADT;
 import adt.MyClinicADT;
+import adt.MyClinicHeapADT;
+import adt.MyClinicMapADT;
 import entity.Medicine;
+import entity.MedicineLot;
+import entity.MedicinePrescription;
+import utility.CoalescingSaver;
+import utility.CsvCursor;
+import utility.Money;
 import utility.Report;
+import utility.TimestampCodec;
 import utility.Validation;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-public class PharmacyControl {
+public final class PharmacyControl {
     private final ClinicADT<Medicine> medicineList = new MyClinicADT<>();
+    // MEDICINE_ID (upper case) -> medicine, for O(1) getMedicineById
+    private final ClinicMapADT<String, Medicine> byId = new MyClinicMapADT<>();
+
+    // Bumped whenever a medicine appears, disappears, runs out or comes back into stock
+    // (lets callers such as DiagnosisCatalog cache "what is in stock" answers)
+    private final AtomicLong stockVersion = new AtomicLong();
 
     // === DATA FILES ===
     private final String medicineFilePath = "src/textFile/medicine.txt";
     private final String dispenseLogPath = "src/textFile/dispense_log.txt";
     private final String restockLogPath  = "src/textFile/restock_log.txt";
-
-    public PharmacyControl() { loadFromFile(); }
+    private final String rollupPath      = "src/textFile/dispense_rollup.txt";
+    private final String lotFilePath     = "src/textFile/medicine_lots.txt";
+    private final String reorderPath     = "src/textFile/reorder_state.txt";
+    private final String quarantinePath  = "src/textFile/quarantine_log.txt";
+
+    // Stock lots per medicine, earliest expiry on top. Medicine.quantity is always the sum of
+    // its lots and Medicine.expiration the top lot's date. A heap is changed only under its
+    // medicine's stripe lock; the map itself only under catalogLock. Lots past their date are
+    // quarantined (removed and logged) the next time a dispense or restock touches the medicine.
+    private final ClinicMapADT<String, ClinicHeapADT<MedicineLot>> lotsByMedicine = new MyClinicMapADT<>();
+
+    // The same lots across all medicines, sorted by expiry (alerts + expiration report)
+    private final ExpiryIndex expiryIndex = new ExpiryIndex();
+
+    // Per-day, per-medicine totals maintained at dispense time (reports read this, not the log)
+    private final DispenseRollup rollup;
+
+    // Demand forecast per medicine, fed by the same dispense events (restock suggestions)
+    private final ReorderEngine reorder;
+
+    // READY-queue reservations; set once the queue control exists
+    private PharmacyQueueControl reservations;
+
+    // === Concurrency ===
+    // Several counters may dispense at once. A stock check + decrement holds only the
+    // medicine's stripe lock (so different medicines never contend); add/remove of catalogue
+    // entries take the write side of catalogLock; file rewrites are serialized on fileLock and
+    // concurrent saves are coalesced into one rewrite.
+    private static final int STRIPES = 32;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ReentrantReadWriteLock catalogLock = new ReentrantReadWriteLock();
+    private final Object fileLock = new Object();
+    private final CoalescingSaver saver = new CoalescingSaver(this::writeFiles);
+
+    public PharmacyControl() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+        loadFromFile();
+        loadLots();
+        rollup = new DispenseRollup(rollupPath, dispenseLogPath);
+        reorder = new ReorderEngine(reorderPath, dispenseLogPath);
+    }
 
     // === Fixed table format with consistent column widths ===
     private static final String LINE =
@@ -54,7 +111,7 @@ public class PharmacyControl {
                 fit(m.getName(), 20),
                 m.getQuantity(),
                 fit(m.getUnit(), 8),
-                String.format("%.2f", m.getPricePerUnit()),
+                Money.format(m.getPriceCents()),
                 fit(m.getUsage(), 22),
                 fit(m.getIntakeMeasurePerDay(), 25),
                 fit(m.getExpiration(), 10)
@@ -106,8 +163,18 @@ public class PharmacyControl {
             return;
         }
 
-        medicineList.add(med);
+        catalogLock.writeLock().lock();
+        try {
+            medicineList.add(med);
+            byId.put(key(med.getId()), med);
+            ClinicHeapADT<MedicineLot> lots = seedLots(med);
+            lotsByMedicine.put(med.getId(), lots);
+            indexLots(med, lots);
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
         saveToFile();
+        stockVersion.incrementAndGet();
         Report.cprintln("");
         Report.cprintln("Medicine added successfully!");
         Report.cprintln("");
@@ -118,18 +185,33 @@ public class PharmacyControl {
     public boolean dispenseMedicineById(String id, int amount) {
         Medicine m = getMedicineById(id);
         if (m != null) {
-            String error = Validation.validateDispenseQuantity(m.getQuantity(), amount);
+            ClinicHeapADT<MedicineLot> lots = lotsOf(m.getId());
+            // check + decrement are one step under the stripe lock: no oversell between counters
+            ReentrantLock lock = stripeFor(m.getId());
+            String quarantined, error;
+            lock.lock();
+            try {
+                // expired lots leave stock first, so only unexpired units are counted and taken
+                quarantined = quarantineExpired(m, lots);
+                error = Validation.validateDispenseQuantity(m.getQuantity(), amount);
+                if (error == null) takeEarliestFirst(m, lots, amount);
+            } finally {
+                lock.unlock();
+            }
+            logQuarantine(quarantined);
             if (error != null) {
                 Report.cprintln(error);
+                if (!quarantined.isEmpty()) saveToFile();
                 return false;
             }
-            m.setQuantity(m.getQuantity() - amount);
             Report.cprintln(amount + " units of " + m.getName() + " dispensed.");
             saveToFile();
-            double unit = m.getPricePerUnit();
-            double total = unit * amount;
-            appendLog(dispenseLogPath, String.format("%s,%s,%s,%d,%.2f,%.2f",
-                    nowIso(), m.getId(), m.getName(), amount, unit, total));
+            long unitCents = m.getPriceCents();
+            long totalCents = Money.times(unitCents, amount);
+            appendLog(dispenseLogPath, String.format("%s,%s,%s,%d,%s,%s",
+                    nowIso(), m.getId(), m.getName(), amount, Money.format(unitCents), Money.format(totalCents)));
+            rollup.record(LocalDate.now(), m.getId(), amount, totalCents);
+            reorder.record(LocalDate.now(), m.getId(), amount);
             return true;
         } else {
             Report.cprintln("Medicine not found.");
@@ -138,7 +220,8 @@ public class PharmacyControl {
     }
 
     // --- Restock Medicine ---
-    public boolean restockMedicineById(String id, int amount) {
+    /** Adds a lot expiring on {@code expiry}; a lot with the same date is topped up instead. */
+    public boolean restockMedicineById(String id, int amount, LocalDate expiry) {
         Medicine m = getMedicineById(id);
         if (m != null) {
             String qtyError = Validation.validateMedicineQuantity(amount);
@@ -146,33 +229,171 @@ public class PharmacyControl {
                 Report.cprintln(qtyError);
                 return false;
             }
-            int before = m.getQuantity();
-            m.setQuantity(before + amount);
+            if (expiry == null) {
+                Report.cprintln("Error: Restock requires the expiration date of the new stock.");
+                return false;
+            }
+            if (expiry.isBefore(LocalDate.now())) {
+                Report.cprintln("Error: Expiration date cannot be in the past.");
+                return false;
+            }
+            ClinicHeapADT<MedicineLot> lots = lotsOf(m.getId());
+            ReentrantLock lock = stripeFor(m.getId());
+            String quarantined;
+            boolean added;
+            lock.lock();
+            try {
+                quarantined = quarantineExpired(m, lots);
+                // the lot is placed before the quantity changes, so quantity stays the lot total
+                added = addToLot(m, lots, amount, expiry);
+                if (added) {
+                    boolean wasOut = m.getQuantity() <= 0;
+                    m.setQuantity(m.getQuantity() + amount);
+                    syncExpiration(m, lots);
+                    // bump after the update, so a reader that sees the new version sees the stock too
+                    if (wasOut && m.getQuantity() > 0) stockVersion.incrementAndGet();   // back in stock
+                }
+            } finally {
+                lock.unlock();
+            }
+            logQuarantine(quarantined);
+            if (!added) {
+                Report.cprintln("Error: Could not add a lot for this stock.");
+                if (!quarantined.isEmpty()) saveToFile();
+                return false;
+            }
             System.out.println("Medicine restocked: " + amount + " added to " + m.getName());
             saveToFile();
-            appendLog(restockLogPath, String.format("%s,%s,%s,%d,%d",
-                    nowIso(), m.getId(), m.getName(), amount, m.getQuantity()));
+            appendLog(restockLogPath, String.format("%s,%s,%s,%d,%d,%s",
+                    nowIso(), m.getId(), m.getName(), amount, m.getQuantity(), m.getExpiration()));
             return true;
         }
         Report.cprintln("Medicine not found.");
         return false;
     }
 
+    // --- Batch Dispense ---
+    /**
+     * Dispense several prescription lines as one unit: stock for every line is checked first
+     * (lines of the same medicine are summed), then all decrements are applied and
+     * medicine.txt, the dispense log and the rollup are each written once.
+     * Nothing changes if any line fails.
+     */
+    public boolean dispenseBatch(ClinicADT<MedicinePrescription> lines) {
+        if (lines == null || lines.isEmpty()) return false;
+
+        // 1) resolve + total per medicine
+        int n = lines.size();
+        Medicine[] meds = new Medicine[n];
+        ClinicHeapADT<MedicineLot>[] lots = newLotArray(n);
+        ClinicMapADT<String, int[]> needed = new MyClinicMapADT<>(n);
+        for (int i = 0; i < n; i++) {
+            MedicinePrescription p = lines.get(i);
+            Medicine m = getMedicineById(p.getMedicineId());
+            if (m == null) {
+                Report.cprintln("Medicine not found: " + p.getMedicineId());
+                return false;
+            }
+            if (p.getQuantity() <= 0) {
+                Report.cprintln(p.getMedicineId() + ": Quantity must be positive");
+                return false;
+            }
+            meds[i] = m;
+            lots[i] = lotsOf(m.getId());
+            int[] sum = needed.get(m.getId());
+            if (sum == null) { sum = new int[1]; needed.put(m.getId(), sum); }
+            sum[0] += p.getQuantity();
+        }
+
+        // 2) lock every stripe involved (ascending order, so two batches can't deadlock),
+        //    validate everything, then apply all decrements
+        //    (expired lots are quarantined first, so only unexpired units count)
+        boolean[] held = new boolean[STRIPES];
+        for (int i = 0; i < n; i++) held[stripeIndex(meds[i].getId())] = true;
+        StringBuilder quarantined = new StringBuilder();
+        String error = null;
+        for (int s = 0; s < STRIPES; s++) if (held[s]) stripes[s].lock();
+        try {
+            for (int i = 0; i < n; i++) quarantined.append(quarantineExpired(meds[i], lots[i]));
+            for (int i = 0; i < n && error == null; i++) {
+                int[] sum = needed.get(meds[i].getId());
+                String e = Validation.validateDispenseQuantity(meds[i].getQuantity(), sum[0]);
+                if (e != null) error = meds[i].getId() + ": " + e;
+            }
+            if (error == null) {
+                for (int i = 0; i < n; i++) takeEarliestFirst(meds[i], lots[i], lines.get(i).getQuantity());
+            }
+        } finally {
+            for (int s = STRIPES - 1; s >= 0; s--) if (held[s]) stripes[s].unlock();
+        }
+        logQuarantine(quarantined.toString());
+        if (error != null) {
+            Report.cprintln(error);
+            if (quarantined.length() > 0) saveToFile();
+            return false;
+        }
+
+        // 3) persist once
+        String now = nowIso();
+        StringBuilder log = new StringBuilder();
+        String[] ids = new String[n];
+        int[] qtys = new int[n];
+        long[] cents = new long[n];
+        for (int i = 0; i < n; i++) {
+            Medicine m = meds[i];
+            int amount = lines.get(i).getQuantity();
+
+            long unitCents = m.getPriceCents();
+            long totalCents = Money.times(unitCents, amount);
+            if (log.length() > 0) log.append(System.lineSeparator());
+            log.append(now).append(',').append(m.getId()).append(',').append(m.getName()).append(',').append(amount).append(',');
+            Money.appendTo(log, unitCents).append(',');
+            Money.appendTo(log, totalCents);
+            ids[i] = m.getId(); qtys[i] = amount; cents[i] = totalCents;
+            Report.cprintln(amount + " units of " + m.getName() + " dispensed.");
+        }
+        saveToFile();
+        appendLog(dispenseLogPath, log.toString());
+        rollup.recordAll(LocalDate.now(), ids, qtys, cents);
+        reorder.recordAll(LocalDate.now(), ids, qtys);
+        return true;
+    }
+
     // --- Remove Medicine ---
     public boolean removeMedicineById(String id) {
-        ClinicADT.MyIterator<Medicine> it = medicineList.iterator();
-        int index = 0;
-        while (it.hasNext()) {
-            if (it.next().getId().equalsIgnoreCase(id)) {
-                medicineList.remove(index);
-                Report.cprintln("Medicine removed: " + id);
-                saveToFile();
-                return true;
+        Medicine removed = null;
+        ClinicHeapADT<MedicineLot> lots = null;
+        catalogLock.writeLock().lock();
+        try {
+            for (int i = 0; i < medicineList.size(); i++) {
+                if (medicineList.get(i).getId().equalsIgnoreCase(id)) {
+                    removed = medicineList.remove(i);
+                    byId.remove(key(removed.getId()));
+                    lots = lotsByMedicine.remove(removed.getId());
+                    break;
+                }
             }
-            index++;
+        } finally {
+            catalogLock.writeLock().unlock();
         }
-        Report.cprintln("Medicine not found.");
-        return false;
+        if (lots != null) {
+            ReentrantLock lock = stripeFor(removed.getId());
+            lock.lock();
+            try {
+                ClinicADT.MyIterator<MedicineLot> it = lots.iterator();
+                while (it.hasNext()) expiryIndex.remove(it.next());
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (removed == null) {
+            Report.cprintln("Medicine not found.");
+            return false;
+        }
+        stockVersion.incrementAndGet();
+        Report.cprintln("Medicine removed: " + id);
+        saveToFile();
+        return true;
     }
 
     // --- Display All Stock (centered, no pagination) ---
@@ -189,6 +410,31 @@ public class PharmacyControl {
             cLine(formatMedicineRow(m));
         }
         printLine();
+        printReservedStock();
+    }
+
+    /** Medicines held by READY prescriptions: on-hand vs available. One pass over the catalogue. */
+    private void printReservedStock() {
+        if (reservations == null) return;
+        final String line = "+-------+----------------------+----------+----------+-----------+";
+        final String fmt  = "| %-5s | %-20s | %8s | %8s | %9s |";
+        boolean any = false;
+
+        ClinicADT.MyIterator<Medicine> it = medicineList.iterator();
+        while (it.hasNext()) {
+            Medicine m = it.next();
+            int reserved = getReservedQty(m.getId());
+            if (reserved <= 0) continue;
+            if (!any) {
+                Report.cprintln("");
+                cLine(line);
+                cPrintf(fmt, "ID", "Name", "On Hand", "Reserved", "Available");
+                cLine(line);
+                any = true;
+            }
+            cPrintf(fmt, m.getId(), fit(m.getName(), 20), m.getQuantity(), reserved, getAvailableQty(m));
+        }
+        if (any) cLine(line);
     }
 
     // --- Print Low Stock and Restock Prompt (centered) ---
@@ -230,17 +476,28 @@ public class PharmacyControl {
         }
 
         System.out.print(Report.center("Enter quantity to add: "));
+        int qty;
         try {
-            int qty = Integer.parseInt(sc.nextLine());
-            String qtyError = Validation.validateMedicineQuantity(qty);
-            if (qtyError == null) {
-                restockMedicineById(id, qty);
-            } else {
-                Report.cprintln(qtyError);
-            }
+            qty = Integer.parseInt(sc.nextLine().trim());
         } catch (NumberFormatException e) {
             Report.cprintln("Invalid quantity input.");
+            return;
+        }
+        String qtyError = Validation.validateMedicineQuantity(qty);
+        if (qtyError != null) {
+            Report.cprintln(qtyError);
+            return;
         }
+
+        // every restock is its own lot, so the new stock's expiry date is required
+        System.out.print(Report.center("Enter expiry date of new stock (YYYY-MM-DD): "));
+        String date = sc.nextLine().trim();
+        String dateError = Validation.validateMedicineExpiry(date);
+        if (dateError != null) {
+            Report.cprintln(dateError);
+            return;
+        }
+        restockMedicineById(id, qty, LocalDate.parse(date));
     }
 
     // --- All Medicines Sorted by Name (centered) ---
@@ -280,144 +537,144 @@ public class PharmacyControl {
     }
 
     // --- Expiration Report ---
+    /** Lot-level report read straight off the expiry index: three range walks, already in date order. */
     public void expirationReport() {
         Report.printHeader("Expiration Report");
 
-        int expiredCount = 0;
-        int within6Count = 0;
-        int after6Count = 0;
-
         LocalDate today = LocalDate.now();
-        LocalDate sixMonthsLater = today.plusMonths(6);
+        LocalDate afterSixMonths = today.plusMonths(6).plusDays(1);
 
-        // Partition medicines into 3 groups
-        ClinicADT<Medicine> expiredMeds = new MyClinicADT<>();
-        ClinicADT<Medicine> within6Meds = new MyClinicADT<>();
-        ClinicADT<Medicine> after6Meds = new MyClinicADT<>();
+        ClinicADT<MedicineLot> expiredLots = expiryIndex.between(null, today);
+        ClinicADT<MedicineLot> within6Lots = expiryIndex.between(today, afterSixMonths);
+        ClinicADT<MedicineLot> after6Lots  = expiryIndex.between(afterSixMonths, null);
 
-        ClinicADT.MyIterator<Medicine> it = medicineList.iterator();
-        while (it.hasNext()) {
-            Medicine m = it.next();
-            try {
-                LocalDate expDate = LocalDate.parse(m.getExpiration());
-
-                if (expDate.isBefore(today)) {
-                    expiredMeds.add(m); expiredCount++;
-                } else if (!expDate.isAfter(sixMonthsLater)) {
-                    within6Meds.add(m); within6Count++;
-                } else {
-                    after6Meds.add(m);  after6Count++;
-                }
-            } 
-            catch (Exception ignored) {
-            }
-        }
+        printExpiryGroup("[Expired Lots]", "No expired medicines found.", expiredLots);
+        printExpiryGroup("[Lots Expiring Within 6 Months]", "No medicines expiring within 6 months.", within6Lots);
+        printExpiryGroup("[Lots Expiring After 6 Months]", "No medicines expiring after 6 months.", after6Lots);
 
-        String border    = "+-------+----------------------+------------+";
-        String headerFmt = "| %-5s | %-20s | %-10s |";
-        String rowFmt    = "| %-5s | %-20s | %-10s |";
+        // Summary chart
+        printSummaryChart(expiredLots.size(), within6Lots.size(), after6Lots.size());
+        Report.printFooter();
+    }
 
-        // Expired
-        Report.cprintln("");
-        Report.cprintln("[Expired Medicines]");
-        if (expiredCount > 0) {
-            cLine(border);
-            cPrintf(headerFmt, "ID", "Name", "Expiry");
-            cLine(border);
-            ClinicADT.MyIterator<Medicine> eit = expiredMeds.iterator();
-            while (eit.hasNext()) {
-                Medicine m = eit.next();
-                cLine(String.format(rowFmt, m.getId(), fit(m.getName(), 20), m.getExpiration()));
-            }
-            cLine(border);
-        } else {
-            Report.cprintln("No expired medicines found.");
-        }
+    private void printExpiryGroup(String title, String emptyText, ClinicADT<MedicineLot> rows) {
+        String border = "+-------+----------------------+------------+--------+";
+        String rowFmt = "| %-5s | %-20s | %-10s | %6s |";
 
-        // Within 6 months
         Report.cprintln("");
-        Report.cprintln("[Medicines Expiring Within 6 Months]");
-        if (within6Count > 0) {
-            cLine(border);
-            cPrintf(headerFmt, "ID", "Name", "Expiry");
-            cLine(border);
-            ClinicADT.MyIterator<Medicine> wit = within6Meds.iterator();
-            while (wit.hasNext()) {
-                Medicine m = wit.next();
-                cLine(String.format(rowFmt, m.getId(), fit(m.getName(), 20), m.getExpiration()));
-            }
-            cLine(border);
-        } else {
-            Report.cprintln("No medicines expiring within 6 months.");
+        Report.cprintln(title);
+        if (rows.isEmpty()) {
+            Report.cprintln(emptyText);
+            return;
         }
-
-        // After 6 months
-        Report.cprintln("");
-        Report.cprintln("[Medicines Expiring After 6 Months]");
-        if (after6Count > 0) {
-            cLine(border);
-            cPrintf(headerFmt, "ID", "Name", "Expiry");
-            cLine(border);
-            ClinicADT.MyIterator<Medicine> ait = after6Meds.iterator();
-            while (ait.hasNext()) {
-                Medicine m = ait.next();
-                cLine(String.format(rowFmt, m.getId(), fit(m.getName(), 20), m.getExpiration()));
-            }
-            cLine(border);
-        } else {
-            Report.cprintln("No medicines expiring after 6 months.");
+        cLine(border);
+        cPrintf(rowFmt, "ID", "Name", "Expiry", "Qty");
+        cLine(border);
+        StringBuilder date = new StringBuilder(10);
+        ClinicADT.MyIterator<MedicineLot> it = rows.iterator();
+        while (it.hasNext()) {
+            MedicineLot lot = it.next();
+            Medicine m = expiryIndex.medicineOf(lot);
+            date.setLength(0);
+            TimestampCodec.appendDate(date, lot.getExpiry());
+            cLine(String.format(rowFmt, lot.getMedicineId(), fit(m == null ? "(removed)" : m.getName(), 20),
+                    date, lot.getQuantity()));
         }
-
-        // Summary chart
-        printSummaryChart(expiredCount, within6Count, after6Count);
-        Report.printFooter();
+        cLine(border);
     }
 
     // --- Daily Dispense Report (for given date) ---
     public void dailyDispenseReport(LocalDate date) {
-        Report.printHeader("Daily Dispense Report (" + date + ")");
+        printConsumption("Daily Dispense Report (" + date + ")", date, date);
+    }
 
-        double grandTotal = 0.0;
+    // --- Consumption Report (any date range, inclusive) ---
+    public void consumptionReport(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            Report.cprintln("Invalid date range.");
+            return;
+        }
+        printConsumption("Consumption Report (" + from + " to " + to + ")", from, to);
+    }
+
+    private void printConsumption(String title, LocalDate from, LocalDate to) {
+        Report.printHeader(title);
 
-        String border = "+--------------+----------+----------------------+--------+------------+------------+";
-        String rowFmt  = "| %-12s | %-8s | %-20s | %6s | %10s | %10s |";
+        String border = "+----------+----------------------+--------+--------------+";
+        String rowFmt = "| %-8s | %-20s | %6s | %12s |";
 
         cLine(border);
-        cPrintf(rowFmt, "Time", "ID", "Name", "Qty", "Unit(MYR)", "Total");
+        cPrintf(rowFmt, "ID", "Name", "Qty", "Total(MYR)");
         cLine(border);
 
-        try (BufferedReader br = new BufferedReader(new FileReader(dispenseLogPath))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] p = line.split(",", -1);
-                if (p.length < 6) continue;
+        int totalQty = 0;
+        long grandCents = 0;
+        ClinicADT.MyIterator<DispenseRollup.Cell> it = rollup.totalsBetween(from, to).iterator();
+        while (it.hasNext()) {
+            DispenseRollup.Cell c = it.next();
+            Medicine m = getMedicineById(c.getMedicineId());
+            String name = (m == null) ? "(removed)" : m.getName();
+            totalQty += c.getQuantity();
+            grandCents += c.getRevenueCents();
+            cLine(String.format(rowFmt, c.getMedicineId(), fit(name, 20),
+                    c.getQuantity(), Money.format(c.getRevenueCents())));
+        }
 
-                try {
-                    LocalDateTime ts = LocalDateTime.parse(p[0]);
-                    if (!ts.toLocalDate().equals(date)) continue;
+        cLine(border);
+        cLine(String.format(rowFmt, "", "Grand Total", totalQty, Money.format(grandCents)));
+        cLine(border);
 
-                    String timeStr = ts.toLocalTime().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-                    String id = p[1];
-                    String name = p[2];
-                    int qty = Integer.parseInt(p[3]);
-                    double unit = Double.parseDouble(p[4]);
-                    double total = Double.parseDouble(p[5]);
+        Report.printFooter();
+    }
 
-                    grandTotal += total;
+    public DispenseRollup getDispenseRollup() { return rollup; }
 
-                    cLine(String.format(rowFmt,
-                            timeStr, id, fit(name, 20), qty,
-                            String.format("%.2f", unit), String.format("%.2f", total)));
-                } 
-                catch (Exception ignored) {
-                }
+    // --- Restock Suggestions (demand forecast) ---
+    /** Medicines whose available stock is at or below their reorder point, fewest days of cover first. */
+    public ClinicADT<ReorderEngine.Suggestion> getRestockSuggestions() {
+        LocalDate today = LocalDate.now();
+        ClinicADT<ReorderEngine.Suggestion> out = new MyClinicADT<>();
+        ClinicADT.MyIterator<Medicine> it = medicineList.iterator();
+        while (it.hasNext()) {
+            Medicine m = it.next();
+            ReorderEngine.Suggestion s = reorder.suggest(m.getId(), getAvailableQty(m), today);
+            if (s.needsReorder()) out.add(s);
+        }
+        out.sort(new ClinicADT.MyComparator<ReorderEngine.Suggestion>() {
+            @Override
+            public int compare(ReorderEngine.Suggestion a, ReorderEngine.Suggestion b) {
+                return Double.compare(a.getDaysOfCover(), b.getDaysOfCover());
             }
-        } catch (IOException ignored) {}
+        });
+        return out;
+    }
+
+    public void restockSuggestionReport() {
+        Report.printHeader("Restock Suggestions (Demand Forecast)");
+
+        String border = "+-------+----------------------+-----------+-----------+-------+---------+-----------+";
+        String rowFmt = "| %-5s | %-20s | %9s | %9s | %5s | %7s | %9s |";
+
+        ClinicADT<ReorderEngine.Suggestion> list = getRestockSuggestions();
+        if (list.isEmpty()) {
+            Report.cprintln("No medicine is at or below its reorder point.");
+            Report.printFooter();
+            return;
+        }
 
         cLine(border);
-        cLine(String.format(rowFmt, "Grand Total", "", "", "", "", String.format("%.2f", grandTotal)));
+        cPrintf(rowFmt, "ID", "Name", "Available", "Per Day", "Cover", "Reorder", "Order Qty");
         cLine(border);
-
+        ClinicADT.MyIterator<ReorderEngine.Suggestion> it = list.iterator();
+        while (it.hasNext()) {
+            ReorderEngine.Suggestion s = it.next();
+            Medicine m = getMedicineById(s.getMedicineId());
+            cLine(String.format(rowFmt, s.getMedicineId(), fit(m == null ? "(removed)" : m.getName(), 20),
+                    s.getAvailable(), String.format("%.2f", s.getDailyDemand()),
+                    String.format("%.0fd", Math.floor(s.getDaysOfCover())), s.getReorderPoint(), s.getOrderQty()));
+        }
+        cLine(border);
+        Report.cprintln("Forecast: Holt smoothing of daily dispenses; reorder point covers the lead time plus safety stock.");
         Report.printFooter();
     }
 
@@ -430,7 +687,6 @@ public class PharmacyControl {
 
         final String border = "+---------------------+----------+----------------------+--------+----------+";
         final String rowFmt = "| %-19s | %-8s | %-20s | %6s | %8s |";
-        final DateTimeFormatter outTs = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
         cLine(border);
         cPrintf(rowFmt, "DateTime", "ID", "Name", "Added", "Balance");
@@ -438,26 +694,28 @@ public class PharmacyControl {
 
         int totalAdded = 0;
 
+        CsvCursor c = new CsvCursor(restockLogPath);
         try (BufferedReader br = new BufferedReader(new FileReader(restockLogPath))) {
             String line;
             while ((line = br.readLine()) != null) {
-                String[] p = line.split(",", -1);
-                if (p.length < 5) continue;
+                c.reset(line);
+                if (c.isBlankOrComment()) continue;
 
                 try {
-                    LocalDateTime ts = LocalDateTime.parse(p[0]);
+                    c.requireFields(5);
+                    LocalDateTime ts = c.nextDateTime();
                     LocalDate d = ts.toLocalDate();
                     if (d.isBefore(start) || d.isAfter(end)) continue;
 
-                    String id = p[1].trim();
-                    String name = p[2].trim();
-                    int added = safeInt(p[3]);
-                    int after = safeInt(p[4]);
+                    String id = c.nextString();
+                    String name = c.nextString();
+                    int added = c.nextInt();
+                    int after = c.nextInt();
 
                     totalAdded += added;
 
                     cLine(String.format(rowFmt,
-                            ts.format(outTs), id, fit(name, 20),
+                            TimestampCodec.formatSeconds(ts), id, fit(name, 20),
                             String.valueOf(added), String.valueOf(after)));
                 } catch (Exception ignored) {
                     // skip malformed row
@@ -473,74 +731,370 @@ public class PharmacyControl {
     }
 
     // --- File Operations ---
+    /**
+     * Returns once medicine.txt and the lot file reflect every change made before the call.
+     * Counters that save while a rewrite is running share the next one (see CoalescingSaver).
+     */
     private void saveToFile() {
+        saver.save();
+    }
+
+    /** Physical rewrites of medicine.txt so far; counters saving at once share one rewrite. */
+    public long getFileWriteCount() { return saver.writeCount(); }
+
+    private void writeFiles() {
         ensureParentDir(medicineFilePath);
-        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(medicineFilePath), StandardCharsets.UTF_8))) {
-            ClinicADT.MyIterator<Medicine> it = medicineList.iterator();
-            while (it.hasNext()) {
-                Medicine m = it.next();
-                writer.printf("%s,%s,%d,%s,%s,%s,%.2f,%s,%s%n",
-                        m.getId(), m.getName(), m.getQuantity(), m.getUnit(), m.getUsage(), m.getExpiration(),
-                        m.getPricePerUnit(), m.getIntakeMethod(), m.getIntakeMeasurePerDay());
+        synchronized (fileLock) {
+            catalogLock.readLock().lock();
+            try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(medicineFilePath), StandardCharsets.UTF_8))) {
+                ClinicADT.MyIterator<Medicine> it = medicineList.iterator();
+                while (it.hasNext()) {
+                    Medicine m = it.next();
+                    writer.printf("%s,%s,%d,%s,%s,%s,%s,%s,%s%n",
+                            m.getId(), m.getName(), m.getQuantity(), m.getUnit(), m.getUsage(), m.getExpiration(),
+                            Money.format(m.getPriceCents()), m.getIntakeMethod(), m.getIntakeMeasurePerDay());
+                }
+            } catch (IOException e) {
+                Report.cprintln("Error saving to file: " + e.getMessage());
             }
+            try {
+                saveLots();
+            } finally {
+                catalogLock.readLock().unlock();
+            }
+        }
+    }
+
+    /** medicine_lots.txt: one "medicineId,yyyy-MM-dd,quantity" row per lot. Caller holds fileLock + catalog read lock. */
+    private void saveLots() {
+        StringBuilder sb = new StringBuilder(64 * Math.max(1, medicineList.size()));
+        ClinicADT.MyIterator<Medicine> it = medicineList.iterator();
+        while (it.hasNext()) {
+            Medicine m = it.next();
+            ClinicHeapADT<MedicineLot> lots = lotsByMedicine.get(m.getId());
+            if (lots == null) continue;
+            ReentrantLock lock = stripeFor(m.getId());
+            lock.lock();
+            try {
+                ClinicADT.MyIterator<MedicineLot> lit = lots.iterator();
+                while (lit.hasNext()) lit.next().appendCsv(sb).append(System.lineSeparator());
+            } finally {
+                lock.unlock();
+            }
+        }
+        ensureParentDir(lotFilePath);
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(lotFilePath), StandardCharsets.UTF_8)) {
+            w.append(sb);
         } catch (IOException e) {
-            Report.cprintln("Error saving to file: " + e.getMessage());
+            Report.cprintln("Error saving lots: " + e.getMessage());
         }
     }
 
+    /** Loader only (constructor, no other thread yet); the first row of a duplicated ID wins lookups. */
+    private void addLoaded(Medicine m) {
+        medicineList.add(m);
+        if (!byId.containsKey(key(m.getId()))) byId.put(key(m.getId()), m);
+    }
+
     private void loadFromFile() {
         File file = new File(medicineFilePath);
         if (!file.exists()) return;
 
+        CsvCursor c = new CsvCursor(medicineFilePath);
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
             String line;
             while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length >= 9) {
-                    String id = parts[0].trim();
-                    String name = parts[1].trim();
-                    int qty = Integer.parseInt(parts[2].trim());
-                    String unit = parts[3].trim();
-                    String usage = parts[4].trim();
-                    String expiration = parts[5].trim();
-                    double price = Double.parseDouble(parts[6].trim());
-                    String intakeMethod = parts[7].trim();
-                    String intakeMeasurePerDay = parts[8].trim();
-
-                    medicineList.add(new Medicine(id, name, qty, unit, usage, expiration,
-                            price, intakeMethod, intakeMeasurePerDay));
-                } else if (parts.length == 6) {
-                    String id = parts[0].trim();
-                    String name = parts[1].trim();
-                    int qty = Integer.parseInt(parts[2].trim());
-                    String unit = parts[3].trim();
-                    String usage = parts[4].trim();
-                    String expiration = parts[5].trim();
-
-                    double price = 0.0;
-                    String intakeMethod = "ORAL_AFTER_MEAL";
-                    String intakeMeasurePerDay = "1 unit/day";
-
-                    medicineList.add(new Medicine(id, name, qty, unit, usage, expiration,
-                            price, intakeMethod, intakeMeasurePerDay));
+                c.reset(line);
+                if (c.isBlankOrComment()) continue;
+                int fields = c.fieldCount();
+                try {
+                    if (fields >= 9) {
+                        String id = c.nextString();
+                        String name = c.nextString();
+                        int qty = c.nextInt();
+                        String unit = c.nextString();
+                        String usage = c.nextString();
+                        String expiration = c.nextString();
+                        long priceCents = c.nextCents();
+                        String intakeMethod = c.nextString();
+                        String intakeMeasurePerDay = c.nextString();
+
+                        Medicine m = new Medicine(id, name, qty, unit, usage, expiration,
+                                0.0, intakeMethod, intakeMeasurePerDay);
+                        m.setPrice(Money.ofCents(priceCents));
+                        addLoaded(m);
+                    } else if (fields == 6) {
+                        String id = c.nextString();
+                        String name = c.nextString();
+                        int qty = c.nextInt();
+                        String unit = c.nextString();
+                        String usage = c.nextString();
+                        String expiration = c.nextString();
+
+                        double price = 0.0;
+                        String intakeMethod = "ORAL_AFTER_MEAL";
+                        String intakeMeasurePerDay = "1 unit/day";
+
+                        addLoaded(new Medicine(id, name, qty, unit, usage, expiration,
+                                price, intakeMethod, intakeMeasurePerDay));
+                    } else {
+                        throw c.malformed("expected 9 (or legacy 6) fields, found " + fields);
+                    }
+                } catch (CsvCursor.MalformedRowException e) {
+                    c.report(e);
                 }
             }
-        } catch (IOException | NumberFormatException e) {
+        } catch (IOException e) {
             Report.cprintln("Error loading from file: " + e.getMessage());
         }
     }
 
-    // --- Accessors ---
-    public Medicine getMedicineById(String id) {
+    /**
+     * Reads the lots file. A medicine with no lots on file, or whose lots no longer add up
+     * to its quantity in medicine.txt, starts again from a single lot (quantity, expiration).
+     */
+    private void loadLots() {
+        File file = new File(lotFilePath);
+        if (file.exists()) {
+            CsvCursor c = new CsvCursor(lotFilePath);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    c.reset(line);
+                    if (c.isBlankOrComment()) continue;
+                    try {
+                        Medicine m = getMedicineById(c.nextString());
+                        long day = c.nextDate().toEpochDay();
+                        int qty = c.nextInt();
+                        if (m == null || qty <= 0) continue;
+                        ClinicHeapADT<MedicineLot> lots = lotsByMedicine.get(m.getId());
+                        if (lots == null) {
+                            lots = new MyClinicHeapADT<>(MedicineLot.BY_EXPIRY);
+                            lotsByMedicine.put(m.getId(), lots);
+                        }
+                        lots.add(new MedicineLot(m.getId(), day, qty));
+                    } catch (CsvCursor.MalformedRowException e) {
+                        c.report(e);
+                    }
+                }
+            } catch (IOException e) {
+                Report.cprintln("Error loading lots: " + e.getMessage());
+            }
+        }
+
         ClinicADT.MyIterator<Medicine> it = medicineList.iterator();
         while (it.hasNext()) {
             Medicine m = it.next();
-            if (m.getId().equalsIgnoreCase(id)) return m;
+            ClinicHeapADT<MedicineLot> lots = lotsByMedicine.get(m.getId());
+            if (lots == null || totalOf(lots) != m.getQuantity()) {
+                lots = seedLots(m);
+                lotsByMedicine.put(m.getId(), lots);
+            } else {
+                syncExpiration(m, lots);
+            }
+            indexLots(m, lots);
+        }
+    }
+
+    // --- Lots (FEFO) ---
+    private ClinicHeapADT<MedicineLot> lotsOf(String medicineId) {
+        catalogLock.readLock().lock();
+        try {
+            return lotsByMedicine.get(medicineId);
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    /** A fresh heap holding the medicine's whole quantity as one lot at its expiration date. */
+    private static ClinicHeapADT<MedicineLot> seedLots(Medicine m) {
+        ClinicHeapADT<MedicineLot> lots = new MyClinicHeapADT<>(MedicineLot.BY_EXPIRY);
+        if (m.getQuantity() > 0) {
+            try {
+                lots.add(new MedicineLot(m.getId(), LocalDate.parse(m.getExpiration()), m.getQuantity()));
+            } catch (Exception ignored) {
+                // unreadable expiry: quantity is still tracked on the medicine, just not per lot
+            }
+        }
+        return lots;
+    }
+
+    /**
+     * Consumes {@code amount} from the earliest-expiring lots first. Caller holds the stripe lock,
+     * has run quarantineExpired (so every lot left is sellable) and has checked stock.
+     */
+    private void takeEarliestFirst(Medicine m, ClinicHeapADT<MedicineLot> lots, int amount) {
+        int left = amount;
+        while (left > 0 && lots != null && !lots.isEmpty()) {
+            MedicineLot top = lots.peek();
+            left -= top.take(left);
+            if (top.getQuantity() == 0) expiryIndex.remove(lots.poll());
+        }
+        m.setQuantity(m.getQuantity() - amount);
+        if (amount > 0 && m.getQuantity() <= 0) stockVersion.incrementAndGet();   // just ran out
+        syncExpiration(m, lots);
+    }
+
+    /**
+     * Tops up the lot with the same expiry, or starts a new one, so stock never takes another
+     * lot's date. Returns false, changing nothing, when there is no lot heap or the date has
+     * passed. Caller holds the stripe lock and adds {@code amount} to the quantity on success.
+     */
+    private boolean addToLot(Medicine m, ClinicHeapADT<MedicineLot> lots, int amount, LocalDate expiry) {
+        if (lots == null || expiry == null) return false;
+        long day = expiry.toEpochDay();
+        if (day < LocalDate.now().toEpochDay()) return false;
+        ClinicADT.MyIterator<MedicineLot> it = lots.iterator();
+        while (it.hasNext()) {
+            MedicineLot lot = it.next();
+            if (lot.getExpiryEpochDay() == day) { lot.add(amount); return true; }
+        }
+        MedicineLot lot = new MedicineLot(m.getId(), day, amount);
+        lots.add(lot);
+        expiryIndex.add(m, lot);
+        return true;
+    }
+
+    /**
+     * Moves lots that expired before today out of sellable stock (lot heap, expiry index and
+     * quantity) and returns their quarantine log rows, or "" if none. Caller holds the stripe lock.
+     */
+    private String quarantineExpired(Medicine m, ClinicHeapADT<MedicineLot> lots) {
+        if (lots == null) return "";
+        long today = LocalDate.now().toEpochDay();
+        StringBuilder rows = null;
+        int removed = 0;
+        while (!lots.isEmpty() && lots.peek().getExpiryEpochDay() < today) {
+            MedicineLot lot = lots.poll();
+            expiryIndex.remove(lot);
+            removed += lot.getQuantity();
+            if (rows == null) rows = new StringBuilder();
+            else rows.append(System.lineSeparator());
+            rows.append(nowIso()).append(',').append(m.getId()).append(',').append(m.getName()).append(',');
+            TimestampCodec.appendDate(rows, lot.getExpiry()).append(',').append(lot.getQuantity());
+        }
+        if (removed == 0) return "";
+        boolean hadStock = m.getQuantity() > 0;
+        m.setQuantity(m.getQuantity() - removed);
+        if (hadStock && m.getQuantity() <= 0) stockVersion.incrementAndGet();   // only expired units were left
+        syncExpiration(m, lots);
+        return rows.toString();
+    }
+
+    /** quarantine_log.txt: dateTime,medicineId,medicineName,expiry,quantity. */
+    private void logQuarantine(String rows) {
+        if (rows.isEmpty()) return;
+        appendLog(quarantinePath, rows);
+        Report.cprintln("Expired stock moved to quarantine (see " + quarantinePath + ").");
+    }
+
+    private void indexLots(Medicine m, ClinicHeapADT<MedicineLot> lots) {
+        ClinicADT.MyIterator<MedicineLot> it = lots.iterator();
+        while (it.hasNext()) expiryIndex.add(m, it.next());
+    }
+
+    /** Medicine.expiration follows the earliest lot; an empty heap keeps the last known date. */
+    private static void syncExpiration(Medicine m, ClinicHeapADT<MedicineLot> lots) {
+        MedicineLot top = (lots == null) ? null : lots.peek();
+        if (top == null) return;
+        m.setExpiration(TimestampCodec.appendDate(new StringBuilder(10), top.getExpiry()).toString());
+    }
+
+    private static int totalOf(ClinicHeapADT<MedicineLot> lots) {
+        int sum = 0;
+        ClinicADT.MyIterator<MedicineLot> it = lots.iterator();
+        while (it.hasNext()) sum += it.next().getQuantity();
+        return sum;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ClinicHeapADT<MedicineLot>[] newLotArray(int n) {
+        return (ClinicHeapADT<MedicineLot>[]) new ClinicHeapADT<?>[n];
+    }
+
+    /** Lots of one medicine, earliest expiry first (a copy; safe to keep). */
+    public ClinicADT<MedicineLot> getLots(String medicineId) {
+        ClinicADT<MedicineLot> out = new MyClinicADT<>();
+        Medicine m = getMedicineById(medicineId);
+        ClinicHeapADT<MedicineLot> lots = (m == null) ? null : lotsOf(m.getId());
+        if (lots == null) return out;
+        ReentrantLock lock = stripeFor(m.getId());
+        lock.lock();
+        try {
+            ClinicADT.MyIterator<MedicineLot> it = lots.iterator();
+            while (it.hasNext()) {
+                MedicineLot l = it.next();
+                out.add(new MedicineLot(l.getMedicineId(), l.getExpiryEpochDay(), l.getQuantity()));
+            }
+        } finally {
+            lock.unlock();
         }
-        return null;
+        out.sort(MedicineLot.BY_EXPIRY);
+        return out;
     }
 
+    // --- Expiry queries (O(log n) counts; safe to poll from a background job) ---
+    public int countExpiredLots() { return expiryIndex.countExpiringBefore(LocalDate.now()); }
+
+    public int countLotsExpiringBefore(LocalDate day) { return expiryIndex.countExpiringBefore(day); }
+
+    public ClinicADT<MedicineLot> getExpiredLots() { return expiryIndex.expiringBefore(LocalDate.now()); }
+
+    public ClinicADT<MedicineLot> getLotsExpiringBefore(LocalDate day) { return expiryIndex.expiringBefore(day); }
+
+    public LocalDate getEarliestExpiry() { return expiryIndex.earliestExpiry(); }
+
+    public ExpiryIndex getExpiryIndex() { return expiryIndex; }
+
+    // --- Accessors ---
+    public Medicine getMedicineById(String id) {
+        if (id == null) return null;
+        catalogLock.readLock().lock();
+        try {
+            return byId.get(key(id));
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    public long getStockVersion() { return stockVersion.get(); }
+
     public ClinicADT<Medicine> getAllMedicines() { return medicineList; }
+
+    // === Availability (on hand minus READY-queue reservations) ===
+    public void setReservationSource(PharmacyQueueControl queue) { this.reservations = queue; }
+
+    public int getReservedQty(String id) {
+        return (reservations == null) ? 0 : reservations.getReservedQtyForMedicine(id);
+    }
+
+    /** Unexpired units that can still be promised to a new prescription (never negative). */
+    public int getAvailableQty(Medicine m) {
+        if (m == null) return 0;
+        return Math.max(0, m.getQuantity() - expiredQty(m) - getReservedQty(m.getId()));
+    }
+
+    /** Units in lots past their date that have not been quarantined yet. */
+    private int expiredQty(Medicine m) {
+        ClinicHeapADT<MedicineLot> lots = lotsOf(m.getId());
+        if (lots == null) return 0;
+        long today = LocalDate.now().toEpochDay();
+        int expired = 0;
+        ReentrantLock lock = stripeFor(m.getId());
+        lock.lock();
+        try {
+            ClinicADT.MyIterator<MedicineLot> it = lots.iterator();
+            while (it.hasNext()) {
+                MedicineLot l = it.next();
+                if (l.getExpiryEpochDay() < today) expired += l.getQuantity();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return expired;
+    }
+
+    public int getAvailableQty(String id) { return getAvailableQty(getMedicineById(id)); }
     public Medicine getMedicineAt(int index) { return medicineList.get(index); }
     public int getSize() { return medicineList.size(); }
     public boolean isEmpty() { return medicineList.isEmpty(); }
@@ -577,15 +1131,24 @@ public class PharmacyControl {
     }
 
     // --- Misc helpers ---
-    private static void appendLog(String path, String line) {
+    private static synchronized void appendLog(String path, String line) {
         ensureParentDir(path);
         try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(path, true), StandardCharsets.UTF_8))) {
             pw.println(line);
         } catch (IOException ignored) {}
     }
 
+    private ReentrantLock stripeFor(String id) { return stripes[stripeIndex(id)]; }
+
+    private static String key(String id) { return id.trim().toUpperCase(); }
+
+    private static int stripeIndex(String id) {
+        int h = (id == null) ? 0 : id.trim().toUpperCase().hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
     private static String nowIso() {
-        return LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        return TimestampCodec.formatIso(LocalDateTime.now());
     }
 
     // Use ASCII "..." to keep consoles consistent across platforms
@@ -595,10 +1158,6 @@ public class PharmacyControl {
         return s.substring(0, Math.max(0, w - 3)) + "...";
     }
 
-    private static int safeInt(String s) {
-        try { return Integer.parseInt(s.trim()); } catch (Exception e) { return 0; }
-    }
-
     private static void ensureParentDir(String path) {
         try {
             File f = new File(path);
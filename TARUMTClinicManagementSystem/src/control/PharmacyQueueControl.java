@@ -1,33 +1,62 @@
 package control;
 
 import adt.ClinicADT;
+import adt.ClinicMapADT;
+import adt.ConcurrentClinicQueue;
 import adt.MyClinicADT;
+import adt.MyClinicMapADT;
 import entity.Medicine;
 import entity.MedicinePrescription;
+import utility.CoalescingSaver;
+import utility.CsvCursor;
+import utility.Money;
+import utility.TimestampCodec;
 
 import java.io.*;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
 
 /**
  * PharmacyQueueControl
  * - READY and DISPENSED queues persisted under src/textFile/
- * - 11-field CSV schema:
- *   prescriptionId,patientId,patientName,appointmentId,medicineId,medicineName,quantity,dosage,instructions,unitPrice,status
- * - Accurate money math with BigDecimal (2dp).
+ * - 11-field CSV schema plus the prescribed time (12th field; absent in older files):
+ *   prescriptionId,patientId,patientName,appointmentId,medicineId,medicineName,quantity,dosage,instructions,unitPrice,status,prescribedAt
+ * - Money is exact integer cents (see utility.Money); no floating-point sums.
+ * - DISPENSED history is cold: loaded only when a report needs the whole list;
+ *   per-appointment billing pages matching lines straight from disk.
+ * - Billing reads a per-appointment index (lines + captured-price totals) kept in step
+ *   with every queue change, so checkout touches only that appointment's lines.
+ * - Several dispensing counters may share one instance: the READY queue is a concurrent
+ *   queue and index updates and history appends happen under this object's monitor; the
+ *   ready file rewrite runs outside it and is shared by counters that finish together.
+ * - Every dispensed line is published on the ClinicEventBus (pharmacy wait metrics and ETAs).
  */
-public class PharmacyQueueControl {
-    private final ClinicADT<MedicinePrescription> readyQueue     = new MyClinicADT<>();
+public final class PharmacyQueueControl {
+    private final ConcurrentClinicQueue<MedicinePrescription> readyQueue = new ConcurrentClinicQueue<>();
     private final ClinicADT<MedicinePrescription> dispensedList  = new MyClinicADT<>();
+    private boolean dispensedLoaded = false; // history is read on first use
+
+    /** Billable lines of one appointment. DISPENSED part is null until first read. */
+    private static final class ApptLines {
+        final ClinicADT<MedicinePrescription> ready = new MyClinicADT<>();
+        ClinicADT<MedicinePrescription> dispensed;
+        long capturedCents;   // sum of lines with a captured unit price
+        int unpriced;         // lines priced from the catalogue at checkout
+    }
+
+    private final ClinicMapADT<Integer, ApptLines> byAppointment = new MyClinicMapADT<>();
+
+    // MEDICINE_ID -> units held by READY lines (int[1] so updates don't re-box)
+    private final ClinicMapADT<String, int[]> reservedByMedicine = new MyClinicMapADT<>();
 
     private final String readyFile     = "src/textFile/ready_queue.txt";
     private final String dispensedFile = "src/textFile/dispensed_queue.txt";
 
-    private static final RoundingMode RM = RoundingMode.HALF_UP;
+    // ready_queue.txt is rewritten in full; concurrent dispenses share one rewrite
+    private final CoalescingSaver readySaver = new CoalescingSaver(() -> saveQueueToFile(readyQueue, readyFile));
 
     public PharmacyQueueControl() {
         initializeDataDirectory();
@@ -47,7 +76,7 @@ public class PharmacyQueueControl {
     }
 
     // ---------- Queue operations ----------
-    public void enqueuePrescription(MedicinePrescription p) {
+    public synchronized void enqueuePrescription(MedicinePrescription p) {
         if (p == null) return;
         try {
             if (p.getStatus() != MedicinePrescription.PrescriptionStatus.READY) {
@@ -55,6 +84,7 @@ public class PharmacyQueueControl {
             }
         } catch (Throwable ignored) {}
         readyQueue.enqueue(p);
+        indexReady(p);
         saveQueues();
     }
 
@@ -75,63 +105,150 @@ public class PharmacyQueueControl {
         try { return readyQueue.peek(); } catch (Exception e) { return null; }
     }
 
-    /** Move the front READY item to DISPENSED (stock is decreased). */
+    /**
+     * Move the front READY item to DISPENSED (stock is decreased).
+     * Safe to call from several counters at once: each call claims a different line with an
+     * atomic poll, the stock check/decrement is done under that medicine's lock only, and the
+     * bookkeeping/persist step is the only part serialized on this control.
+     */
     public boolean dispenseFront(PharmacyControl stockControl) {
-        if (readyQueue.isEmpty()) {
+        MedicinePrescription front = readyQueue.poll();
+        if (front == null) {
             System.out.println("Ready queue is empty - nothing to dispense");
             return false;
         }
 
-        MedicinePrescription front = readyQueue.dequeue();
-        if (front == null) return false;
-
         Medicine med = stockControl.getMedicineById(front.getMedicineId());
-        if (med == null) {
-            readyQueue.enqueue(front);
-            saveQueues();
-            System.out.println("Medicine not found in stock: " + front.getMedicineId());
-            return false;
-        }
+        boolean ok = (med != null)
+                && stockControl.dispenseMedicineById(front.getMedicineId(), front.getQuantity());
 
-        boolean ok = stockControl.dispenseMedicineById(front.getMedicineId(), front.getQuantity());
         if (!ok) {
-            // Put back, persist, and fail
-            readyQueue.enqueue(front);
-            saveQueues();
-            System.out.println("Unable to dispense (insufficient stock or validation failed) for: " + front.getMedicineId());
+            // back to the front, where it was claimed from
+            readyQueue.reinsert(0, front);
+            readySaver.save();
+            System.out.println(med == null
+                    ? "Medicine not found in stock: " + front.getMedicineId()
+                    : "Unable to dispense (insufficient stock or validation failed) for: " + front.getMedicineId());
             return false;
         }
 
-        try { front.dispense(); } catch (Throwable ignored) {}
-        try { front.setStatus(MedicinePrescription.PrescriptionStatus.DISPENSED); } catch (Throwable ignored) {}
-        dispensedList.enqueue(front);
-        saveQueues();
+        synchronized (this) {
+            try { front.dispense(); } catch (Throwable ignored) {}
+            try { front.setStatus(MedicinePrescription.PrescriptionStatus.DISPENSED); } catch (Throwable ignored) {}
+            moveToDispensed(front);
+            if (dispensedLoaded) dispensedList.enqueue(front);
+            appendToFile(formatLine(front), dispensedFile);   // history is append-only here
+        }
+        readySaver.save();
 
+        ClinicEventBus.shared().publish(new ClinicEvent.PrescriptionDispensed(front));
         System.out.printf("%d units of %s dispensed to %s (%s).%n",
                 front.getQuantity(), front.getMedicineName(),
                 front.getPatientName(), front.getPatientId());
         return true;
     }
 
+    /** Dispense every READY line of one appointment together (all or nothing). */
+    public int dispenseAppointment(int apptId, PharmacyControl stockControl) {
+        ClinicADT<MedicinePrescription> batch = new MyClinicADT<>();
+        int[] claimedAt;
+        synchronized (this) {
+            ApptLines e = byAppointment.get(apptId);
+            claimedAt = new int[(e == null) ? 0 : e.ready.size()];
+            if (e != null) {
+                for (int i = 0; i < e.ready.size(); i++) {
+                    MedicinePrescription p = e.ready.get(i);
+                    int at = readyQueue.removeAndGetIndex(p); // claim; another counter may hold the rest
+                    if (at >= 0) {
+                        claimedAt[batch.size()] = at;
+                        batch.add(p);
+                    }
+                }
+            }
+        }
+        if (batch.isEmpty()) {
+            System.out.println("No READY lines for appointment #" + apptId);
+            return 0;
+        }
+        return dispenseBatch(batch, claimedAt, stockControl);
+    }
+
+    /** Dispense the first {@code n} READY lines together (all or nothing). */
+    public int dispenseFirst(int n, PharmacyControl stockControl) {
+        ClinicADT<MedicinePrescription> batch = new MyClinicADT<>();
+        for (int i = 0; i < n; i++) {
+            MedicinePrescription p = readyQueue.poll();
+            if (p == null) break;
+            batch.add(p);
+        }
+        if (batch.isEmpty()) {
+            System.out.println("Ready queue is empty - nothing to dispense");
+            return 0;
+        }
+        return dispenseBatch(batch, new int[batch.size()], stockControl);   // each poll took index 0
+    }
+
+    /**
+     * Lines in {@code batch} are already claimed (taken off the ready queue); {@code claimedAt[b]}
+     * is the index line b was removed from, in claim order. Stock is validated and written once
+     * by PharmacyControl; the ready file is rewritten once and the dispensed lines are appended
+     * in one write. On failure the claims are undone in reverse, so each line returns to its slot.
+     */
+    private int dispenseBatch(ClinicADT<MedicinePrescription> batch, int[] claimedAt, PharmacyControl stockControl) {
+        boolean ok = stockControl.dispenseBatch(batch);
+
+        if (!ok) {
+            for (int b = batch.size() - 1; b >= 0; b--) readyQueue.reinsert(claimedAt[b], batch.get(b));
+            readySaver.save();
+            System.out.println("Batch not dispensed (insufficient stock or validation failed); lines returned to their queue positions.");
+            return 0;
+        }
+
+        synchronized (this) {
+            StringBuilder appended = new StringBuilder();
+            for (int b = 0; b < batch.size(); b++) {
+                MedicinePrescription p = batch.get(b);
+                try { p.dispense(); } catch (Throwable ignored) {}
+                try { p.setStatus(MedicinePrescription.PrescriptionStatus.DISPENSED); } catch (Throwable ignored) {}
+                moveToDispensed(p);
+                if (dispensedLoaded) dispensedList.enqueue(p);
+                appended.append(formatLine(p));
+            }
+            appendToFile(appended, dispensedFile);   // history is append-only here
+        }
+        readySaver.save();
+        for (int b = 0; b < batch.size(); b++) {
+            ClinicEventBus.shared().publish(new ClinicEvent.PrescriptionDispensed(batch.get(b)));
+        }
+        System.out.printf("%d prescription line(s) dispensed.%n", batch.size());
+        return batch.size();
+    }
+
     // ---------- Helpers to avoid “stale” duplicates ----------
     /** Remove ALL READY & DISPENSED lines for an appointment (use with care). */
-    public void clearAllMedicineForAppointment(int apptId) {
+    public synchronized void clearAllMedicineForAppointment(int apptId) {
         for (int i = readyQueue.size() - 1; i >= 0; i--) {
-            if (readyQueue.get(i).getAppointmentId() == apptId) readyQueue.remove(i);
+            MedicinePrescription p = readyQueue.get(i);
+            if (p.getAppointmentId() != apptId) continue;
+            reserve(p, -1);
+            readyQueue.remove(i);
         }
+        ensureDispensedLoaded();
         for (int i = dispensedList.size() - 1; i >= 0; i--) {
             if (dispensedList.get(i).getAppointmentId() == apptId) dispensedList.remove(i);
         }
+        byAppointment.remove(apptId);
         saveQueues();
     }
 
-    public void replaceAllMedicineForAppointment(int apptId, ClinicADT<MedicinePrescription> newLines) {
+    public synchronized void replaceAllMedicineForAppointment(int apptId, ClinicADT<MedicinePrescription> newLines) {
         clearAllMedicineForAppointment(apptId);
         ClinicADT.MyIterator<MedicinePrescription> it = newLines.iterator();
         while (it.hasNext()) {
             MedicinePrescription p = it.next();
             try { p.setStatus(MedicinePrescription.PrescriptionStatus.READY); } catch (Throwable ignored) {}
             readyQueue.enqueue(p);
+            indexReady(p);
         }
         saveQueues();
     }
@@ -141,15 +258,16 @@ public class PharmacyQueueControl {
         System.out.println("\n=== Pharmacy READY Queue ===");
         if (readyQueue.isEmpty()) { System.out.println("(empty)"); return; }
 
-        String line = "+----+----------------------+-----------+--------+------------------------------+-----+";
-        String hdr  = "| No | Patient             | PatientID | Med.ID | Medicine                      | Qty |";
-        String fmt  = "| %-2d | %-20s | %-9s | %-6s | %-28s | %-3d |";
+        String line = "+----+----------------------+-----------+--------+------------------------------+-----+-----------+";
+        String hdr  = "| No | Patient             | PatientID | Med.ID | Medicine                      | Qty | Est. Wait |";
+        String fmt  = "| %-2d | %-20s | %-9s | %-6s | %-28s | %-3d | %-9s |";
 
         System.out.println(line);
         System.out.println(hdr);
         System.out.println(line);
 
         int i = 1;
+        WaitTimeEstimator.Line eta = WaitTimeEstimator.shared().line();
         ClinicADT.MyIterator<MedicinePrescription> it = readyQueue.iterator();
         while (it.hasNext()) {
             MedicinePrescription p = it.next();
@@ -158,12 +276,14 @@ public class PharmacyQueueControl {
                     p.getPatientId(),
                     p.getMedicineId(),
                     cutAscii(p.getMedicineName(), 28),
-                    p.getQuantity()));
+                    p.getQuantity(),
+                    eta.next(WaitTimeEstimator.PHARMACY)));
         }
         System.out.println(line);
     }
 
-    public void printDispensedHistory() {
+    public synchronized void printDispensedHistory() {
+        ensureDispensedLoaded();
         System.out.println("\n=== Pharmacy Dispensed History ===");
         if (dispensedList.isEmpty()) { System.out.println("(none)"); return; }
 
@@ -195,57 +315,140 @@ public class PharmacyQueueControl {
     /**
      * Medicine total for an appointment, counting ONLY billable statuses:
      * READY (prepared/ready to pay) and DISPENSED.
-     * Uses BigDecimal to avoid floating-point drift and rounds to 2 dp.
      */
     public double getTotalMedicineFeeForAppointment(int appointmentId, PharmacyControl pharmacy) {
-        BigDecimal total = BigDecimal.ZERO;
+        return getTotalMedicineFeeCentsForAppointment(appointmentId, pharmacy) / 100.0;
+    }
 
-        // READY
-        ClinicADT.MyIterator<MedicinePrescription> rit = readyQueue.iterator();
+    /** Same as above in exact cents; O(lines of this appointment). */
+    public synchronized long getTotalMedicineFeeCentsForAppointment(int appointmentId, PharmacyControl pharmacy) {
+        ApptLines e = linesFor(appointmentId);
+        long total = e.capturedCents;
+        if (e.unpriced > 0) {
+            total = Money.add(total, catalogueCents(e.ready, pharmacy));
+            total = Money.add(total, catalogueCents(e.dispensed, pharmacy));
+        }
+        return total;
+    }
+
+    /** Text breakdown for the cashier/receipt UI (READY + DISPENSED only). */
+    public synchronized String getMedicineBreakdownForAppointment(int appointmentId) {
+        ApptLines e = linesFor(appointmentId);
+        StringBuilder sb = new StringBuilder();
+
+        ClinicADT.MyIterator<MedicinePrescription> rit = e.ready.iterator();
         while (rit.hasNext()) {
             MedicinePrescription p = rit.next();
-            if (p.getAppointmentId() != appointmentId) continue;
-            try {
-                if (p.getStatus() != MedicinePrescription.PrescriptionStatus.READY) continue;
-            } catch (Throwable ignored) { /* older lines: READY file implies billable */ }
-            total = total.add(priceForLine(p, pharmacy));
+            sb.append(String.format("  - %s x%d (READY)%n", p.getMedicineName(), p.getQuantity()));
         }
 
-        // DISPENSED
-        ClinicADT.MyIterator<MedicinePrescription> dit = dispensedList.iterator();
+        ClinicADT.MyIterator<MedicinePrescription> dit = e.dispensed.iterator();
         while (dit.hasNext()) {
             MedicinePrescription p = dit.next();
-            if (p.getAppointmentId() != appointmentId) continue;
-            try {
-                if (p.getStatus() != MedicinePrescription.PrescriptionStatus.DISPENSED) continue;
-            } catch (Throwable ignored) { /* dispensed file implies billable */ }
-            total = total.add(priceForLine(p, pharmacy));
+            sb.append(String.format("  - %s x%d (DISPENSED)%n", p.getMedicineName(), p.getQuantity()));
         }
 
-        return total.setScale(2, RM).doubleValue();
+        return sb.length() == 0 ? "  (no finalized medicine lines)\n" : sb.toString();
     }
 
-    /** Text breakdown for the cashier/receipt UI (READY + DISPENSED only). */
-    public String getMedicineBreakdownForAppointment(int appointmentId) {
-        StringBuilder sb = new StringBuilder();
+    // ---------- Per-appointment index ----------
+    /** Entry with both parts present (DISPENSED read from history on first request). */
+    private ApptLines linesFor(int apptId) {
+        ApptLines e = entry(apptId);
+        if (e.dispensed == null) {
+            e.dispensed = dispensedForAppointment(apptId);
+            ClinicADT.MyIterator<MedicinePrescription> it = e.dispensed.iterator();
+            while (it.hasNext()) account(e, it.next(), +1);
+        }
+        return e;
+    }
 
-        ClinicADT.MyIterator<MedicinePrescription> rit = readyQueue.iterator();
-        while (rit.hasNext()) {
-            MedicinePrescription p = rit.next();
-            if (p.getAppointmentId() == appointmentId) {
-                sb.append(String.format("  - %s x%d (READY)%n", p.getMedicineName(), p.getQuantity()));
-            }
+    private ApptLines entry(int apptId) {
+        ApptLines e = byAppointment.get(apptId);
+        if (e == null) {
+            e = new ApptLines();
+            if (dispensedLoaded) e.dispensed = new MyClinicADT<>(); // history in memory is already indexed
+            byAppointment.put(apptId, e);
         }
+        return e;
+    }
 
-        ClinicADT.MyIterator<MedicinePrescription> dit = dispensedList.iterator();
-        while (dit.hasNext()) {
-            MedicinePrescription p = dit.next();
-            if (p.getAppointmentId() == appointmentId) {
-                sb.append(String.format("  - %s x%d (DISPENSED)%n", p.getMedicineName(), p.getQuantity()));
+    private void indexReady(MedicinePrescription p) {
+        ApptLines e = entry(p.getAppointmentId());
+        e.ready.add(p);
+        account(e, p, +1);
+        reserve(p, +1);
+    }
+
+    /** READY -> DISPENSED for an already-dispensed line. */
+    private void moveToDispensed(MedicinePrescription p) {
+        reserve(p, -1);
+        ApptLines e = entry(p.getAppointmentId());
+        for (int i = 0; i < e.ready.size(); i++) {
+            if (e.ready.get(i) == p) { e.ready.remove(i); break; }
+        }
+        if (e.dispensed != null) e.dispensed.add(p);   // otherwise it is counted when history is read
+        else account(e, p, -1);
+    }
+
+    private static void account(ApptLines e, MedicinePrescription p, int sign) {
+        long unit = p.getUnitPriceCents();
+        if (unit > 0L) e.capturedCents = Money.add(e.capturedCents, sign * Money.times(unit, p.getQuantity()));
+        else e.unpriced += sign;
+    }
+
+    private void reserve(MedicinePrescription p, int sign) {
+        if (p.getMedicineId() == null) return;
+        String key = p.getMedicineId().trim().toUpperCase();
+        int[] n = reservedByMedicine.get(key);
+        if (n == null) {
+            if (sign < 0) return;
+            n = new int[1];
+            reservedByMedicine.put(key, n);
+        }
+        n[0] += sign * p.getQuantity();
+        if (n[0] <= 0) reservedByMedicine.remove(key);
+    }
+
+    private void rebuildIndex() {
+        byAppointment.clear();
+        reservedByMedicine.clear();
+        ClinicADT.MyIterator<MedicinePrescription> it = readyQueue.iterator();
+        while (it.hasNext()) indexReady(it.next());
+    }
+
+    /** Whole history is now in memory: index every DISPENSED line from it. */
+    private void indexDispensedHistory() {
+        // drop parts paged from disk earlier; they are re-added from the loaded list
+        ClinicADT.MyIterator<ApptLines> es = byAppointment.valueIterator();
+        while (es.hasNext()) {
+            ApptLines e = es.next();
+            if (e.dispensed != null) {
+                ClinicADT.MyIterator<MedicinePrescription> it = e.dispensed.iterator();
+                while (it.hasNext()) account(e, it.next(), -1);
             }
+            e.dispensed = new MyClinicADT<>();
         }
 
-        return sb.length() == 0 ? "  (no finalized medicine lines)\n" : sb.toString();
+        ClinicADT.MyIterator<MedicinePrescription> it = dispensedList.iterator();
+        while (it.hasNext()) {
+            MedicinePrescription p = it.next();
+            ApptLines e = entry(p.getAppointmentId());
+            e.dispensed.add(p);
+            account(e, p, +1);
+        }
+    }
+
+    private static long catalogueCents(ClinicADT<MedicinePrescription> lines, PharmacyControl pharmacy) {
+        long sum = 0L;
+        ClinicADT.MyIterator<MedicinePrescription> it = lines.iterator();
+        while (it.hasNext()) {
+            MedicinePrescription p = it.next();
+            if (p.getUnitPriceCents() > 0L) continue;
+            Medicine m = pharmacy.getMedicineById(p.getMedicineId());
+            if (m != null) sum = Money.add(sum, Money.times(m.getPriceCents(), p.getQuantity()));
+        }
+        return sum;
     }
 
     // ---------- Persistence ----------
@@ -257,11 +460,14 @@ public class PharmacyQueueControl {
         } catch (Exception ignored) {}
     }
 
+    /** Physical rewrites of the ready file so far; counters saving at once share one rewrite. */
+    public long getReadyFileWriteCount() { return readySaver.writeCount(); }
+
     private void saveQueues() {
         ensureParentDir(readyFile);
         ensureParentDir(dispensedFile);
-        saveQueueToFile(readyQueue, readyFile);
-        saveQueueToFile(dispensedList, dispensedFile);
+        readySaver.save();
+        if (dispensedLoaded) saveQueueToFile(dispensedList, dispensedFile); // untouched history stays as is
     }
 
     private static String esc(String s) {
@@ -270,48 +476,110 @@ public class PharmacyQueueControl {
         return s.replace(',', ' ').replace('\n', ' ').replace('\r', ' ').trim();
     }
 
-    /** 11-field schema writer (UTF-8). Unit price forced to 2 dp with dot decimal. */
+    /** Schema writer (UTF-8). Unit price forced to 2 dp with dot decimal. */
     private void saveQueueToFile(ClinicADT<MedicinePrescription> queue, String filePath) {
         try (PrintWriter writer = new PrintWriter(
                 new OutputStreamWriter(new FileOutputStream(filePath), StandardCharsets.UTF_8))) {
 
             ClinicADT.MyIterator<MedicinePrescription> it = queue.iterator();
-            while (it.hasNext()) {
-                MedicinePrescription p = it.next();
-
-                int pid = 0;
-                try { pid = p.getPrescriptionId(); } catch (Throwable ignored) {}
-
-                String status = "READY";
-                try { status = p.getStatus().name(); } catch (Throwable ignored) {}
-
-                BigDecimal unit = bd(p.getUnitPriceAtPrepare());
-
-                writer.printf("%d,%s,%s,%d,%s,%s,%d,%s,%s,%.2f,%s%n",
-                        pid,
-                        esc(p.getPatientId()),
-                        esc(p.getPatientName()),
-                        p.getAppointmentId(),
-                        esc(p.getMedicineId()),
-                        esc(p.getMedicineName()),
-                        p.getQuantity(),
-                        esc(p.getDosage()),
-                        esc(p.getInstructions()),
-                        unit.doubleValue(),
-                        status
-                );
-            }
+            while (it.hasNext()) writer.print(formatLine(it.next()));
         } catch (IOException e) {
             System.err.println("Error saving queue to " + filePath + ": " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    private void appendToFile(CharSequence lines, String filePath) {
+        try (PrintWriter writer = new PrintWriter(
+                new OutputStreamWriter(new FileOutputStream(filePath, true), StandardCharsets.UTF_8))) {
+            writer.append(lines);
+        } catch (IOException e) {
+            System.err.println("Error appending to " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    private static String formatLine(MedicinePrescription p) {
+        int pid = 0;
+        try { pid = p.getPrescriptionId(); } catch (Throwable ignored) {}
+
+        String status = "READY";
+        try { status = p.getStatus().name(); } catch (Throwable ignored) {}
+
+        return String.format("%d,%s,%s,%d,%s,%s,%d,%s,%s,%s,%s,%s%n",
+                pid,
+                esc(p.getPatientId()),
+                esc(p.getPatientName()),
+                p.getAppointmentId(),
+                esc(p.getMedicineId()),
+                esc(p.getMedicineName()),
+                p.getQuantity(),
+                esc(p.getDosage()),
+                esc(p.getInstructions()),
+                Money.format(p.getUnitPriceCents()),
+                status,
+                TimestampCodec.formatSeconds(p.getPrescribedDateTime())
+        );
+    }
+
+    /** Only the active READY queue is loaded eagerly; DISPENSED history waits for first use. */
     private void loadQueues() {
         readyQueue.clear();
         dispensedList.clear();
+        dispensedLoaded = false;
         loadQueueFromFile(readyQueue, readyFile, MedicinePrescription.PrescriptionStatus.READY);
+        rebuildIndex();
+    }
+
+    private void ensureDispensedLoaded() {
+        if (dispensedLoaded) return;
+        dispensedList.clear();
         loadQueueFromFile(dispensedList, dispensedFile, MedicinePrescription.PrescriptionStatus.DISPENSED);
+        dispensedLoaded = true;
+        indexDispensedHistory();
+    }
+
+    /** DISPENSED lines of one appointment; read from disk (only matching rows parsed) if history is cold. */
+    private ClinicADT<MedicinePrescription> dispensedForAppointment(int appointmentId) {
+        ClinicADT<MedicinePrescription> out = new MyClinicADT<>();
+        if (dispensedLoaded) {
+            ClinicADT.MyIterator<MedicinePrescription> it = dispensedList.iterator();
+            while (it.hasNext()) {
+                MedicinePrescription p = it.next();
+                if (p.getAppointmentId() == appointmentId) out.add(p);
+            }
+            return out;
+        }
+
+        File file = new File(dispensedFile);
+        if (!file.exists()) return out;
+
+        CsvCursor c = new CsvCursor(dispensedFile);
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                c.reset(line);
+                if (c.isBlankOrComment() || appointmentIdOf(c) != appointmentId) continue;
+
+                MedicinePrescription p = parseLine(c, line);
+                if (p == null) continue;
+                try { p.setStatus(MedicinePrescription.PrescriptionStatus.DISPENSED); } catch (Throwable ignored) {}
+                out.add(p);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading " + dispensedFile + ": " + e.getMessage());
+        }
+        return out;
+    }
+
+    /** 4th CSV field (appointmentId) without materializing the row; -1 if absent. */
+    private static int appointmentIdOf(CsvCursor c) {
+        try {
+            c.skip(); c.skip(); c.skip();
+            return c.nextInt();
+        } catch (CsvCursor.MalformedRowException e) {
+            return -1;
+        }
     }
 
     private void loadQueueFromFile(ClinicADT<MedicinePrescription> queue, String filename,
@@ -319,16 +587,16 @@ public class PharmacyQueueControl {
         File file = new File(filename);
         if (!file.exists()) return;
 
+        CsvCursor c = new CsvCursor(filename);
         try (BufferedReader br = new BufferedReader(
                 new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
 
             String line;
             while ((line = br.readLine()) != null) {
-                String trimmed = line.trim();
-                if (trimmed.isEmpty()) continue;
+                c.reset(line);
+                if (c.isBlankOrComment()) continue;
 
-                MedicinePrescription p = tryFromCsvFirst(trimmed);
-                if (p == null) p = manualParseLine(trimmed);
+                MedicinePrescription p = parseLine(c, line);
                 if (p == null) continue;
 
                 // Coerce/verify status
@@ -345,7 +613,18 @@ public class PharmacyQueueControl {
         }
     }
 
-    private MedicinePrescription tryFromCsvFirst(String line) {
+    /** 11-field schema first; fall back to the entity's own toCsv() layout (status in field 10). */
+    private MedicinePrescription parseLine(CsvCursor c, String line) {
+        try {
+            return manualParseLine(c.reset(line, c.getLineNumber()));
+        } catch (CsvCursor.MalformedRowException e) {
+            MedicinePrescription p = tryFromCsv(line.trim());
+            if (p == null) c.report(e);
+            return p;
+        }
+    }
+
+    private MedicinePrescription tryFromCsv(String line) {
         try {
             return MedicinePrescription.fromCsv(line);
         } catch (Throwable t) {
@@ -353,34 +632,37 @@ public class PharmacyQueueControl {
         }
     }
 
-    private MedicinePrescription manualParseLine(String line) {
-        String[] a = line.split(",", -1);
+    private MedicinePrescription manualParseLine(CsvCursor c) {
+        c.requireFields(11);
+        int prescriptionId = c.nextInt();
+        String patientId   = c.nextString();
+        String patientName = c.nextString();
+        int appointmentId  = c.nextInt();
+        String medId       = c.nextString();
+        String medName     = c.nextString();
+        int qty            = c.nextInt();
+        String dosage      = c.nextString();
+        String instr       = c.nextString();
+        long unitCents     = c.nextCents();  // strict money parse
+        String statusStr   = c.nextString();
+        LocalDateTime prescribedAt = null;   // older rows: unknown, so wait metrics skip the line
+        if (c.hasMore()) {
+            try { prescribedAt = c.nextDateTimeOrNull(); } catch (CsvCursor.MalformedRowException ignored) {}
+        }
+
+        MedicinePrescription.PrescriptionStatus status = MedicinePrescription.PrescriptionStatus.READY;
         try {
-            if (a.length >= 11) {
-                int prescriptionId = safeInt(a[0]);
-                String patientId   = a[1].trim();
-                String patientName = a[2].trim();
-                int appointmentId  = safeInt(a[3]);
-                String medId       = a[4].trim();
-                String medName     = a[5].trim();
-                int qty            = safeInt(a[6]);
-                String dosage      = a[7].trim();
-                String instr       = a[8].trim();
-                double unitPrice   = safeMoney(a[9]);  // strict money parse
-                String statusStr   = a[10].trim();
-
-                MedicinePrescription p = new MedicinePrescription(
-                        patientId, patientName, appointmentId,
-                        medId, medName, qty, dosage, instr, unitPrice
-                );
-                try { p.setPrescriptionId(prescriptionId); } catch (Throwable ignored) {}
-                try {
-                    p.setStatus(MedicinePrescription.PrescriptionStatus.valueOf(statusStr));
-                } catch (Throwable ignored) {}
-                return p;
-            }
+            status = MedicinePrescription.PrescriptionStatus.valueOf(statusStr);
         } catch (Throwable ignored) {}
-        return null;
+
+        // loading constructor: keeps the stored ID and does not draw a new one
+        MedicinePrescription p = new MedicinePrescription(
+                prescriptionId, patientId, patientName, appointmentId,
+                medId, medName, qty, dosage, instr, status,
+                prescribedAt, null, 0.0
+        );
+        p.setUnitPriceCents(unitCents);
+        return p;
     }
 
     // ---------- Misc ----------
@@ -392,63 +674,33 @@ public class PharmacyQueueControl {
         return s.substring(0, max - 3) + "...";
     }
 
-    public int getReservedQtyForMedicine(String medId) {
+    /** Units of a medicine held by READY lines (O(1), counters follow the queue). */
+    public synchronized int getReservedQtyForMedicine(String medId) {
         if (medId == null || medId.trim().isEmpty()) return 0;
-        int sum = 0;
-        ClinicADT.MyIterator<MedicinePrescription> it = getReadyQueue().iterator();
-        while (it.hasNext()) {
-            MedicinePrescription p = it.next();
-            if (medId.equalsIgnoreCase(p.getMedicineId())) sum += p.getQuantity();
-        }
-        return sum;
+        int[] n = reservedByMedicine.get(medId.trim().toUpperCase());
+        return (n == null) ? 0 : n[0];
     }
 
-    public void reload() { loadQueues(); }
+    public synchronized void reload() { loadQueues(); }
 
-    public void printQueueStatus() {
+    public synchronized void printQueueStatus() {
         System.out.println("\n=== Queue Status ===");
         System.out.println("Ready queue size: " + readyQueue.size());
+        ensureDispensedLoaded();
         System.out.println("Dispensed list size: " + dispensedList.size());
     }
 
     // ---------- Accessors ----------
     public ClinicADT<MedicinePrescription> getReadyQueue()    { return readyQueue; }
-    public ClinicADT<MedicinePrescription> getDispensedList() { return dispensedList; }
 
-    // ---------- Safe parse / money helpers ----------
-    private static int safeInt(String s) {
-        try { return Integer.parseInt(s.trim()); } catch (Exception e) { return 0; }
+    /** Expected wait of every READY line, in queue order (one lookup per position). */
+    public ClinicADT<WaitTimeEstimator.Eta> readyQueueEtas() {
+        ClinicADT<WaitTimeEstimator.Eta> out = new MyClinicADT<>();
+        WaitTimeEstimator.Line eta = WaitTimeEstimator.shared().line();
+        int n = readyQueue.size();
+        for (int i = 0; i < n; i++) out.add(eta.next(WaitTimeEstimator.PHARMACY));
+        return out;
     }
+    public synchronized ClinicADT<MedicinePrescription> getDispensedList() { ensureDispensedLoaded(); return dispensedList; }
 
-    /** Accepts only digits and one dot; ignores stray chars (e.g., "RM 50.00", "50.00\r"). */
-    private static double safeMoney(String s) {
-        if (s == null) return 0.0;
-        String cleaned = s.trim().replaceAll("[^0-9.]", "");
-        int firstDot = cleaned.indexOf('.');
-        if (firstDot >= 0) {
-            // remove any extra dots after the first
-            cleaned = cleaned.substring(0, firstDot + 1) + cleaned.substring(firstDot + 1).replace(".", "");
-        }
-        try {
-            return new BigDecimal(cleaned.isEmpty() ? "0" : cleaned).setScale(2, RM).doubleValue();
-        } catch (Exception e) {
-            return 0.0;
-        }
-    }
-
-    private static BigDecimal bd(double v) {
-        // Normalize to 2dp to avoid carrying inexact binary tails
-        return BigDecimal.valueOf(v).setScale(2, RM);
-    }
-
-    // ---------- Price helper ----------
-    private static BigDecimal priceForLine(MedicinePrescription p, PharmacyControl pharmacy) {
-        BigDecimal captured = bd(p.getUnitPriceAtPrepare());
-        if (captured.compareTo(BigDecimal.ZERO) > 0) {
-            return captured.multiply(BigDecimal.valueOf(p.getQuantity()));
-        }
-        Medicine m = pharmacy.getMedicineById(p.getMedicineId());
-        BigDecimal current = (m != null) ? bd(m.getPricePerUnit()) : BigDecimal.ZERO;
-        return current.multiply(BigDecimal.valueOf(p.getQuantity()));
-    }
 }
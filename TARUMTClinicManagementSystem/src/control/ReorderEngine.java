@@ -0,0 +1,260 @@
+package control;
+
+import adt.ClinicADT;
+import adt.ClinicMapADT;
+import adt.MyClinicMapADT;
+import utility.CsvCursor;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Per-medicine daily demand forecast (Holt's linear smoothing: level + trend) used to
+ * suggest restocks. Each dispense only adds to the medicine's open day; the smoothing step
+ * runs once per closed day, so an update is O(1) (plus one step per idle day in between).
+ *
+ * The dispense log is read incrementally: the state file remembers how many bytes of the
+ * log it already covers, and startup replays only the lines appended after that.
+ *
+ * State file:
+ *   offset,<bytes of dispense_log.txt already folded in>
+ *   medicineId,openEpochDay,openQty,level,trend,errorVariance,closedDays
+ */
+public class ReorderEngine {
+
+    // Smoothing weights and planning horizon
+    private static final double ALPHA = 0.3;        // level
+    private static final double BETA  = 0.1;        // trend
+    private static final double GAMMA = 0.2;        // forecast-error variance
+    private static final double Z_95  = 1.65;       // ~95% service level
+    private static final int LEAD_TIME_DAYS = 7;    // order to shelf
+    private static final int REVIEW_DAYS    = 14;   // stock to cover beyond lead time
+    private static final int MAX_IDLE_STEPS = 365;  // longer gaps have fully decayed anyway
+
+    /** Smoothing state of one medicine. */
+    private static final class Series {
+        long openDay;       // day still accumulating
+        int openQty;
+        double level;
+        double trend;
+        double errVar;
+        int closedDays;
+    }
+
+    /** Forecast + reorder figures for one medicine. */
+    public static final class Suggestion {
+        private final String medicineId;
+        private final double dailyDemand;
+        private final int available;
+        private final int reorderPoint;
+        private final int orderQty;
+
+        Suggestion(String medicineId, double dailyDemand, int available, int reorderPoint, int orderQty) {
+            this.medicineId = medicineId;
+            this.dailyDemand = dailyDemand;
+            this.available = available;
+            this.reorderPoint = reorderPoint;
+            this.orderQty = orderQty;
+        }
+
+        public String getMedicineId() { return medicineId; }
+        public double getDailyDemand() { return dailyDemand; }
+        public int getAvailable() { return available; }
+        public int getReorderPoint() { return reorderPoint; }
+        public int getOrderQty() { return orderQty; }
+        public boolean needsReorder() { return dailyDemand > 0 && available <= reorderPoint; }
+
+        /** Days until stock runs out at the forecast rate (infinite when there is no demand). */
+        public double getDaysOfCover() {
+            return (dailyDemand <= 0) ? Double.POSITIVE_INFINITY : available / dailyDemand;
+        }
+    }
+
+    private final ClinicMapADT<String, Series> series = new MyClinicMapADT<>();
+    private final String statePath;
+    private final String logPath;
+    private long logOffset;
+
+    public ReorderEngine(String statePath, String logPath) {
+        this.statePath = statePath;
+        this.logPath = logPath;
+        loadState();
+        if (catchUp()) saveState();
+    }
+
+    // ===== Updates =====
+    public synchronized void record(LocalDate day, String medicineId, int qty) {
+        if (day == null || medicineId == null || qty <= 0) return;
+        add(day.toEpochDay(), medicineId.trim().toUpperCase(), qty);
+    }
+
+    public synchronized void recordAll(LocalDate day, String[] medicineIds, int[] qtys) {
+        if (day == null || medicineIds == null) return;
+        for (int i = 0; i < medicineIds.length; i++) {
+            if (medicineIds[i] != null && qtys[i] > 0) add(day.toEpochDay(), medicineIds[i].trim().toUpperCase(), qtys[i]);
+        }
+    }
+
+    // ===== Queries =====
+    /** Forecast daily demand as of {@code today} (days before today are treated as closed). */
+    public synchronized double dailyDemand(String medicineId, LocalDate today) {
+        Series s = (medicineId == null) ? null : series.get(medicineId.trim().toUpperCase());
+        if (s == null) return 0.0;
+        advance(s, today.toEpochDay());
+        return forecast(s);
+    }
+
+    /** Reorder point = demand over the lead time + safety stock; order enough to cover lead + review. */
+    public synchronized Suggestion suggest(String medicineId, int available, LocalDate today) {
+        Series s = (medicineId == null) ? null : series.get(medicineId.trim().toUpperCase());
+        if (s == null) return new Suggestion(medicineId, 0.0, available, 0, 0);
+        advance(s, today.toEpochDay());
+
+        double demand = forecast(s);
+        double safety = Z_95 * Math.sqrt(Math.max(0.0, s.errVar) * LEAD_TIME_DAYS);
+        int reorderPoint = (int) Math.ceil(demand * LEAD_TIME_DAYS + safety);
+        int target = (int) Math.ceil(demand * (LEAD_TIME_DAYS + REVIEW_DAYS) + safety);
+        return new Suggestion(medicineId, demand, available, reorderPoint, Math.max(0, target - available));
+    }
+
+    // ===== Holt smoothing =====
+    private void add(long day, String id, int qty) {
+        Series s = series.get(id);
+        if (s == null) {
+            s = new Series();
+            s.openDay = day;
+            series.put(id, s);
+        }
+        advance(s, day);          // a late (earlier-dated) line just joins the open day
+        s.openQty += qty;
+    }
+
+    /** Close every day before {@code day}; idle days count as zero demand. */
+    private static void advance(Series s, long day) {
+        if (day <= s.openDay) return;
+        long gap = day - s.openDay;
+        step(s, s.openQty);
+        for (long i = 1; i < Math.min(gap, MAX_IDLE_STEPS); i++) step(s, 0);
+        s.openQty = 0;
+        s.openDay = day;
+    }
+
+    private static void step(Series s, double demand) {
+        if (s.closedDays == 0) {
+            s.level = demand;
+            s.trend = 0.0;
+        } else {
+            double predicted = s.level + s.trend;
+            double err = demand - predicted;
+            s.errVar = GAMMA * err * err + (1 - GAMMA) * s.errVar;
+            double prevLevel = s.level;
+            s.level = ALPHA * demand + (1 - ALPHA) * predicted;
+            s.trend = BETA * (s.level - prevLevel) + (1 - BETA) * s.trend;
+        }
+        s.closedDays++;
+    }
+
+    private static double forecast(Series s) {
+        return (s.closedDays == 0) ? 0.0 : Math.max(0.0, s.level + s.trend);
+    }
+
+    // ===== File I/O =====
+    /** Fold in log lines appended since the saved offset. Returns true if anything was read. */
+    private boolean catchUp() {
+        File log = new File(logPath);
+        if (!log.exists()) return false;
+        long length = log.length();
+        if (length < logOffset) {          // log was replaced: start over
+            series.clear();
+            logOffset = 0;
+        }
+        if (length == logOffset) return false;
+
+        byte[] tail;
+        try (RandomAccessFile raf = new RandomAccessFile(log, "r")) {
+            raf.seek(logOffset);
+            tail = new byte[(int) (length - logOffset)];
+            raf.readFully(tail);
+        } catch (IOException e) {
+            return false;
+        }
+
+        // only complete lines; a half-written last line is picked up next time
+        int end = tail.length;
+        while (end > 0 && tail[end - 1] != '\n') end--;
+        if (end == 0) return false;
+
+        CsvCursor c = new CsvCursor(logPath);
+        int start = 0;
+        for (int i = 0; i < end; i++) {
+            if (tail[i] != '\n') continue;
+            int stop = (i > start && tail[i - 1] == '\r') ? i - 1 : i;
+            c.reset(new String(tail, start, stop - start, StandardCharsets.UTF_8));
+            start = i + 1;
+            if (c.isBlankOrComment()) continue;
+            try {
+                // iso-timestamp,id,name,qty,unitPrice,total
+                c.requireFields(6);
+                LocalDate day = c.nextDateTime().toLocalDate();
+                String id = c.nextString();
+                c.skip();
+                int qty = c.nextInt();
+                if (qty > 0) add(day.toEpochDay(), id.toUpperCase(), qty);
+            } catch (CsvCursor.MalformedRowException ignored) {
+                // skip malformed row
+            }
+        }
+        logOffset += end;
+        return true;
+    }
+
+    private void loadState() {
+        File f = new File(statePath);
+        if (!f.exists()) return;
+        CsvCursor c = new CsvCursor(statePath);
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                c.reset(line);
+                if (c.isBlankOrComment()) continue;
+                try {
+                    String id = c.nextString();
+                    if (id.equals("offset")) { logOffset = c.nextLong(); continue; }
+                    Series s = new Series();
+                    s.openDay = c.nextLong();
+                    s.openQty = c.nextInt();
+                    s.level = Double.parseDouble(c.nextString());
+                    s.trend = Double.parseDouble(c.nextString());
+                    s.errVar = Double.parseDouble(c.nextString());
+                    s.closedDays = c.nextInt();
+                    series.put(id, s);
+                } catch (CsvCursor.MalformedRowException | NumberFormatException ignored) {
+                    // skip malformed row
+                }
+            }
+        } catch (IOException ignored) {}
+    }
+
+    private void saveState() {
+        ensureParentDir(statePath);
+        try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(statePath), StandardCharsets.UTF_8))) {
+            pw.println("offset," + logOffset);
+            ClinicADT.MyIterator<String> it = series.keyIterator();
+            while (it.hasNext()) {
+                String id = it.next();
+                Series s = series.get(id);
+                pw.println(id + "," + s.openDay + "," + s.openQty + "," + s.level + "," + s.trend + ","
+                        + s.errVar + "," + s.closedDays);
+            }
+        } catch (IOException ignored) {}
+    }
+
+    private static void ensureParentDir(String path) {
+        try {
+            File f = new File(path);
+            File dir = f.getParentFile();
+            if (dir != null && !dir.exists()) dir.mkdirs();
+        } catch (Exception ignored) {}
+    }
+}
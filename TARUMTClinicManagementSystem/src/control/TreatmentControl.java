@@ -1,18 +1,29 @@
 package control;
 
 import adt.ClinicADT;
+import adt.ClinicMapADT;
 import adt.MyClinicADT;
+import adt.MyClinicMapADT;
 import entity.Appointment;
 import entity.MedicalTreatment;
+import utility.CsvCursor;
+import utility.TimestampCodec;
 
 import java.io.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 public class TreatmentControl {
     private final ClinicADT<MedicalTreatment> allTreatments;
     private final String treatmentFilePath = "src/textFile/treatments.txt";
 
+    // ===== Hot/cold split =====
+    // Hot  = not completed, or dated within the last HOT_DAYS (kept as objects in allTreatments).
+    // Cold = older completed history, kept as raw file lines until a report asks for it.
+    private static final int HOT_DAYS = 7;
+    private final ClinicADT<String> coldLines = new MyClinicADT<>();
+    private boolean historyLoaded = false;
+
     // ===== Waiting Queue (FIFO) =====
     public static class WaitCase {
         public int appointmentId;
@@ -24,7 +35,7 @@ public class TreatmentControl {
         public String toString() {
             return String.format("#%d %s(%s) with Dr.%s[%s] @ %s",
                     appointmentId, patientName, patientId, doctorName, doctorId,
-                    scheduledTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+                    TimestampCodec.formatMinute(scheduledTime));
         }
     }
 
@@ -78,7 +89,6 @@ public class TreatmentControl {
         }
         String line = "+----+------------+----------------------+------------+----------------------+---------------------+";
         String fmt  = "| %-2s | %-10s | %-20s | %-10s | %-20s | %-19s |%n";
-        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
         System.out.println("\n=== Treatment Waiting Queue ===");
         System.out.println(line);
@@ -91,7 +101,7 @@ public class TreatmentControl {
             WaitCase w = it.next();
             System.out.printf(fmt, i++, w.patientId,
                     cut(w.patientName, 20), w.doctorId, cut(w.doctorName, 20),
-                    w.scheduledTime.format(dtf));
+                    TimestampCodec.formatMinute(w.scheduledTime));
         }
         System.out.println(line);
     }
@@ -131,6 +141,7 @@ public class TreatmentControl {
             System.out.println("Dequeued appointment not in TREATMENT status; skipping.");
             return false;
         }
+        apptCtrl.treatmentStarted(apptId);
 
         MedicalTreatment t = new MedicalTreatment(
                 a.getPatientId(), a.getPatientName(),
@@ -143,14 +154,14 @@ public class TreatmentControl {
         saveAllToFile();
 
         // Move forward to PENDING_PAYMENT
-        a.setStatus(Appointment.AppointmentStatus.PENDING_PAYMENT);
-        apptCtrl.persistForExternalMutation(); // small saver (see note below)
+        a.setStatus(Appointment.AppointmentStatus.PENDING_PAYMENT); // persisted via the event bus
         System.out.println(">> Treatment completed for " + a.getPatientName() + " (Appt #" + a.getAppointmentId() + ").");
         return true;
     }
 
     // For reports / lists
     public ClinicADT<MedicalTreatment> getTreatmentsByPatient(String patientId, boolean includeFuture) {
+        ensureHistoryLoaded();
         ClinicADT<MedicalTreatment> result = new MyClinicADT<>();
         LocalDateTime now = LocalDateTime.now();
         ClinicADT.MyIterator<MedicalTreatment> it = allTreatments.iterator();
@@ -165,10 +176,39 @@ public class TreatmentControl {
 
     public ClinicADT<MedicalTreatment> getAll() { return allTreatments; }
 
+    /** Parse cold history into the shared list (once). Call before whole-history reports/searches. */
+    public void ensureHistoryLoaded() {
+        if (historyLoaded) return;
+        ClinicMapADT<Integer, Boolean> inMemory = idSet();
+        CsvCursor c = new CsvCursor(treatmentFilePath);
+        ClinicADT.MyIterator<String> it = coldLines.iterator();
+        while (it.hasNext()) {
+            try {
+                MedicalTreatment t = parseLine(c.reset(it.next()));
+                // another TreatmentControl sharing the list may already have materialized it
+                if (!inMemory.containsKey(t.getTreatmentId())) allTreatments.add(t);
+            } catch (CsvCursor.MalformedRowException e) {
+                c.report(e);
+            }
+        }
+        coldLines.clear();
+        historyLoaded = true;
+    }
+
+    public boolean isHistoryLoaded() { return historyLoaded; }
+
     // ===== Persistence: Treatments =====
     private void saveAllToFile() {
         try (FileWriter fw = new FileWriter(treatmentFilePath)) {
-            DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+            // untouched cold rows first (they are the oldest), verbatim
+            if (!coldLines.isEmpty()) {
+                ClinicMapADT<Integer, Boolean> inMemory = idSet();
+                ClinicADT.MyIterator<String> cit = coldLines.iterator();
+                while (cit.hasNext()) {
+                    String line = cit.next();
+                    if (!inMemory.containsKey(idOf(line))) fw.write(line + System.lineSeparator());
+                }
+            }
             ClinicADT.MyIterator<MedicalTreatment> it = allTreatments.iterator();
             while (it.hasNext()) {
                 MedicalTreatment t = it.next();
@@ -179,7 +219,7 @@ public class TreatmentControl {
                         t.getDoctorId(),
                         safe(t.getDiagnosis(), "N/A"),
                         safe(t.getPrescription(), "N/A"),
-                        t.getTreatmentDateTime().format(fmt),
+                        TimestampCodec.formatMinute(t.getTreatmentDateTime()),
                         t.isCompleted()));
             }
         } catch (IOException e) {
@@ -189,36 +229,74 @@ public class TreatmentControl {
 
     public void loadTreatmentsFromFile() {
         allTreatments.clear();
+        coldLines.clear();
+        historyLoaded = false;
         File f = new File(treatmentFilePath);
-        if (!f.exists()) return;
+        if (!f.exists()) {
+            historyLoaded = true;
+            return;
+        }
 
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        LocalDate hotFrom = LocalDate.now().minusDays(HOT_DAYS);
+        CsvCursor c = new CsvCursor(treatmentFilePath);
         try (BufferedReader br = new BufferedReader(new FileReader(f))) {
             String line;
             while ((line = br.readLine()) != null) {
-                String[] p = line.split(",", -1);
-                if (p.length < 8) continue;
+                c.reset(line);
+                if (c.isBlankOrComment()) continue;
                 try {
-                    int id = Integer.parseInt(p[0].trim());
-                    String pid = p[1].trim();
-                    String pname = p[2].trim();
-                    String did = p[3].trim();
-                    String diag = p[4].trim();
-                    String prescr = p[5].trim();
-                    LocalDateTime dt = LocalDateTime.parse(p[6].trim(), fmt);
-                    boolean done = Boolean.parseBoolean(p[7].trim());
-                    allTreatments.add(new MedicalTreatment(id, pid, pname, did, diag, prescr, dt, done));
-                } catch (Exception ignore) {}
+                    // cheap pass over id/date/flag before building strings and objects
+                    c.requireFields(8);
+                    int id = c.nextInt();
+                    for (int i = 0; i < 5; i++) c.skip();
+                    LocalDateTime dt = c.nextDateTime();
+                    boolean done = c.nextBoolean();
+                    if (done && dt.toLocalDate().isBefore(hotFrom)) {
+                        coldLines.add(line);
+                        MedicalTreatment.reserveId(id);
+                        continue;
+                    }
+                    allTreatments.add(parseLine(c.reset(line, c.getLineNumber())));
+                } catch (CsvCursor.MalformedRowException e) {
+                    c.report(e);
+                }
             }
         } catch (IOException e) {
             System.err.println("Error loading treatments: " + e.getMessage());
         }
+        if (coldLines.isEmpty()) historyLoaded = true;
+    }
+
+    /** id,patientId,patientName,doctorId,diagnosis,prescription,yyyy-MM-dd HH:mm,completed */
+    private static MedicalTreatment parseLine(CsvCursor c) {
+        c.requireFields(8);
+        int id = c.nextInt();
+        String pid = c.nextString();
+        String pname = c.nextString();
+        String did = c.nextString();
+        String diag = c.nextString();
+        String prescr = c.nextString();
+        LocalDateTime dt = c.nextDateTime();
+        boolean done = c.nextBoolean();
+        return new MedicalTreatment(id, pid, pname, did, diag, prescr, dt, done);
+    }
+
+    private ClinicMapADT<Integer, Boolean> idSet() {
+        ClinicMapADT<Integer, Boolean> ids = new MyClinicMapADT<>(allTreatments.size());
+        ClinicADT.MyIterator<MedicalTreatment> it = allTreatments.iterator();
+        while (it.hasNext()) ids.put(it.next().getTreatmentId(), Boolean.TRUE);
+        return ids;
+    }
+
+    private static int idOf(String line) {
+        int comma = line.indexOf(',');
+        try { return Integer.parseInt((comma < 0 ? line : line.substring(0, comma)).trim()); }
+        catch (Exception e) { return -1; }
     }
 
     // ===== Persistence: Queue =====
     private void saveQueue() {
         try (BufferedWriter bw = new BufferedWriter(new FileWriter(queueFilePath))) {
-            DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
             ClinicADT.MyIterator<WaitCase> it = waiting.iterator();
             while (it.hasNext()) {
                 WaitCase w = it.next();
@@ -228,7 +306,7 @@ public class TreatmentControl {
                         safeCsv(w.patientName),
                         w.doctorId,
                         safeCsv(w.doctorName),
-                        w.scheduledTime.format(fmt)));
+                        TimestampCodec.formatMinute(w.scheduledTime)));
                 bw.newLine();
             }
         } catch (IOException e) {
@@ -241,22 +319,25 @@ public class TreatmentControl {
         File f = new File(queueFilePath);
         if (!f.exists()) return;
 
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        CsvCursor c = new CsvCursor(queueFilePath);
         try (BufferedReader br = new BufferedReader(new FileReader(f))) {
             String line;
             while ((line = br.readLine()) != null) {
-                String[] p = line.split(",", -1);
-                if (p.length < 6) continue;
+                c.reset(line);
+                if (c.isBlankOrComment()) continue;
                 try {
+                    c.requireFields(6);
                     WaitCase w = new WaitCase();
-                    w.appointmentId = Integer.parseInt(p[0].trim());
-                    w.patientId = p[1].trim();
-                    w.patientName = p[2].trim();
-                    w.doctorId = p[3].trim();
-                    w.doctorName = p[4].trim();
-                    w.scheduledTime = LocalDateTime.parse(p[5].trim(), fmt);
+                    w.appointmentId = c.nextInt();
+                    w.patientId = c.nextString();
+                    w.patientName = c.nextString();
+                    w.doctorId = c.nextString();
+                    w.doctorName = c.nextString();
+                    w.scheduledTime = c.nextDateTime();
                     waiting.add(w);
-                } catch (Exception ignore) {}
+                } catch (CsvCursor.MalformedRowException e) {
+                    c.report(e);
+                }
             }
         } catch (IOException e) {
             System.err.println("Error loading treatment queue: " + e.getMessage());
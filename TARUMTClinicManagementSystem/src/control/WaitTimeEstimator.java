@@ -0,0 +1,193 @@
+package control;
+
+import adt.ClinicADT;
+import adt.ClinicMapADT;
+import adt.MyClinicMapADT;
+import entity.Appointment;
+import entity.MedicinePrescription;
+import utility.RunningStats;
+
+import java.time.ZoneId;
+
+/**
+ * Expected waiting time for the clinic queues, from recent service times.
+ *
+ * Each server (a doctor, the treatment room, the pharmacy counter) keeps a streaming
+ * mean/variance of its service time, updated in O(1) from the ClinicEventBus:
+ *   doctor      CONSULTING -> TREATMENT / PENDING_PAYMENT   (consultation length)
+ *   treatment   TreatmentStarted -> PENDING_PAYMENT          (treatment session length)
+ *   pharmacy    gap between two dispensed lines, only when the next line was already
+ *               waiting (no idle time)
+ * A queue is priced by walking it once with a {@link Line}: every position costs one
+ * lookup, so a screen can refresh its ETAs without touching any history.
+ * Servers with no samples yet use the booking defaults. The shared estimator is fed only
+ * after ClinicBootstrap calls {@link #startEventSubscriber()}.
+ */
+public final class WaitTimeEstimator {
+
+    /** Expected wait and one standard deviation of it, in seconds. */
+    public static final class Eta {
+        private final long seconds;
+        private final long spreadSeconds;
+
+        Eta(double seconds, double variance) {
+            this.seconds = Math.round(Math.max(0.0, seconds));
+            this.spreadSeconds = Math.round(Math.sqrt(Math.max(0.0, variance)));
+        }
+
+        public long getSeconds() { return seconds; }
+        public long getSpreadSeconds() { return spreadSeconds; }
+
+        @Override
+        public String toString() {
+            long m = (seconds + 59) / 60;
+            String s = (m < 60) ? m + "m" : String.format("%dh%02dm", m / 60, m % 60);
+            return (spreadSeconds < 60) ? "~" + s : "~" + s + " ±" + ((spreadSeconds + 59) / 60) + "m";
+        }
+    }
+
+    /** Running total along one queue: each call prices the next position. */
+    public final class Line {
+        private double wait;
+        private double variance;
+
+        private Line() {}
+
+        /** Adds what is left of the service currently running on {@code server}, if any. */
+        public Line inService(String server) {
+            synchronized (WaitTimeEstimator.this) {
+                Server s = servers.get(server);
+                if (s != null && s.busySince > 0) {
+                    double elapsed = (System.currentTimeMillis() - s.busySince) / 1000.0;
+                    wait += Math.max(0.0, s.mean() - elapsed);
+                    variance += s.variance();
+                }
+            }
+            return this;
+        }
+
+        /** Wait of the next item in line; that item is then counted ahead of the following ones. */
+        public Eta next(String server) {
+            Eta eta = new Eta(wait, variance);
+            synchronized (WaitTimeEstimator.this) {
+                Server s = servers.get(server);
+                wait += (s == null) ? fallbackSeconds(server) : s.mean();
+                variance += (s == null) ? 0.0 : s.variance();
+            }
+            return eta;
+        }
+    }
+
+    public static final String TREATMENT = "TREATMENT";
+    public static final String PHARMACY  = "PHARMACY";
+    private static final String DOCTOR_PREFIX = "DR|";
+
+    public static String doctor(String doctorId) {
+        return DOCTOR_PREFIX + ((doctorId == null) ? "" : doctorId.trim().toUpperCase());
+    }
+
+    private static final int WINDOW = 50;                       // samples before old ones fade
+    private static final long DEFAULT_CONSULTATION_S = 60 * 60; // one booking slot
+    private static final long DEFAULT_TREATMENT_S    = 30 * 60;
+    private static final long DEFAULT_PHARMACY_S     = 5 * 60;
+
+    private static final WaitTimeEstimator SHARED = new WaitTimeEstimator();
+
+    /** The estimator fed by the shared event bus. */
+    public static WaitTimeEstimator shared() { return SHARED; }
+
+    private boolean subscribed;
+
+    /** Subscribes to the shared event bus; called once by ClinicBootstrap (later calls do nothing). */
+    public synchronized void startEventSubscriber() {
+        if (subscribed) return;
+        subscribed = true;
+        ClinicEventBus.shared().subscribe("wait-time-estimator", this::onEvents);
+    }
+
+    private static final class Server {
+        final RunningStats service = new RunningStats(WINDOW);
+        final long fallbackSeconds;
+        long busySince;   // doctors/treatment: start of the session in progress (0 = idle)
+        int busyWith;     // treatment: appointment of that session
+        long lastDone;    // pharmacy: when the previous line was served
+
+        Server(long fallbackSeconds) { this.fallbackSeconds = fallbackSeconds; }
+
+        double mean()     { return (service.count() == 0) ? fallbackSeconds : service.mean(); }
+        double variance() { return (service.count() == 0) ? 0.0 : service.variance(); }
+    }
+
+    private final ClinicMapADT<String, Server> servers = new MyClinicMapADT<>(64);
+
+    private WaitTimeEstimator() {}
+
+    public Line line() { return new Line(); }
+
+    /** Current service-time mean for a server (seconds); the default if it has no samples. */
+    public synchronized long meanServiceSeconds(String server) {
+        Server s = servers.get(server);
+        return Math.round((s == null) ? fallbackSeconds(server) : s.mean());
+    }
+
+    // ===== Event feed (bus subscriber) =====
+    synchronized void onEvents(ClinicADT<ClinicEvent> batch) {
+        ClinicADT.MyIterator<ClinicEvent> it = batch.iterator();
+        while (it.hasNext()) {
+            ClinicEvent e = it.next();
+            if (e instanceof ClinicEvent.AppointmentStatusChanged s) {
+                onAppointment(s);
+            } else if (e instanceof ClinicEvent.TreatmentStarted t) {
+                Server s = server(TREATMENT);
+                s.busySince = t.getAtMillis();
+                s.busyWith = t.getAppointment().getAppointmentId();
+            } else if (e instanceof ClinicEvent.PrescriptionDispensed d) {
+                MedicinePrescription p = d.getPrescription();
+                long queuedAt = (p.getPrescribedDateTime() == null) ? 0L
+                        : p.getPrescribedDateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                served(server(PHARMACY), queuedAt, d.getAtMillis());
+            }
+        }
+    }
+
+    // ===== Internals (lock held) =====
+    private void onAppointment(ClinicEvent.AppointmentStatusChanged e) {
+        Appointment.AppointmentStatus from = e.getFrom(), to = e.getTo();
+        if (to == Appointment.AppointmentStatus.CONSULTING) {
+            server(doctor(e.getAppointment().getDoctorId())).busySince = e.getAtMillis();
+        } else if (from == Appointment.AppointmentStatus.CONSULTING) {
+            Server s = server(doctor(e.getAppointment().getDoctorId()));
+            s.busySince = 0;
+            if (e.getSinceMillis() > 0 && (to == Appointment.AppointmentStatus.TREATMENT
+                                        || to == Appointment.AppointmentStatus.PENDING_PAYMENT)) {
+                s.service.add((e.getAtMillis() - e.getSinceMillis()) / 1000.0);
+            }
+        } else if (from == Appointment.AppointmentStatus.TREATMENT && to == Appointment.AppointmentStatus.PENDING_PAYMENT) {
+            Server s = server(TREATMENT);
+            if (s.busySince > 0 && s.busyWith == e.getAppointment().getAppointmentId()) {
+                s.service.add((e.getAtMillis() - s.busySince) / 1000.0);
+            }
+            s.busySince = 0;   // the room is free once any case leaves it
+        }
+    }
+
+    /** The counter served a line; the gap counts only if it was queued before the previous one left. */
+    private static void served(Server s, long queuedAt, long doneAt) {
+        if (s.lastDone > 0 && queuedAt > 0 && queuedAt <= s.lastDone && doneAt >= s.lastDone) {
+            s.service.add((doneAt - s.lastDone) / 1000.0);
+        }
+        s.lastDone = Math.max(s.lastDone, doneAt);
+    }
+
+    private Server server(String key) {
+        Server s = servers.get(key);
+        if (s == null) servers.put(key, s = new Server(fallbackSeconds(key)));
+        return s;
+    }
+
+    private static long fallbackSeconds(String server) {
+        if (TREATMENT.equals(server)) return DEFAULT_TREATMENT_S;
+        if (PHARMACY.equals(server)) return DEFAULT_PHARMACY_S;
+        return DEFAULT_CONSULTATION_S;
+    }
+}
@@ -1,14 +1,14 @@
 package entity;
 
+import adt.ClinicStatusIndexADT;
 import java.time.LocalDateTime;
-import java.util.concurrent.atomic.AtomicInteger;
+import utility.IdService;
 
 public class Appointment {
 
     public enum AppointmentType { ONLINE, WALK_IN }
     public enum AppointmentStatus { BOOKED, CHECKED_IN, CONSULTING, TREATMENT, PENDING_PAYMENT, COMPLETED }
 
-    private static final AtomicInteger SEQ = new AtomicInteger(1000);
     private final int appointmentId;
     private final String patientId;
     private final String patientName;
@@ -23,12 +23,28 @@ public class Appointment {
     private boolean treatmentNeeded;
     private boolean medicineNeeded;
     private boolean treatmentDone;
+    // epoch ms each status was entered while live (0 = not seen, e.g. loaded from file)
+    private final long[] stageAt = new long[AppointmentStatus.values().length];
+
+    // status index of the owning control (null for search keys / detached records)
+    private ClinicStatusIndexADT<AppointmentStatus, Appointment> statusIndex;
 
     public Appointment(String patientId, String patientName,
                        String doctorId, String doctorName,
                        LocalDateTime scheduledDateTime,
                        AppointmentType type) {
-        this.appointmentId = SEQ.getAndIncrement();
+        this(IdService.next(IdService.Sequence.APPOINTMENT), patientId, patientName,
+             doctorId, doctorName, scheduledDateTime, type);
+        stageAt[status.ordinal()] = System.currentTimeMillis();
+    }
+
+    // Constructor for loading from file (keeps the stored ID)
+    public Appointment(int appointmentId, String patientId, String patientName,
+                       String doctorId, String doctorName,
+                       LocalDateTime scheduledDateTime,
+                       AppointmentType type) {
+        this.appointmentId = appointmentId;
+        IdService.observe(IdService.Sequence.APPOINTMENT, appointmentId);
         this.patientId = patientId;
         this.patientName = patientName;
         this.doctorId = doctorId;
@@ -46,7 +62,7 @@ public class Appointment {
     // Check-In, status change from 'BOOKED' to 'CHECKED_IN'
     public boolean checkIn() {
         if (status == AppointmentStatus.BOOKED) {
-            status = AppointmentStatus.CHECKED_IN;
+            moveTo(AppointmentStatus.CHECKED_IN);
             checkInTime = LocalDateTime.now();
             return true;
         }
@@ -56,7 +72,7 @@ public class Appointment {
     // Call from queue, status change from 'CHECKED-IN' to 'CONSULTING'
     public boolean startConsultation() {
         if (status == AppointmentStatus.CHECKED_IN) {
-            status = AppointmentStatus.CONSULTING;
+            moveTo(AppointmentStatus.CONSULTING);
             return true;
         }
         return false;
@@ -72,7 +88,7 @@ public class Appointment {
             this.diagnosis = diagnosis;
             this.treatmentNeeded = treatmentNeeded;
             this.medicineNeeded = medicineNeeded;
-            status = treatmentNeeded ? AppointmentStatus.TREATMENT : AppointmentStatus.PENDING_PAYMENT;
+            moveTo(treatmentNeeded ? AppointmentStatus.TREATMENT : AppointmentStatus.PENDING_PAYMENT);
             return true;
         }
         return false;
@@ -82,13 +98,35 @@ public class Appointment {
     public void completeTreatment() {
         if (status == AppointmentStatus.TREATMENT) {
             this.treatmentDone = true;
-            status = AppointmentStatus.PENDING_PAYMENT;
+            moveTo(AppointmentStatus.PENDING_PAYMENT);
         }
     }
     
     // Complete Payment, status change to 'COMPLETED'
     public void completePayment() {
-        status = AppointmentStatus.COMPLETED;
+        moveTo(AppointmentStatus.COMPLETED);
+    }
+
+    // --- Status index ---
+    /** Registers this appointment in a control's index; every later transition keeps its bucket current. */
+    public boolean attachStatusIndex(ClinicStatusIndexADT<AppointmentStatus, Appointment> index) {
+        detachStatusIndex();
+        if (index == null || !index.add(appointmentId, this, status)) return false;
+        statusIndex = index;
+        return true;
+    }
+
+    public void detachStatusIndex() {
+        if (statusIndex != null) statusIndex.remove(appointmentId, this, status);
+        statusIndex = null;
+    }
+
+    private void moveTo(AppointmentStatus next) {
+        if (statusIndex != null) {
+            if (next != status) stageAt[next.ordinal()] = System.currentTimeMillis();
+            statusIndex.move(appointmentId, this, status, next);
+        }
+        status = next;
     }
 
     // --- Getters / Setters ---
@@ -101,8 +139,10 @@ public class Appointment {
     public AppointmentType getType() { return type; }
     public AppointmentStatus getStatus() { return status; }
     public LocalDateTime getCheckInTime() { return checkInTime; }
+    /** When this appointment last entered {@code s} (epoch ms), or 0 if not seen in this run. */
+    public long getStageMillis(AppointmentStatus s) { return stageAt[s.ordinal()]; }
 
-    public void setStatus(AppointmentStatus status) { this.status = status; }
+    public void setStatus(AppointmentStatus status) { moveTo(status); }
     public void setScheduledDateTime(LocalDateTime t) { this.scheduledDateTime = t; }
 
     public String getSymptoms() { return symptoms; }
@@ -1,11 +1,12 @@
 package entity;
 
+import adt.ClinicStatusIndexADT;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
+import utility.IdService;
 
 public class Consultation implements Comparable<Consultation> {
-    private static int counter = 1;
     private final int consultationId;
     private String patientId;
     private String patientName;
@@ -21,10 +22,13 @@ public class Consultation implements Comparable<Consultation> {
     private String prescriptionNotes;
     private Integer linkedTreatmentId;
 
+    // status index of the owning control (null for detached records)
+    private ClinicStatusIndexADT<Status, Consultation> statusIndex;
+
     // Constructor for new consultations (auto-ID)
     public Consultation(String patientId, String patientName, String doctorName, String doctorId,
                         LocalDateTime consultationDate, String diagnosis) {
-        this.consultationId = counter++;
+        this.consultationId = IdService.next(IdService.Sequence.CONSULTATION);
         this.patientId = patientId;
         this.patientName = patientName;
         this.doctorName = doctorName;
@@ -44,7 +48,7 @@ public class Consultation implements Comparable<Consultation> {
         this.consultationDate = consultationDate;
         this.diagnosis = diagnosis;
 
-        if (consultationId >= counter) counter = consultationId + 1;
+        IdService.observe(IdService.Sequence.CONSULTATION, consultationId);
     }
 
     // Getters
@@ -66,10 +70,27 @@ public class Consultation implements Comparable<Consultation> {
     public void setDoctorId(String doctorId) { this.doctorId = doctorId; }
     public void setConsultationDate(LocalDateTime date) { this.consultationDate = date; }
     public void setDiagnosis(String diagnosis){ this.diagnosis = diagnosis; }
-    public void setStatus(Status status) { this.status = status; }
+    public void setStatus(Status status) {
+        if (statusIndex != null) statusIndex.move(consultationId, this, this.status, status);
+        this.status = status;
+    }
     public void setPrescriptionNotes(String notes) { this.prescriptionNotes = notes; }
     public void setLinkedTreatmentId(Integer id) { this.linkedTreatmentId = id; }
 
+    // Status index
+    /** Registers this consultation in a control's index; setStatus keeps its bucket current. */
+    public boolean attachStatusIndex(ClinicStatusIndexADT<Status, Consultation> index) {
+        detachStatusIndex();
+        if (index == null || !index.add(consultationId, this, status)) return false;
+        statusIndex = index;
+        return true;
+    }
+
+    public void detachStatusIndex() {
+        if (statusIndex != null) statusIndex.remove(consultationId, this, status);
+        statusIndex = null;
+    }
+
     // Sorting by date
     @Override public int compareTo(Consultation other) {
         return this.consultationDate.compareTo(other.consultationDate);
@@ -99,6 +120,6 @@ public class Consultation implements Comparable<Consultation> {
     @Override public int hashCode() { return Objects.hash(consultationId); }
 
     public static void setCounter(int nextId) {
-        if (nextId > counter) counter = nextId;
+        IdService.observe(IdService.Sequence.CONSULTATION, nextId - 1L);
     }
 }
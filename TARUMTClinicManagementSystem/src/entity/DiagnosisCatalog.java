@@ -1,10 +1,15 @@
 package entity;
 
+import adt.ClinicMapADT;
+import adt.MyClinicMapADT;
 import control.PharmacyControl;
 import entity.Medicine;
 
 /**
  * Diagnosis → Medicine suggestion helper.
+ * Plans are compiled once into a hash table keyed by every normalized alias; a plan's
+ * preferred medicine is cached until PharmacyControl reports a stock change, and re-checked
+ * against available (unexpired, unreserved) stock on every hit.
  */
 public final class DiagnosisCatalog {
 
@@ -31,96 +36,136 @@ public final class DiagnosisCatalog {
 
     /** Internal plan: list of preferred med IDs + default dosage/instructions for the diagnosis. */
     private static final class Plan {
+        final int slot;         // index into the suggestion cache
         final String[] ids;
         final String dosage;
         final String instr;
 
-        Plan(String[] ids, String dosage, String instr) {
+        Plan(int slot, String[] ids, String dosage, String instr) {
+            this.slot = slot;
             this.ids = ids;
             this.dosage = dosage;
             this.instr = instr;
         }
     }
 
-    /**
-     * Main API. Provide a diagnosis (free-text OK) and PharmacyControl.
-     * Returns a Suggestion or null if we can't find a suitable medicine.
-     */
-    public static Suggestion suggest(String diagnosis, PharmacyControl pharmacy) {
-        if (diagnosis == null || diagnosis.isBlank() || pharmacy == null) return null;
+    // ===== Precompiled plans (normalized alias -> plan) =====
+    private static final ClinicMapADT<String, Plan> PLANS = new MyClinicMapADT<>(64);
+    private static int planCount = 0;
 
-        String key = normalize(diagnosis);
-        Plan plan = switch (key) {
-            // Common cold / flu -> Panadol (symptomatic)
-            case "commoncold", "cold", "uri", "upperrespiratoryinfection", "influenza", "flu", "d001", "d002" ->
-                new Plan(ids("M3", "M8"), "1 tablet, 3x/day", "After meal, 3-5 days; rest & fluids");
+    static {
+        // Common cold / flu -> Panadol (symptomatic)
+        plan(aliases("commoncold", "cold", "uri", "upperrespiratoryinfection", "influenza", "flu", "d001", "d002"),
+                ids("M3", "M8"), "1 tablet, 3x/day", "After meal, 3-5 days; rest & fluids");
 
-            // Hypertension -> Amlodipine
-            case "hypertension", "highbp", "highbloodpressure", "d003" ->
-                new Plan(ids("M10"), "1 tablet/day", "Take at the same time daily");
+        // Hypertension -> Amlodipine
+        plan(aliases("hypertension", "highbp", "highbloodpressure", "d003"),
+                ids("M10"), "1 tablet/day", "Take at the same time daily");
 
-            // Diabetes mellitus -> Metformin
-            case "diabetesmellitus", "diabetes", "d004" ->
-                new Plan(ids("M9"), "1 tablet, 2x/day", "After meal; monitor glucose");
+        // Diabetes mellitus -> Metformin
+        plan(aliases("diabetesmellitus", "diabetes", "d004"),
+                ids("M9"), "1 tablet, 2x/day", "After meal; monitor glucose");
 
-            // Allergic rhinitis / allergies -> Loratadine
-            case "allergicrhinitis", "allergyrhinitis", "allergies", "d005" ->
-                new Plan(ids("M5"), "1 tablet/day", "May cause drowsiness in some");
+        // Allergic rhinitis / allergies -> Loratadine
+        plan(aliases("allergicrhinitis", "allergyrhinitis", "allergies", "d005"),
+                ids("M5"), "1 tablet/day", "May cause drowsiness in some");
 
-            // Asthma -> Salbutamol Inhaler primary, Montelukast fallback
-            case "asthma", "d006" ->
-                new Plan(ids("M6", "M17"), "2 puffs PRN", "Use as needed for wheeze/shortness of breath");
+        // Asthma -> Salbutamol Inhaler primary, Montelukast fallback
+        plan(aliases("asthma", "d006"),
+                ids("M6", "M17"), "2 puffs PRN", "Use as needed for wheeze/shortness of breath");
 
-            // Gastroenteritis -> ORS solution
-            case "gastroenteritis", "stomachflu", "d007" ->
-                new Plan(ids("M7"), "1 sachet/episode", "Dissolve in water; maintain hydration");
+        // Gastroenteritis -> ORS solution
+        plan(aliases("gastroenteritis", "stomachflu", "d007"),
+                ids("M7"), "1 sachet/episode", "Dissolve in water; maintain hydration");
 
-            // Migraine / headache -> Ibuprofen (or Panadol fallback)
-            case "migraine", "d008" ->
-                new Plan(ids("M8", "M3"), "1 tablet/6-8h PRN", "After meal; max daily dose per label");
+        // Migraine / headache -> Ibuprofen (or Panadol fallback)
+        plan(aliases("migraine", "d008"),
+                ids("M8", "M3"), "1 tablet/6-8h PRN", "After meal; max daily dose per label");
 
-            // Skin infection / inflammation -> Hydrocortisone cream
-            case "skininfection", "skin", "dermatitis", "d009" ->
-                new Plan(ids("M13"), "Apply thin layer, 2x/day", "Do not use on broken skin > 7 days");
+        // Skin infection / inflammation -> Hydrocortisone cream
+        plan(aliases("skininfection", "skin", "dermatitis", "d009"),
+                ids("M13"), "Apply thin layer, 2x/day", "Do not use on broken skin > 7 days");
 
-            // COVID-19 suspected -> symptomatic relief Panadol
-            case "covid19suspected", "covid", "covid19", "d010" ->
-                new Plan(ids("M3"), "1 tablet, 3x/day", "Symptomatic relief; isolate & test");
+        // COVID-19 suspected -> symptomatic relief Panadol
+        plan(aliases("covid19suspected", "covid", "covid19", "d010"),
+                ids("M3"), "1 tablet, 3x/day", "Symptomatic relief; isolate & test");
+    }
 
-            default -> null;
-        };
+    // ===== Suggestion cache (one slot per plan) =====
+    private static final Suggestion[] cache = new Suggestion[planCount];
+    private static PharmacyControl cachedFor;
+    private static long cachedVersion = -1;
 
+    /**
+     * Main API. Provide a diagnosis (free-text OK) and PharmacyControl.
+     * Returns a Suggestion or null if we can't find a suitable medicine.
+     */
+    public static Suggestion suggest(String diagnosis, PharmacyControl pharmacy) {
+        if (diagnosis == null || diagnosis.isBlank() || pharmacy == null) return null;
+        Plan plan = PLANS.get(normalize(diagnosis));
         if (plan == null) return null;
+        synchronized (DiagnosisCatalog.class) {
+            validate(pharmacy);
+            return resolve(plan, pharmacy);
+        }
+    }
 
-        // pick first available med in stock
-        String chosenId = firstAvailable(pharmacy, plan.ids);
-        if (chosenId == null) return null;
-
-        Medicine med = pharmacy.getMedicineById(chosenId);
-        if (med == null) return null;
+    // ---- helpers ----
 
-        return new Suggestion(chosenId, med.getName(), plan.dosage, plan.instr);
+    /** Drop every cached choice if this is another pharmacy or its stock changed. Caller holds the class lock. */
+    private static void validate(PharmacyControl pharmacy) {
+        long version = pharmacy.getStockVersion();
+        if (pharmacy != cachedFor || version != cachedVersion) {
+            for (int i = 0; i < cache.length; i++) cache[i] = null;
+            cachedFor = pharmacy;
+            cachedVersion = version;
+        }
     }
 
-    // ---- helpers ----
+    /**
+     * Pick for a plan. Reservations and expiry change availability without bumping the stock
+     * version, so a cached pick is re-checked on every hit, and only the plan's preferred
+     * medicine is cached (a fallback or "none" could be outdated by a preferred one freeing up).
+     * Caller holds the class lock.
+     */
+    private static Suggestion resolve(Plan plan, PharmacyControl pharmacy) {
+        Suggestion hit = cache[plan.slot];
+        if (hit != null && pharmacy.getAvailableQty(hit.medId) > 0) return hit;
+        cache[plan.slot] = null;
+        Medicine med = firstAvailable(pharmacy, plan.ids);
+        if (med == null) return null;
+        Suggestion s = new Suggestion(med.getId(), med.getName(), plan.dosage, plan.instr);
+        if (med.getId().equals(plan.ids[0])) cache[plan.slot] = s;
+        return s;
+    }
 
-    /** Normalize diagnosis text (lowercase alnum). Accepts codes like D003 as-is (case-insensitive). */
+    /** Normalize diagnosis text (lowercase alnum), so codes like D003 match as "d003". */
     private static String normalize(String s) {
-        String t = s.trim().toLowerCase();
-        if (t.matches("d\\d{3}")) return t;
-        return t.replaceAll("[^a-z0-9]", "");
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char ch = Character.toLowerCase(s.charAt(i));
+            if ((ch >= 'a' && ch <= 'z') || (ch >= '0' && ch <= '9')) sb.append(ch);
+        }
+        return sb.toString();
     }
 
+    private static void plan(String[] aliases, String[] ids, String dosage, String instr) {
+        Plan p = new Plan(planCount++, ids, dosage, instr);
+        for (int i = 0; i < aliases.length; i++) PLANS.put(aliases[i], p);
+    }
+
+    private static String[] aliases(String... names) { return names; }
+
     private static String[] ids(String a) { return new String[]{a}; }
     private static String[] ids(String a, String b) { return new String[]{a, b}; }
     private static String[] ids(String a, String b, String c) { return new String[]{a, b, c}; }
 
-    /** Return the first medicine ID that exists AND has stock > 0; otherwise null. */
-    private static String firstAvailable(PharmacyControl pharmacy, String[] ids) {
+    /** Return the first medicine that exists AND has available (unexpired, unreserved) stock; otherwise null. */
+    private static Medicine firstAvailable(PharmacyControl pharmacy, String[] ids) {
         if (ids == null) return null;
         for (int i = 0; i < ids.length; i++) {
             Medicine m = pharmacy.getMedicineById(ids[i]);
-            if (m != null && m.getQuantity() > 0) return m.getId();
+            if (m != null && pharmacy.getAvailableQty(m) > 0) return m;
         }
         return null;
     }
@@ -1,10 +1,9 @@
 package entity;
 
 import tarumtclinicmanagementsystem.DutySchedule;
+import utility.IdService;
 
 public class Doctor {
-    private static int idCounter = 1000;
-
     private String id;
     private String name;
     private int roomNumber;
@@ -15,7 +14,7 @@ public class Doctor {
 
     // Constructor for new doctor with auto-generated ID
     public Doctor(String name, int roomNumber, String gender, String icNumber, String phoneNumber, DutySchedule dutySchedule) {
-        this.id = "D" + (idCounter++);
+        this.id = "D" + IdService.next(IdService.Sequence.DOCTOR);
         this.name = name;
         this.roomNumber = roomNumber;
         this.gender = gender;
@@ -34,12 +33,9 @@ public class Doctor {
         this.phoneNumber = phoneNumber;
         this.dutySchedule = dutySchedule;
 
-        // Adjust idCounter to avoid duplicates for new doctors
+        // Keep new doctor IDs ahead of this one to avoid duplicates
         try {
-            int numeric = Integer.parseInt(id.replaceAll("[^0-9]", ""));
-            if (numeric >= idCounter) {
-                idCounter = numeric + 1;
-            }
+            IdService.observe(IdService.Sequence.DOCTOR, Integer.parseInt(id.replaceAll("[^0-9]", "")));
         } 
         catch (NumberFormatException ignored) {
         }
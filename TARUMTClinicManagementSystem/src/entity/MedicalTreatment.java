@@ -2,9 +2,9 @@ package entity;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import utility.IdService;
 
 public class MedicalTreatment implements Comparable<MedicalTreatment> {
-    private static int counter = 1; // Auto-increment counter for treatment IDs
     private final int treatmentId;
     private String patientId;
     private String patientName;
@@ -19,7 +19,7 @@ public class MedicalTreatment implements Comparable<MedicalTreatment> {
     public MedicalTreatment(String patientId, String patientName, String doctorId,
                             String diagnosis, String prescription,
                             LocalDateTime treatmentDateTime, boolean completed) {
-        this.treatmentId = counter++;
+        this.treatmentId = IdService.next(IdService.Sequence.TREATMENT);
         this.patientId = patientId;
         this.patientName = patientName;
         this.doctorId = doctorId;
@@ -32,7 +32,7 @@ public class MedicalTreatment implements Comparable<MedicalTreatment> {
     public MedicalTreatment(int consultationId, String patientId, String patientName,
                             String doctorId, String diagnosis, String prescription,
                             LocalDateTime treatmentDateTime) {
-        this.treatmentId = counter++;
+        this.treatmentId = IdService.next(IdService.Sequence.TREATMENT);
         this.consultationId = consultationId;
         this.patientId = patientId;
         this.patientName = patientName;
@@ -56,10 +56,13 @@ public class MedicalTreatment implements Comparable<MedicalTreatment> {
         this.treatmentDateTime = treatmentDateTime;
         this.completed = completed;
 
-        // Ensure counter stays ahead to avoid ID duplication
-        if (treatmentId >= counter) {
-            counter = treatmentId + 1;
-        }
+        // Keep new IDs ahead to avoid ID duplication
+        IdService.observe(IdService.Sequence.TREATMENT, treatmentId);
+    }
+
+    /** Keep auto IDs ahead of an ID seen on disk but not loaded (cold history). */
+    public static void reserveId(int usedId) {
+        IdService.observe(IdService.Sequence.TREATMENT, usedId);
     }
 
     // Getters
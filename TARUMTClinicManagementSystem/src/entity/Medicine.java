@@ -1,28 +1,29 @@
 package entity;
 
-public class Medicine {
-    private static int counter = 001; // Auto-generated ID 
+import utility.IdService;
+import utility.Money;
 
+public class Medicine {
     private final String id;
     private final String name;
-    private int quantity;
+    private volatile int quantity;      // read by other counters' saves without their lock
     private final String unit;
     private final String usage;
-    private final String expiration;
-    private double pricePerUnit;        
+    private volatile String expiration; // earliest lot's expiry (yyyy-MM-dd)
+    private long priceCents;            // unit price in cents (exact)
     private String intakeMethod;        
     private String intakeMeasurePerDay; 
 
     // Constructor for adding a new medicine (auto ID generation)
     public Medicine(String name, int quantity, String unit, String usage, String expiration,
                     double pricePerUnit, String intakeMethod, String intakeMeasurePerDay) {
-        this.id = "M" + counter++;
+        this.id = "M" + IdService.next(IdService.Sequence.MEDICINE);
         this.name = name;
         this.quantity = quantity;
         this.unit = unit;
         this.usage = usage;
         this.expiration = expiration;
-        this.pricePerUnit = Math.max(0.0, pricePerUnit);
+        this.priceCents = Money.centsOf(Math.max(0.0, pricePerUnit));
         this.intakeMethod = (intakeMethod == null || intakeMethod.isBlank())
                 ? "ORAL_AFTER_MEAL" : intakeMethod.trim();
         this.intakeMeasurePerDay = normalizeIntakeMeasure(intakeMeasurePerDay);
@@ -37,15 +38,14 @@ public class Medicine {
         this.unit = unit;
         this.usage = usage;
         this.expiration = expiration;
-        this.pricePerUnit = Math.max(0.0, pricePerUnit);
+        this.priceCents = Money.centsOf(Math.max(0.0, pricePerUnit));
         this.intakeMethod = (intakeMethod == null || intakeMethod.isBlank())
                 ? "ORAL_AFTER_MEAL" : intakeMethod.trim();
         this.intakeMeasurePerDay = normalizeIntakeMeasure(intakeMeasurePerDay);
 
-        // Ensure the counter is always ahead to prevent duplicate IDs
+        // Keep new IDs ahead of this one to prevent duplicates
         try {
-            int numericPart = Integer.parseInt(id.substring(1)); // Remove 'M' prefix
-            if (numericPart >= counter) counter = numericPart + 1;
+            IdService.observe(IdService.Sequence.MEDICINE, Integer.parseInt(id.substring(1))); // Remove 'M' prefix
         } catch (NumberFormatException ignored) {}
     }
 
@@ -59,7 +59,8 @@ public class Medicine {
     }
 
     // === Static Utilities ===
-    public static void resetCounter(int newStart) { counter = newStart; }
+    /** New IDs start at newStart or later (IDs already handed out are never reissued). */
+    public static void resetCounter(int newStart) { IdService.observe(IdService.Sequence.MEDICINE, newStart - 1L); }
 
     // === Getters ===
     public String getId() { return id; }
@@ -68,13 +69,17 @@ public class Medicine {
     public String getUnit() { return unit; }
     public String getUsage() { return usage; }
     public String getExpiration() { return expiration; }
-    public double getPricePerUnit() { return pricePerUnit; }
+    public double getPricePerUnit() { return priceCents / 100.0; }
+    public long getPriceCents() { return priceCents; }
+    public Money getPrice() { return Money.ofCents(priceCents); }
     public String getIntakeMethod() { return intakeMethod; }
     public String getIntakeMeasurePerDay() { return intakeMeasurePerDay; }
 
     // === Setters ===
     public void setQuantity(int quantity) { this.quantity = quantity; }
-    public void setPricePerUnit(double pricePerUnit) { this.pricePerUnit = Math.max(0.0, pricePerUnit); }
+    public void setExpiration(String expiration) { this.expiration = expiration; }
+    public void setPricePerUnit(double pricePerUnit) { this.priceCents = Money.centsOf(Math.max(0.0, pricePerUnit)); }
+    public void setPrice(Money price) { this.priceCents = (price == null) ? 0L : Math.max(0L, price.cents()); }
     public void setIntakeMethod(String intakeMethod) {
         if (intakeMethod != null && !intakeMethod.isBlank()) this.intakeMethod = intakeMethod.trim();
     }
@@ -92,12 +97,12 @@ public class Medicine {
     @Override
     public String toString() {
         // | ID(5) | Name(20) | Qty(8) | Unit(8) | Price(10) | Usage(16) | Intake/Day(14) | Expiry(10) |
-        return String.format("| %s | %s | %8d | %s | %10.2f | %s | %s | %s |",
+        return String.format("| %s | %s | %8d | %s | %10s | %s | %s | %s |",
                 fit(id, 5),
                 fit(name, 20),
                 quantity,
                 fit(unit, 8),
-                pricePerUnit,
+                Money.format(priceCents),
                 fit(usage, 16),
                 fit(intakeMeasurePerDay, 14),
                 fit(expiration, 10)
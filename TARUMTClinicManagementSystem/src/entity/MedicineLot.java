@@ -0,0 +1,58 @@
+package entity;
+
+import adt.ClinicADT;
+import java.time.LocalDate;
+import utility.TimestampCodec;
+
+// One batch of a medicine sharing a single expiry date
+public class MedicineLot {
+    private final String medicineId;
+    private final long expiryEpochDay;  // days since 1970-01-01, compared as a plain long
+    private int quantity;
+
+    /** Earliest expiry first (FEFO). */
+    public static final ClinicADT.MyComparator<MedicineLot> BY_EXPIRY = new ClinicADT.MyComparator<MedicineLot>() {
+        @Override
+        public int compare(MedicineLot a, MedicineLot b) {
+            return Long.compare(a.expiryEpochDay, b.expiryEpochDay);
+        }
+    };
+
+    public MedicineLot(String medicineId, LocalDate expiry, int quantity) {
+        this(medicineId, expiry.toEpochDay(), quantity);
+    }
+
+    public MedicineLot(String medicineId, long expiryEpochDay, int quantity) {
+        this.medicineId = medicineId;
+        this.expiryEpochDay = expiryEpochDay;
+        this.quantity = quantity;
+    }
+
+    // === Getters ===
+    public String getMedicineId() { return medicineId; }
+    public long getExpiryEpochDay() { return expiryEpochDay; }
+    public LocalDate getExpiry() { return LocalDate.ofEpochDay(expiryEpochDay); }
+    public int getQuantity() { return quantity; }
+
+    // === Stock movements ===
+    public void add(int amount) { quantity += amount; }
+
+    /** Takes up to {@code amount} units; returns how many were taken. */
+    public int take(int amount) {
+        int taken = Math.min(quantity, amount);
+        quantity -= taken;
+        return taken;
+    }
+
+    // === File format: medicineId,yyyy-MM-dd,quantity ===
+    public StringBuilder appendCsv(StringBuilder sb) {
+        sb.append(medicineId).append(',');
+        TimestampCodec.appendDate(sb, getExpiry()).append(',');
+        return sb.append(quantity);
+    }
+
+    @Override
+    public String toString() {
+        return appendCsv(new StringBuilder(24)).toString();
+    }
+}
@@ -2,11 +2,13 @@ package entity;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import utility.CsvCursor;
+import utility.IdService;
+import utility.Money;
+import utility.TimestampCodec;
 
 // Medicine prescription entity for pharmacy queue
 public class MedicinePrescription {
-    private static int nextId = 1;
-
     private int prescriptionId;
     private String patientId;
     private String patientName;
@@ -19,7 +21,7 @@ public class MedicinePrescription {
     private PrescriptionStatus status;
     private LocalDateTime prescribedDateTime;
     private LocalDateTime dispensedDateTime;
-    private double unitPriceAtPrepare; // captured unit price at prepare time
+    private long unitPriceCents; // captured unit price at prepare time (cents)
 
     public enum PrescriptionStatus {
         READY,      // In ready queue
@@ -29,7 +31,7 @@ public class MedicinePrescription {
     public MedicinePrescription(String patientId, String patientName, int appointmentId,
                                 String medicineId, String medicineName, int quantity,
                                 String dosage, String instructions, double unitPriceAtPrepare) {
-        this.prescriptionId = nextId++;
+        this.prescriptionId = IdService.next(IdService.Sequence.PRESCRIPTION);
         this.patientId = patientId;
         this.patientName = patientName;
         this.appointmentId = appointmentId;
@@ -40,7 +42,7 @@ public class MedicinePrescription {
         this.instructions = instructions;
         this.status = PrescriptionStatus.READY;
         this.prescribedDateTime = LocalDateTime.now();
-        this.unitPriceAtPrepare = Math.max(0.0, unitPriceAtPrepare);
+        this.unitPriceCents = Money.centsOf(Math.max(0.0, unitPriceAtPrepare));
     }
 
     // Constructor used when loading from storage
@@ -63,9 +65,9 @@ public class MedicinePrescription {
         this.status = status;
         this.prescribedDateTime = prescribedDateTime;
         this.dispensedDateTime = dispensedDateTime;
-        this.unitPriceAtPrepare = Math.max(0.0, unitPriceAtPrepare);
+        this.unitPriceCents = Money.centsOf(Math.max(0.0, unitPriceAtPrepare));
 
-        if (prescriptionId >= nextId) nextId = prescriptionId + 1; // avoid duplicate IDs
+        IdService.observe(IdService.Sequence.PRESCRIPTION, prescriptionId); // avoid duplicate IDs
     }
 
     public boolean dispense() {
@@ -82,7 +84,6 @@ public class MedicinePrescription {
     // 0:id,1:patientId,2:patientName,3:appointmentId,4:medicineId,5:medicineName,6:qty,
     // 7:dosage,8:instructions,9:status,10:prescribedDT,11:dispensedDT,12:unitPriceAtPrepare
    public String toCsv() {
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         return String.join(",",
                 String.valueOf(prescriptionId),
                 patientId,
@@ -94,42 +95,39 @@ public class MedicinePrescription {
                 (dosage == null ? "" : dosage),
                 (instructions == null ? "" : instructions),
                 status.name(),
-                prescribedDateTime.format(fmt),
-                (dispensedDateTime == null ? "" : dispensedDateTime.format(fmt)),
-                String.format(java.util.Locale.ROOT, "%.4f", unitPriceAtPrepare) // <— ADDED
+                TimestampCodec.formatSeconds(prescribedDateTime),
+                TimestampCodec.formatSeconds(dispensedDateTime),
+                Money.format(unitPriceCents)
         );
     }
 
 
    public static MedicinePrescription fromCsv(String line) {
+    CsvCursor c = new CsvCursor("prescription").reset(line);
     try {
-        String[] p = line.split(",", -1);
-        if (p.length < 11) return null;
-
-        int id = Integer.parseInt(p[0].trim());
-        String patientId = p[1].trim();
-        String patientName = p[2].trim();
-        int appointmentId = Integer.parseInt(p[3].trim());
-        String medId = p[4].trim();
-        String medName = p[5].trim();
-        int qty = Integer.parseInt(p[6].trim());
-        String dosage = p[7].trim();
-        String instr = p[8].trim();
-        PrescriptionStatus st = PrescriptionStatus.valueOf(p[9].trim());
-        LocalDateTime presDT = LocalDateTime.parse(p[10].trim(),
-                java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-        LocalDateTime dispDT = (p.length > 11 && !p[11].trim().isEmpty())
-                ? LocalDateTime.parse(p[11].trim(),
-                        java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
-                : null;
-
-        double unitPrice = 0.0;
-        if (p.length > 12 && !p[12].trim().isEmpty()) {
-            try { unitPrice = Double.parseDouble(p[12].trim()); } catch (Exception ignored) {}
+        c.requireFields(11);
+        int id = c.nextInt();
+        String patientId = c.nextString();
+        String patientName = c.nextString();
+        int appointmentId = c.nextInt();
+        String medId = c.nextString();
+        String medName = c.nextString();
+        int qty = c.nextInt();
+        String dosage = c.nextString();
+        String instr = c.nextString();
+        PrescriptionStatus st = PrescriptionStatus.valueOf(c.nextString());
+        LocalDateTime presDT = c.nextDateTime();
+        LocalDateTime dispDT = c.hasMore() ? c.nextDateTimeOrNull() : null;
+
+        long unitCents = 0L;
+        if (c.hasMore()) {
+            try { unitCents = c.nextCents(); } catch (CsvCursor.MalformedRowException ignored) {}
         }
 
-        return new MedicinePrescription(id, patientId, patientName, appointmentId,
-                medId, medName, qty, dosage, instr, st, presDT, dispDT, unitPrice);
+        MedicinePrescription mp = new MedicinePrescription(id, patientId, patientName, appointmentId,
+                medId, medName, qty, dosage, instr, st, presDT, dispDT, 0.0);
+        mp.setUnitPriceCents(unitCents);
+        return mp;
     } catch (Exception e) {
         return null;
     }
@@ -149,11 +147,18 @@ public class MedicinePrescription {
     public PrescriptionStatus getStatus() { return status; }
     public LocalDateTime getPrescribedDateTime() { return prescribedDateTime; }
     public LocalDateTime getDispensedDateTime() { return dispensedDateTime; }
-    public double getUnitPriceAtPrepare() { return unitPriceAtPrepare; }
+    public double getUnitPriceAtPrepare() { return unitPriceCents / 100.0; }
+    public long getUnitPriceCents() { return unitPriceCents; }
+    /** Captured unit price x quantity, in cents. */
+    public long getLineTotalCents() { return Money.times(unitPriceCents, quantity); }
     
     // Setters
-    public void setUnitPriceAtPrepare(double v) { this.unitPriceAtPrepare = Math.max(0.0, v); }
-    public void setPrescriptionId(int id) {this.prescriptionId = id;}
+    public void setUnitPriceAtPrepare(double v) { this.unitPriceCents = Money.centsOf(Math.max(0.0, v)); }
+    public void setUnitPriceCents(long cents) { this.unitPriceCents = Math.max(0L, cents); }
+    public void setPrescriptionId(int id) {
+        this.prescriptionId = id;
+        IdService.observe(IdService.Sequence.PRESCRIPTION, id);
+    }
     public void setStatus(PrescriptionStatus status) {this.status = status;}
 
     @Override
@@ -162,6 +167,6 @@ public class MedicinePrescription {
         return String.format(
                 "Prescription ID: %d | Patient: %s (%s) | Medicine: %s | Qty: %d | Status: %s | Prescribed: %s",
                 prescriptionId, patientName, patientId, medicineName, quantity, status,
-                prescribedDateTime.format(formatter));
+                (prescribedDateTime == null) ? "-" : prescribedDateTime.format(formatter));
     }
 }
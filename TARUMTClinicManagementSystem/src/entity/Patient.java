@@ -1,7 +1,8 @@
 package entity;
 
+import utility.IdService;
+
 public class Patient {
-    private static int idCounter = 1000;
 
     private final String id;
     private final String name;
@@ -12,7 +13,7 @@ public class Patient {
 
     // Constructor for creating a new patient (auto-generated ID)
     public Patient(String name, int age, String gender, String icNumber, String contact) {
-        this.id = "P" + (idCounter++);
+        this.id = "P" + IdService.next(IdService.Sequence.PATIENT);
         this.name = name;
         this.age = age;
         this.gender = gender;
@@ -29,18 +30,15 @@ public class Patient {
         this.icNumber = icNumber;
         this.contact = contact;
 
-        // Ensure idCounter stays ahead of the highest existing ID
+        // Keep new IDs ahead of the highest existing ID
         try {
-            int numeric = Integer.parseInt(id.substring(1)); // Extract number from "P###"
-            if (numeric >= idCounter) {
-                idCounter = numeric + 1;
-            }
+            IdService.observe(IdService.Sequence.PATIENT, Integer.parseInt(id.substring(1))); // "P###"
         } catch (NumberFormatException ignored) {}
     }
 
-    // Static method to manually set/reset ID counter (for testing or file restoration)
+    // Make sure new IDs start at nextId or later (file restoration); never moves backwards
     public static void setIdCounter(int nextId) {
-        idCounter = nextId;
+        IdService.observe(IdService.Sequence.PATIENT, nextId - 1L);
     }
 
     // === Getters ===
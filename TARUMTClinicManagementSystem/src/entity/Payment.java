@@ -1,12 +1,16 @@
 package entity;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import utility.Money;
+import utility.ReceiptIdGenerator;
+import utility.TimestampCodec;
 
-public class Payment {
-    // ---- Fixed fees ----
-    public static final double CONSULTATION_FEE = 100.0; // always applied
-    public static final double TREATMENT_FEE    = 200.0; // optional
+public final class Payment {
+    // ---- Fixed fees (cents are authoritative; doubles kept for display callers) ----
+    public static final long CONSULTATION_FEE_CENTS = 10_000L; // always applied
+    public static final long TREATMENT_FEE_CENTS    = 20_000L; // optional
+    public static final double CONSULTATION_FEE = CONSULTATION_FEE_CENTS / 100.0;
+    public static final double TREATMENT_FEE    = TREATMENT_FEE_CENTS / 100.0;
 
     // ---- Payment method ----
     public enum PaymentMethod {
@@ -26,11 +30,11 @@ public class Payment {
     private final String dateTime;
 
     private final boolean hasTreatment;
-    private final double medicineFee;
+    private final long medicineFeeCents;
 
     private final PaymentMethod paymentMethod;
-    private final double amountPaid;
-    private final double change;
+    private final long amountPaidCents;
+    private final long changeCents;
 
     // ---- Receipt META (new) ----
     private int    apptId = -1;      
@@ -46,13 +50,13 @@ public class Payment {
     /** Original constructor (no META). */
     public Payment(boolean hasTreatment, double medicineFee,
                    PaymentMethod paymentMethod, double amountPaid) {
-        this.receiptId = generateId();
-        this.dateTime  = nowHuman();
-        this.hasTreatment   = hasTreatment;
-        this.medicineFee    = Math.max(0.0, medicineFee);
-        this.paymentMethod  = (paymentMethod != null) ? paymentMethod : PaymentMethod.CASH;
-        this.amountPaid     = amountPaid;
-        this.change         = Math.max(0.0, amountPaid - getTotal());
+        this(null, null, hasTreatment, Money.of(medicineFee), paymentMethod, Money.of(amountPaid));
+    }
+
+    /** Exact amounts (no META). */
+    public Payment(boolean hasTreatment, Money medicineFee,
+                   PaymentMethod paymentMethod, Money amountPaid) {
+        this(null, null, hasTreatment, medicineFee, paymentMethod, amountPaid);
     }
 
     /** New: constructor including META fields. */
@@ -60,7 +64,20 @@ public class Payment {
                    PaymentMethod paymentMethod, double amountPaid,
                    int apptId, String patientId, String patientName,
                    String doctorId, String doctorName) {
-        this(hasTreatment, medicineFee, paymentMethod, amountPaid);
+        this(null, null, hasTreatment, Money.of(medicineFee), paymentMethod, Money.of(amountPaid));
+        this.apptId      = apptId;
+        this.patientId   = safe(patientId);
+        this.patientName = safe(patientName);
+        this.doctorId    = safe(doctorId);
+        this.doctorName  = safe(doctorName);
+    }
+
+    /** Exact amounts, including META. */
+    public Payment(boolean hasTreatment, Money medicineFee,
+                   PaymentMethod paymentMethod, Money amountPaid,
+                   int apptId, String patientId, String patientName,
+                   String doctorId, String doctorName) {
+        this(null, null, hasTreatment, medicineFee, paymentMethod, amountPaid);
         this.apptId      = apptId;
         this.patientId   = safe(patientId);
         this.patientName = safe(patientName);
@@ -72,13 +89,20 @@ public class Payment {
     public Payment(String receiptId, String dateTime,
                    boolean hasTreatment, double medicineFee,
                    PaymentMethod paymentMethod, double amountPaid) {
+        this(receiptId, dateTime, hasTreatment, Money.of(medicineFee), paymentMethod, Money.of(amountPaid));
+    }
+
+    /** All constructors end here; amounts are held as cents. */
+    private Payment(String receiptId, String dateTime,
+                    boolean hasTreatment, Money medicineFee,
+                    PaymentMethod paymentMethod, Money amountPaid) {
         this.receiptId = (receiptId != null) ? receiptId : generateId();
         this.dateTime  = (dateTime  != null) ? dateTime  : nowHuman();
-        this.hasTreatment   = hasTreatment;
-        this.medicineFee    = Math.max(0.0, medicineFee);
-        this.paymentMethod  = (paymentMethod != null) ? paymentMethod : PaymentMethod.CASH;
-        this.amountPaid     = amountPaid;
-        this.change         = Math.max(0.0, amountPaid - getTotal());
+        this.hasTreatment     = hasTreatment;
+        this.medicineFeeCents = (medicineFee == null) ? 0L : Math.max(0L, medicineFee.cents());
+        this.paymentMethod    = (paymentMethod != null) ? paymentMethod : PaymentMethod.CASH;
+        this.amountPaidCents  = (amountPaid == null) ? 0L : amountPaid.cents();
+        this.changeCents      = Math.max(0L, amountPaidCents - getTotalCents());
     }
 
     /** Backfill constructor with META. */
@@ -103,13 +127,19 @@ public class Payment {
     public String getDateTime()  { return dateTime; } // "yyyy-MM-dd HH:mm:ss"
     public boolean hasTreatment() { return hasTreatment; }
 
-    public double getConsultationFee() { return CONSULTATION_FEE; }
-    public double getTreatmentFee()    { return hasTreatment ? TREATMENT_FEE : 0.0; }
-    public double getMedicineFee()     { return medicineFee; }
+    public double getConsultationFee() { return getConsultationFeeCents() / 100.0; }
+    public double getTreatmentFee()    { return getTreatmentFeeCents() / 100.0; }
+    public double getMedicineFee()     { return medicineFeeCents / 100.0; }
+
+    public long getConsultationFeeCents() { return CONSULTATION_FEE_CENTS; }
+    public long getTreatmentFeeCents()    { return hasTreatment ? TREATMENT_FEE_CENTS : 0L; }
+    public long getMedicineFeeCents()     { return medicineFeeCents; }
 
     public PaymentMethod getPaymentMethod() { return paymentMethod; }
-    public double getAmountPaid() { return amountPaid; }
-    public double getChange()     { return change; }
+    public double getAmountPaid() { return amountPaidCents / 100.0; }
+    public double getChange()     { return changeCents / 100.0; }
+    public long getAmountPaidCents() { return amountPaidCents; }
+    public long getChangeCents()     { return changeCents; }
 
     public int getApptId()            { return apptId; }
     public String getPatientId()      { return patientId; }
@@ -133,7 +163,21 @@ public class Payment {
     // ----------------------------------------------------------------------
 
     public double getTotal() {
-        return getConsultationFee() + getTreatmentFee() + getMedicineFee();
+        return getTotalCents() / 100.0;
+    }
+
+    public long getTotalCents() {
+        return totalCents(hasTreatment, medicineFeeCents);
+    }
+
+    public Money getTotalAmount() {
+        return Money.ofCents(getTotalCents());
+    }
+
+    /** Bill total without building a Payment (no receipt ID is consumed). */
+    public static long totalCents(boolean hasTreatment, long medicineFeeCents) {
+        long t = Money.add(CONSULTATION_FEE_CENTS, Math.max(0L, medicineFeeCents));
+        return hasTreatment ? Money.add(t, TREATMENT_FEE_CENTS) : t;
     }
 
     // ----------------------------------------------------------------------
@@ -141,13 +185,11 @@ public class Payment {
     // ----------------------------------------------------------------------
 
     private static String generateId() {
-        return "R" + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS")
-                                      .format(LocalDateTime.now());
+        return ReceiptIdGenerator.next();
     }
 
     private static String nowHuman() {
-        return DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
-                                .format(LocalDateTime.now());
+        return TimestampCodec.formatSeconds(LocalDateTime.now());
     }
 
     private static String safe(String s) { return (s == null) ? "" : s.trim(); }
@@ -155,11 +197,12 @@ public class Payment {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append(String.format("Consultation  : RM %.2f%n", getConsultationFee()));
-        sb.append(String.format("Treatment     : %sRM %.2f%n", hasTreatment ? "" : "(skip) ", getTreatmentFee()));
-        sb.append(String.format("Medicine      : RM %.2f%n", getMedicineFee()));
+        sb.append("Consultation  : RM ").append(Money.format(getConsultationFeeCents())).append('\n');
+        sb.append("Treatment     : ").append(hasTreatment ? "" : "(skip) ")
+          .append("RM ").append(Money.format(getTreatmentFeeCents())).append('\n');
+        sb.append("Medicine      : RM ").append(Money.format(medicineFeeCents)).append('\n');
         sb.append("----------------------------------------\n");
-        sb.append(String.format("TOTAL         : RM %.2f%n", getTotal()));
+        sb.append("TOTAL         : RM ").append(Money.format(getTotalCents())).append('\n');
         sb.append(String.format("Payment Method: %s%n", paymentMethod.getDisplayName()));
         // Meta preview (optional)
         if (apptId > 0 || !patientId.isEmpty() || !patientName.isEmpty()
@@ -0,0 +1,157 @@
+package tarumtclinicmanagementsystem;
+
+import adt.ClinicADT;
+import adt.MyClinicADT;
+import control.AppointmentControl;
+import control.ConsultationControl;
+import control.DoctorControl;
+import control.PatientControl;
+import control.PharmacyControl;
+import control.PharmacyQueueControl;
+import control.TreatmentControl;
+import control.WaitTimeEstimator;
+import entity.Consultation;
+import entity.MedicalTreatment;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the core controls at startup. Each control parses its own text file in its
+ * constructor, so independent stores are loaded concurrently on virtual threads; a store
+ * that needs another control waits only on that control's future.
+ *
+ * Dependencies:
+ *   Doctor, Patient, Pharmacy, PharmacyQueue, Appointment, Treatment -> none
+ *   Consultation                                                     -> Patient, Doctor, Appointment
+ * The UIs are handed these instances; nothing builds a second control over the same store.
+ */
+public final class ClinicBootstrap {
+
+    public final DoctorControl doctorControl;
+    public final PatientControl patientControl;
+    public final PharmacyControl pharmacyControl;
+    public final PharmacyQueueControl pharmacyQueue;
+    public final AppointmentControl appointmentControl;
+    public final ConsultationControl consultationControl;
+    public final TreatmentControl treatmentControl;
+    public final ClinicADT<Consultation> consultations;
+    public final ClinicADT<MedicalTreatment> treatments;
+
+    /** Load time of one store (ms). */
+    public static final class StoreTiming {
+        public final String store;
+        public final long millis;
+        StoreTiming(String store, long millis) { this.store = store; this.millis = millis; }
+    }
+
+    private final ClinicADT<StoreTiming> timings = new MyClinicADT<>();
+    private long totalMillis;
+
+    private ClinicBootstrap(DoctorControl d, PatientControl p, PharmacyControl ph, PharmacyQueueControl q,
+                            AppointmentControl a, ConsultationControl c, TreatmentControl t,
+                            ClinicADT<Consultation> consultations, ClinicADT<MedicalTreatment> treatments) {
+        this.doctorControl = d;
+        this.patientControl = p;
+        this.pharmacyControl = ph;
+        this.pharmacyQueue = q;
+        this.appointmentControl = a;
+        this.consultationControl = c;
+        this.treatmentControl = t;
+        this.consultations = consultations;
+        this.treatments = treatments;
+    }
+
+    // ===== Entry point =====
+    public static ClinicBootstrap load() {
+        ClinicADT<Consultation> consultations  = new MyClinicADT<>();
+        ClinicADT<MedicalTreatment> treatments = new MyClinicADT<>();
+        long t0 = System.nanoTime();
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Timed<DoctorControl>> doctor       = pool.submit(timed(DoctorControl::new));
+            Future<Timed<PatientControl>> patient     = pool.submit(timed(PatientControl::new));
+            Future<Timed<PharmacyControl>> pharmacy   = pool.submit(timed(PharmacyControl::new));
+            Future<Timed<PharmacyQueueControl>> queue = pool.submit(timed(PharmacyQueueControl::new));
+            Future<Timed<AppointmentControl>> appt    = pool.submit(timed(AppointmentControl::new));
+            Future<Timed<TreatmentControl>> treat     = pool.submit(timed(() -> new TreatmentControl(treatments)));
+
+            // Consultation needs the patient/doctor/appointment instances; its own parse starts once they exist
+            Future<Timed<ConsultationControl>> consult = pool.submit(() -> {
+                PatientControl p = join(patient).value;
+                DoctorControl d = join(doctor).value;
+                AppointmentControl a = join(appt).value;
+                return timed(() -> new ConsultationControl(p, d, consultations, treatments, a)).call();
+            });
+
+            Timed<DoctorControl> d        = join(doctor);
+            Timed<PatientControl> p       = join(patient);
+            Timed<PharmacyControl> ph     = join(pharmacy);
+            Timed<PharmacyQueueControl> q = join(queue);
+            Timed<AppointmentControl> a   = join(appt);
+            Timed<ConsultationControl> c  = join(consult);
+            Timed<TreatmentControl> t     = join(treat);
+
+            ph.value.setReservationSource(q.value); // stock views subtract READY reservations
+            a.value.startEventSubscribers();        // only once the control is fully built
+            WaitTimeEstimator.shared().startEventSubscriber();
+
+            ClinicBootstrap boot = new ClinicBootstrap(d.value, p.value, ph.value, q.value, a.value, c.value, t.value,
+                    consultations, treatments);
+            boot.timings.add(new StoreTiming("Doctors", d.millis));
+            boot.timings.add(new StoreTiming("Patients", p.millis));
+            boot.timings.add(new StoreTiming("Medicines", ph.millis));
+            boot.timings.add(new StoreTiming("Pharmacy queues", q.millis));
+            boot.timings.add(new StoreTiming("Appointments", a.millis));
+            boot.timings.add(new StoreTiming("Consultations", c.millis));
+            boot.timings.add(new StoreTiming("Treatments", t.millis));
+            boot.totalMillis = (System.nanoTime() - t0) / 1_000_000;
+            return boot;
+        }
+    }
+
+    // ===== Timings =====
+    public ClinicADT<StoreTiming> getTimings() { return timings; }
+    public long getTotalMillis() { return totalMillis; }
+
+    public void printTimings() {
+        System.out.println("Startup load times:");
+        ClinicADT.MyIterator<StoreTiming> it = timings.iterator();
+        while (it.hasNext()) {
+            StoreTiming t = it.next();
+            System.out.printf("  %-16s %6d ms%n", t.store, t.millis);
+        }
+        System.out.printf("  %-16s %6d ms%n", "Total (wall)", totalMillis);
+    }
+
+    // ===== Helpers =====
+    private static final class Timed<T> {
+        final T value;
+        final long millis;
+        Timed(T value, long millis) { this.value = value; this.millis = millis; }
+    }
+
+    private static <T> Callable<Timed<T>> timed(Callable<T> loader) {
+        return () -> {
+            long start = System.nanoTime();
+            T v = loader.call();
+            return new Timed<>(v, (System.nanoTime() - start) / 1_000_000);
+        };
+    }
+
+    private static <T> T join(Future<T> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Startup interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Failed to load clinic data: " + cause, cause);
+        }
+    }
+}
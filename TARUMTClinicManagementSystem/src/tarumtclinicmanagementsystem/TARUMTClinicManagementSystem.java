@@ -4,11 +4,12 @@ import entity.MedicalTreatment;
 import entity.Consultation;
 
 import control.DoctorControl;
-import control.ConsultationControl;
 import control.PatientControl;
 import control.AppointmentControl;
+import control.ConsultationControl;
 import control.PharmacyControl;
 import control.PharmacyQueueControl;
+import control.TreatmentControl;
 
 import boundary.TreatmentUI;
 import boundary.PatientUI;
@@ -19,7 +20,6 @@ import boundary.AppointmentUI;
 import boundary.PaymentUI;
 
 import adt.ClinicADT;
-import adt.MyClinicADT;
 
 import java.util.Scanner;
 
@@ -46,34 +46,32 @@ public class TARUMTClinicManagementSystem {
     }
 
     public static void main(String[] args) {
-        // === Initialize Core Controls (ONE instance each) ===
-        DoctorControl doctorControl              = new DoctorControl();
-        PatientControl patientControl            = new PatientControl();
-        ClinicADT<Consultation> consultations    = new MyClinicADT<>();
-        ClinicADT<MedicalTreatment> treatments   = new MyClinicADT<>();
-        PharmacyControl pharmacyControl          = new PharmacyControl();
-        PharmacyQueueControl pharmacyQueue       = new PharmacyQueueControl(); // shared
-
-        // ConsultationControl links patient/doctor/treatment modules
-        ConsultationControl consultationControl =
-                new ConsultationControl(patientControl, doctorControl, consultations, treatments);
-
-        // AppointmentControl integrates with patient/doctor
-        AppointmentControl appointmentControl =
-                new AppointmentControl(patientControl, doctorControl);
+        // === Initialize Core Controls (ONE instance each, loaded in parallel) ===
+        ClinicBootstrap boot = ClinicBootstrap.load();
+        boot.printTimings();
+
+        DoctorControl doctorControl              = boot.doctorControl;
+        PatientControl patientControl            = boot.patientControl;
+        ClinicADT<Consultation> consultations    = boot.consultations;
+        ClinicADT<MedicalTreatment> treatments   = boot.treatments;
+        PharmacyControl pharmacyControl          = boot.pharmacyControl;
+        PharmacyQueueControl pharmacyQueue       = boot.pharmacyQueue; // shared
+        AppointmentControl appointmentControl    = boot.appointmentControl;
+        ConsultationControl consultationControl  = boot.consultationControl;
+        TreatmentControl treatmentControl        = boot.treatmentControl;
 
         // === UIs (reuse singletons) ===
         AppointmentUI  appointmentUI  = new AppointmentUI(appointmentControl, patientControl, doctorControl);
         DoctorUI       doctorUI       = new DoctorUI(doctorControl);
         PatientUI      patientUI      = new PatientUI(patientControl);
         ConsultationUI consultationUI = new ConsultationUI(
-                patientControl, doctorControl, consultations, treatments, appointmentControl);
+                patientControl, doctorControl, consultationControl, treatmentControl, consultations, appointmentControl);
         TreatmentUI    treatmentUI    = new TreatmentUI(
-                patientControl, doctorControl, treatments, appointmentControl, pharmacyControl, pharmacyQueue);
+                patientControl, doctorControl, treatmentControl, appointmentControl, pharmacyControl, pharmacyQueue);
         PharmacyUI     pharmacyUI     = new PharmacyUI(
                 pharmacyControl, pharmacyQueue, appointmentControl, treatments);
         PaymentUI      paymentUI      = new PaymentUI(
-                pharmacyControl, appointmentControl, pharmacyQueue, treatments);
+                pharmacyControl, appointmentControl, pharmacyQueue, treatmentControl);
 
         Scanner sc = new Scanner(System.in);
 
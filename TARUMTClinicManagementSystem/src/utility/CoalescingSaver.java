@@ -0,0 +1,62 @@
+package utility;
+
+/**
+ * Group commit for a file that is rewritten in full after every change.
+ *
+ * A caller changes the in-memory state first and then calls {@link #save()}. If a write is
+ * already running, the caller waits for the next one instead of starting its own, so any
+ * number of concurrent changes costs at most two rewrites. {@code save()} returns only after
+ * a write that began after the call has finished, i.e. the caller's change is on disk.
+ *
+ * The write task takes its own snapshot; it runs on the calling thread without this
+ * object's monitor held.
+ */
+public final class CoalescingSaver {
+
+    private final Runnable write;
+
+    // guarded by this
+    private long requested;   // save() calls so far
+    private long written;     // highest request covered by a finished write
+    private boolean writing;
+    private long writes;
+
+    public CoalescingSaver(Runnable write) {
+        this.write = write;
+    }
+
+    public void save() {
+        long target;
+        boolean interrupted = false;
+        synchronized (this) {
+            long mine = ++requested;
+            while (writing && written < mine) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (written >= mine) {
+                if (interrupted) Thread.currentThread().interrupt();
+                return;
+            }
+            writing = true;
+            target = requested;   // everything requested so far is in memory already
+        }
+        try {
+            write.run();
+        } finally {
+            synchronized (this) {
+                written = target;
+                writing = false;
+                writes++;
+                notifyAll();
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Number of physical writes so far (save() calls minus the ones that were coalesced). */
+    public synchronized long writeCount() { return writes; }
+}
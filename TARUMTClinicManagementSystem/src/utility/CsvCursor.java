@@ -0,0 +1,220 @@
+package utility;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Single-pass reader over one comma-separated row.
+ * Fields are read left to right straight from the characters (no split/regex, no
+ * intermediate strings for numbers or dates). Surrounding spaces are ignored.
+ *
+ * Usage:
+ *   CsvCursor c = new CsvCursor("appointments.txt");
+ *   while ((line = br.readLine()) != null) {
+ *       c.reset(line);
+ *       try { int id = c.nextInt(); String name = c.nextString(); ... }
+ *       catch (CsvCursor.MalformedRowException e) { c.report(e); }
+ *   }
+ */
+public final class CsvCursor {
+
+    /** Thrown by the typed readers; carries source, line and field position. */
+    public static class MalformedRowException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int lineNumber;
+        private final int field;
+
+        public MalformedRowException(String source, int lineNumber, int field, String reason) {
+            super(source + " line " + lineNumber + ", field " + field + ": " + reason);
+            this.lineNumber = lineNumber;
+            this.field = field;
+        }
+
+        public int getLineNumber() { return lineNumber; }
+        public int getField() { return field; }
+    }
+
+    private final String source;
+    private CharSequence row = "";
+    private int pos;          // start of the next field
+    private int field;        // 1-based index of the next field
+    private int lineNumber;
+    private boolean exhausted;
+
+    // bounds of the field last sliced by nextField()
+    private int fs, fe;
+
+    public CsvCursor(String source) {
+        this.source = source;
+    }
+
+    // ===== Row control =====
+    /** Start reading the next physical line (line numbers auto-increment). */
+    public CsvCursor reset(CharSequence line) {
+        return reset(line, lineNumber + 1);
+    }
+
+    public CsvCursor reset(CharSequence line, int lineNumber) {
+        this.row = (line == null) ? "" : line;
+        this.pos = 0;
+        this.field = 1;
+        this.lineNumber = lineNumber;
+        this.exhausted = false;
+        return this;
+    }
+
+    public int getLineNumber() { return lineNumber; }
+
+    /** True if the row is empty/blank or a '#' comment. */
+    public boolean isBlankOrComment() {
+        for (int i = 0; i < row.length(); i++) {
+            char ch = row.charAt(i);
+            if (ch == '#') return true;
+            if (ch > ' ') return false;
+        }
+        return true;
+    }
+
+    /** Total number of fields on the row (commas + 1). */
+    public int fieldCount() {
+        int n = 1;
+        for (int i = 0; i < row.length(); i++) if (row.charAt(i) == ',') n++;
+        return n;
+    }
+
+    public boolean hasMore() { return !exhausted; }
+
+    /** Fail unless the row has at least {@code n} fields. */
+    public void requireFields(int n) {
+        int count = fieldCount();
+        if (count < n) throw malformed("expected " + n + " fields, found " + count);
+    }
+
+    // ===== Typed readers =====
+    public String nextString() {
+        nextField();
+        return row.subSequence(fs, fe).toString();
+    }
+
+    public void skip() { nextField(); }
+
+    public int nextInt() {
+        long v = nextLong();
+        if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) throw malformed("integer out of range");
+        return (int) v;
+    }
+
+    public long nextLong() {
+        nextField();
+        int i = fs;
+        boolean neg = false;
+        if (i < fe && (row.charAt(i) == '-' || row.charAt(i) == '+')) neg = row.charAt(i++) == '-';
+        if (i >= fe) throw malformed("expected a number");
+        long v = 0;
+        for (; i < fe; i++) {
+            int d = row.charAt(i) - '0';
+            if (d < 0 || d > 9) throw malformed("not a number: '" + row.subSequence(fs, fe) + "'");
+            v = v * 10 + d;
+        }
+        return neg ? -v : v;
+    }
+
+    /** Decimal amount to integer cents, half-up past 2 dp. Tolerates a leading "RM" (see Money.parseCents). */
+    public long nextCents() {
+        nextField();
+        try {
+            return Money.parseCents(row, fs, fe);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw malformed("not an amount: '" + row.subSequence(fs, fe) + "'");
+        }
+    }
+
+    public boolean nextBoolean() {
+        nextField();
+        return (fe - fs == 4)
+                && Character.toLowerCase(row.charAt(fs)) == 't'
+                && Character.toLowerCase(row.charAt(fs + 1)) == 'r'
+                && Character.toLowerCase(row.charAt(fs + 2)) == 'u'
+                && Character.toLowerCase(row.charAt(fs + 3)) == 'e';
+    }
+
+    /** yyyy-MM-dd */
+    public LocalDate nextDate() {
+        nextField();
+        if (fe - fs < 10) throw malformed("expected yyyy-MM-dd");
+        try {
+            return LocalDate.of(digits(fs, 4), digits(fs + 5, 2), digits(fs + 8, 2));
+        } catch (DateTimeException e) {
+            throw malformed("invalid date '" + row.subSequence(fs, fe) + "'");
+        }
+    }
+
+    /** yyyy-MM-dd HH:mm, also accepts ISO 'T' and optional :ss(.fraction). */
+    public LocalDateTime nextDateTime() {
+        nextField();
+        try {
+            return TimestampCodec.parse(row, fs, fe);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw malformed("invalid date/time '" + row.subSequence(fs, fe) + "'");
+        }
+    }
+
+    /** yyyy-MM-dd HH:mm as epoch minutes (no LocalDateTime built). */
+    public long nextEpochMinute() {
+        nextField();
+        try {
+            if (fe - fs != 16) throw new IllegalArgumentException();
+            return TimestampCodec.parseEpochMinute(row, fs);
+        } catch (IllegalArgumentException e) {
+            throw malformed("invalid date/time '" + row.subSequence(fs, fe) + "'");
+        }
+    }
+
+    /** Empty field -> null, otherwise as {@link #nextDateTime()}. */
+    public LocalDateTime nextDateTimeOrNull() {
+        int save = pos, saveField = field;
+        boolean saveEx = exhausted;
+        nextField();
+        if (fs == fe) return null;
+        pos = save; field = saveField; exhausted = saveEx;
+        return nextDateTime();
+    }
+
+    // ===== Error reporting =====
+    public MalformedRowException malformed(String reason) {
+        return new MalformedRowException(source, lineNumber, Math.max(1, field - 1), reason);
+    }
+
+    public void report(MalformedRowException e) {
+        System.out.println("Skipping malformed row (" + e.getMessage() + ")");
+    }
+
+    // ===== Internals =====
+    private void nextField() {
+        if (exhausted) throw new MalformedRowException(source, lineNumber, field, "missing field");
+        int n = row.length();
+        int end = pos;
+        while (end < n && row.charAt(end) != ',') end++;
+
+        fs = pos;
+        fe = end;
+        while (fs < fe && row.charAt(fs) <= ' ') fs++;
+        while (fe > fs && row.charAt(fe - 1) <= ' ') fe--;
+
+        if (end >= n) exhausted = true;
+        else pos = end + 1;
+        field++;
+    }
+
+    private int digits(int from, int count) {
+        int v = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = row.charAt(i) - '0';
+            if (d < 0 || d > 9) throw malformed("bad digit in '" + row.subSequence(fs, fe) + "'");
+            v = v * 10 + d;
+        }
+        return v;
+    }
+}
@@ -0,0 +1,138 @@
+package utility;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One place that hands out entity IDs, safe for several desks/threads in one process.
+ *
+ * Each thread draws IDs from its own block (no shared write per ID). When a block runs out
+ * the thread claims the next one with a single compareAndSet on the sequence's high-water
+ * mark, and the new mark is written to id_state.txt, so an ID handed out before a crash or
+ * a deletion is never reissued. Loaders report the IDs they read with observe(), and blocks
+ * always start above the highest ID seen in the data files.
+ *
+ * IDs are unique and increasing per thread; across threads (and after a restart) they may
+ * skip the unused rest of a block.
+ *
+ * File format: SEQUENCE,nextUnclaimedId
+ */
+public final class IdService {
+
+    /** ID sequences, with the first ID and block size of each. */
+    public enum Sequence {
+        PATIENT(1000, 1),          // human-facing, low rate: no gaps
+        DOCTOR(1000, 1),
+        MEDICINE(1, 1),
+        APPOINTMENT(1000, 8),
+        CONSULTATION(1, 8),
+        TREATMENT(1, 8),
+        PRESCRIPTION(1, 32);
+
+        final long first;
+        final int blockSize;
+
+        Sequence(long first, int blockSize) {
+            this.first = first;
+            this.blockSize = blockSize;
+        }
+    }
+
+    private static final String STATE_PATH = "src/textFile/id_state.txt";
+    private static final Sequence[] SEQUENCES = Sequence.values();
+
+    // per sequence: next unclaimed ID (persisted) and highest ID seen in the data
+    private static final AtomicLong[] highWater = new AtomicLong[SEQUENCES.length];
+    private static final AtomicLong[] floor = new AtomicLong[SEQUENCES.length];
+
+    // per thread: [next, end) of the current block, two slots per sequence
+    private static final ThreadLocal<long[]> blocks = ThreadLocal.withInitial(() -> new long[2 * SEQUENCES.length]);
+
+    private static final Object saveLock = new Object();
+
+    static {
+        for (Sequence s : SEQUENCES) {
+            highWater[s.ordinal()] = new AtomicLong(s.first);
+            floor[s.ordinal()] = new AtomicLong(s.first - 1);
+        }
+        load();
+    }
+
+    private IdService() {}
+
+    // ===== Allocation =====
+    public static int next(Sequence s) {
+        long[] b = blocks.get();
+        int i = 2 * s.ordinal();
+        long id = b[i];
+        if (id >= b[i + 1] || id <= floor[s.ordinal()].get()) {
+            claimBlock(s, b, i);
+            id = b[i];
+        }
+        b[i] = id + 1;
+        return (int) id;
+    }
+
+    /** An ID read from a data file: everything handed out later will be above it. */
+    public static void observe(Sequence s, long usedId) {
+        AtomicLong f = floor[s.ordinal()];
+        long cur;
+        while ((cur = f.get()) < usedId) {
+            if (f.compareAndSet(cur, usedId)) return;
+        }
+    }
+
+    /** Next ID that a new block would start from (for display/diagnostics). */
+    public static long peekHighWater(Sequence s) {
+        return Math.max(highWater[s.ordinal()].get(), floor[s.ordinal()].get() + 1);
+    }
+
+    // ===== Internals =====
+    private static void claimBlock(Sequence s, long[] b, int i) {
+        AtomicLong hw = highWater[s.ordinal()];
+        long cur, start;
+        do {
+            cur = hw.get();
+            start = Math.max(cur, floor[s.ordinal()].get() + 1);
+        } while (!hw.compareAndSet(cur, start + s.blockSize));
+        b[i] = start;
+        b[i + 1] = start + s.blockSize;
+        save();
+    }
+
+    private static void load() {
+        File f = new File(STATE_PATH);
+        if (!f.exists()) return;
+        CsvCursor c = new CsvCursor(STATE_PATH);
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                c.reset(line);
+                if (c.isBlankOrComment()) continue;
+                try {
+                    Sequence s = Sequence.valueOf(c.nextString());
+                    long next = c.nextLong();
+                    AtomicLong hw = highWater[s.ordinal()];
+                    if (next > hw.get()) hw.set(next);
+                } catch (CsvCursor.MalformedRowException | IllegalArgumentException ignored) {
+                    // skip malformed row
+                }
+            }
+        } catch (IOException ignored) {}
+    }
+
+    /** Rewrites the marks; each write reads the latest values, so the last one always wins. */
+    private static void save() {
+        synchronized (saveLock) {
+            try {
+                File f = new File(STATE_PATH);
+                File dir = f.getParentFile();
+                if (dir != null && !dir.exists()) dir.mkdirs();
+                try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(f), StandardCharsets.UTF_8))) {
+                    for (Sequence s : SEQUENCES) pw.println(s.name() + "," + highWater[s.ordinal()].get());
+                }
+            } catch (IOException ignored) {}
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package utility;
+
+/**
+ * Fixed-size log-linear histogram of non-negative durations (HdrHistogram layout).
+ *
+ * Values below 32 get a bucket each; above that every power of two is split into 16
+ * equal sub-buckets, so any recorded value is known to within ~6% and the array size
+ * does not grow with the number of samples. Recording is O(1); a percentile walks the
+ * (at most BUCKETS) counters once.
+ *
+ * Not thread-safe; the owner serializes access.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;                  // 16 sub-buckets per power of two
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int LINEAR = SUB << 1;             // 0..31 are exact
+    private static final int MAX_EXPONENT = 40;             // ~34,800 years in seconds
+    public static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 1) * SUB;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    // ===== Recording =====
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[indexOf(value)]++;
+        total++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    public void add(LatencyHistogram other) {
+        if (other == null || other.total == 0) return;
+        for (int i = 0; i < BUCKETS; i++) counts[i] += other.counts[i];
+        total += other.total;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public LatencyHistogram copy() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.add(this);
+        return h;
+    }
+
+    // ===== Queries =====
+    public long count() { return total; }
+    public long min()   { return total == 0 ? 0 : min; }
+    public long max()   { return max; }
+    public double mean() { return total == 0 ? 0.0 : (double) sum / total; }
+
+    /** Smallest bucket bound that covers {@code percent}% of the samples (capped at max). */
+    public long percentile(double percent) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(Math.max(0.0, Math.min(100.0, percent)) / 100.0 * total);
+        if (rank < 1) rank = 1;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(highestIn(i), max);
+        }
+        return max;
+    }
+
+    // ===== Bucket layout =====
+    private static int indexOf(long value) {
+        if (value < LINEAR) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);   // >= 5
+        if (exponent >= MAX_EXPONENT) return BUCKETS - 1;
+        int shift = exponent - SUB_BITS;
+        return shift * SUB + (int) (value >>> shift);           // value >>> shift is in [16, 31]
+    }
+
+    private static long highestIn(int index) {
+        if (index < LINEAR) return index;
+        int shift = index / SUB - 1;
+        long lowest = (long) (index % SUB + SUB) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
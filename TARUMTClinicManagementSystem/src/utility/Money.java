@@ -0,0 +1,151 @@
+package utility;
+
+/**
+ * Immutable ringgit amount held as a whole number of cents.
+ * Sums and qty multiplications are exact (plain long math, overflow-checked); there is
+ * no rounding except when converting from a double or parsing more than 2 decimals (half-up).
+ *
+ * Hot paths (line totals, per-appointment sums) can stay allocation-free by working on the
+ * raw cents with the static helpers and only wrapping the final result:
+ *   long cents = 0;
+ *   cents = Money.add(cents, Money.times(unitCents, qty));
+ *   Money.appendTo(sb, cents);   // "123.45"
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0L);
+
+    private final long cents;
+
+    private Money(long cents) { this.cents = cents; }
+
+    // ===== Factories =====
+    public static Money ofCents(long cents) {
+        return (cents == 0L) ? ZERO : new Money(cents);
+    }
+
+    /** From a double amount (e.g. 12.345 -> 12.35), half-up. */
+    public static Money of(double amount) {
+        return ofCents(centsOf(amount));
+    }
+
+    /** Parses "12", "12.5", "12.50", "-3.10" or "RM 12.50"; more than 2 decimals rounds half-up. */
+    public static Money parse(CharSequence s) {
+        return ofCents(parseCents(s));
+    }
+
+    // ===== Arithmetic =====
+    public Money plus(Money other) {
+        return (other == null || other.cents == 0L) ? this : ofCents(add(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return (other == null || other.cents == 0L) ? this : ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(int qty) {
+        return (qty == 1) ? this : ofCents(times(cents, qty));
+    }
+
+    /** Never below zero (fees, change). */
+    public Money atLeastZero() {
+        return (cents < 0L) ? ZERO : this;
+    }
+
+    // ===== Accessors =====
+    public long cents() { return cents; }
+
+    /** For display/legacy callers only; arithmetic should stay in cents. */
+    public double toDouble() { return cents / 100.0; }
+
+    public boolean isZero() { return cents == 0L; }
+    public boolean isPositive() { return cents > 0L; }
+
+    @Override
+    public int compareTo(Money o) { return Long.compare(cents, o.cents); }
+
+    @Override
+    public boolean equals(Object o) {
+        return (o instanceof Money m) && m.cents == cents;
+    }
+
+    @Override
+    public int hashCode() { return Long.hashCode(cents); }
+
+    /** "0.00" layout (no currency prefix), same as %.2f. */
+    @Override
+    public String toString() { return format(cents); }
+
+    public StringBuilder appendTo(StringBuilder sb) { return appendTo(sb, cents); }
+
+    // ===== Raw-cents helpers (no allocation) =====
+    public static long add(long a, long b) { return Math.addExact(a, b); }
+
+    public static long times(long unitCents, int qty) { return Math.multiplyExact(unitCents, (long) qty); }
+
+    public static long centsOf(double amount) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) throw new IllegalArgumentException("not a finite amount");
+        // round the decimal shown by Double.toString, not the binary fraction (1.005 -> 1.01)
+        return parseCents(Double.toString(amount));
+    }
+
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(12), cents).toString();
+    }
+
+    public static StringBuilder appendTo(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+            cents = Math.negateExact(cents);
+        }
+        long frac = cents % 100;
+        sb.append(cents / 100).append('.');
+        return sb.append((char) ('0' + frac / 10)).append((char) ('0' + frac % 10));
+    }
+
+    public static long parseCents(CharSequence s) {
+        return parseCents(s, 0, s.length());
+    }
+
+    /** Same as {@link #parseCents(CharSequence)} over {@code s[from, to)}, without copying it. */
+    public static long parseCents(CharSequence s, int from, int to) {
+        int i = from, end = to;
+        while (i < end && s.charAt(i) <= ' ') i++;
+        while (end > i && s.charAt(end - 1) <= ' ') end--;
+        if (end - i >= 2 && (s.charAt(i) == 'R' || s.charAt(i) == 'r')
+                && (s.charAt(i + 1) == 'M' || s.charAt(i + 1) == 'm')) {
+            i += 2;
+            while (i < end && s.charAt(i) == ' ') i++;
+        }
+        boolean neg = false;
+        if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) neg = s.charAt(i++) == '-';
+        if (i >= end) throw new NumberFormatException("expected an amount: '" + s.subSequence(from, to) + "'");
+
+        long whole = 0, frac = 0;
+        int fracDigits = 0;
+        boolean roundUp = false, dot = false, digits = false;
+        for (; i < end; i++) {
+            char ch = s.charAt(i);
+            if (ch == '.' && !dot) { dot = true; continue; }
+            if (ch == 'E' || ch == 'e') return scientific(s.subSequence(from, to));
+            int d = ch - '0';
+            if (d < 0 || d > 9) throw new NumberFormatException("not an amount: '" + s.subSequence(from, to) + "'");
+            digits = true;
+            if (!dot) whole = Math.addExact(Math.multiplyExact(whole, 10L), d);
+            else if (fracDigits < 2) { frac = frac * 10 + d; fracDigits++; }
+            else if (fracDigits == 2) { roundUp = d >= 5; fracDigits++; }
+        }
+        if (!digits) throw new NumberFormatException("expected an amount: '" + s.subSequence(from, to) + "'");
+        if (fracDigits == 1) frac *= 10;
+        long cents = Math.addExact(Math.multiplyExact(whole, 100L), frac + (roundUp ? 1 : 0));
+        return neg ? -cents : cents;
+    }
+
+    /** Double.toString uses exponent form outside 1e-3..1e7; rare, so go through BigDecimal once. */
+    private static long scientific(CharSequence s) {
+        return new java.math.BigDecimal(s.toString().trim())
+                .setScale(2, java.math.RoundingMode.HALF_UP)
+                .movePointRight(2)
+                .longValueExact();
+    }
+}
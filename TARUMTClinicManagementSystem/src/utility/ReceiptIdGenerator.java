@@ -0,0 +1,151 @@
+package utility;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic receipt IDs, safe to call from several counters at once:
+ *   R yyyyMMdd-HHmmss-SSS - NN - QQQQ      e.g. R20250831-011221-087-00-0003
+ *   (timestamp, 2-digit node, per-millisecond sequence)
+ *
+ * The state is one long (epoch milli << 10 | sequence) advanced with compareAndSet, so
+ * IDs never repeat or go backwards, even within one millisecond or if the wall clock steps
+ * back; more than 1024 IDs in a millisecond simply borrow the next millisecond.
+ * The "R yyyyMMdd-HHmm" part is cached per minute, so an ID costs one char[] + String.
+ *
+ * Old IDs (R yyyyMMdd-HHmmss-SSS, no suffix) still sort and reseed correctly.
+ */
+public final class ReceiptIdGenerator {
+
+    private static final int SEQ_BITS = 10;
+    private static final long SEQ_MASK = (1L << SEQ_BITS) - 1;
+    private static final int LENGTH = 28;
+
+    private static final AtomicLong state = new AtomicLong();
+    private static volatile int node = initialNode();
+
+    /** Cached local "RyyyyMMdd-HHmm" for one epoch minute. */
+    private static final class MinutePrefix {
+        final long epochMinute;
+        final char[] chars;
+        MinutePrefix(long epochMinute, char[] chars) { this.epochMinute = epochMinute; this.chars = chars; }
+    }
+    private static volatile MinutePrefix prefix = new MinutePrefix(Long.MIN_VALUE, null);
+
+    private ReceiptIdGenerator() {}
+
+    // ===== Configuration =====
+    /** Node (terminal/process) number 0-99, so two processes sharing receipts.txt never clash. */
+    public static void setNode(int n) {
+        if (n < 0 || n > 99) throw new IllegalArgumentException("node must be 0-99");
+        node = n;
+    }
+
+    public static int getNode() { return node; }
+
+    /** Make every later ID sort after {@code lastId} (call on startup with the newest saved receipt). */
+    public static void reseed(String lastId) {
+        long floor = decode(lastId);
+        if (floor < 0) return;
+        long cur;
+        while ((cur = state.get()) < floor) {    // state = last issued; next() goes past it
+            if (state.compareAndSet(cur, floor)) return;
+        }
+    }
+
+    // ===== Generation =====
+    public static String next() {
+        long now = System.currentTimeMillis() << SEQ_BITS;
+        long cur, next;
+        do {
+            cur = state.get();
+            next = (now > cur) ? now : cur + 1;
+        } while (!state.compareAndSet(cur, next));
+        return format(next >>> SEQ_BITS, (int) (next & SEQ_MASK), node);
+    }
+
+    // ===== Internals =====
+    private static String format(long epochMilli, int seq, int nodeId) {
+        long minute = Math.floorDiv(epochMilli, 60_000L);
+        MinutePrefix p = prefix;
+        if (p.epochMinute != minute) {
+            p = new MinutePrefix(minute, minutePrefix(epochMilli));
+            prefix = p;
+        }
+        int msInMinute = (int) Math.floorMod(epochMilli, 60_000L);
+
+        char[] c = new char[LENGTH];
+        System.arraycopy(p.chars, 0, c, 0, 14);          // RyyyyMMdd-HHmm
+        put2(c, 14, msInMinute / 1000);                   // ss
+        c[16] = '-';
+        put3(c, 17, msInMinute % 1000);                   // SSS
+        c[20] = '-';
+        put2(c, 21, nodeId);
+        c[23] = '-';
+        put2(c, 24, seq / 100);
+        put2(c, 26, seq % 100);
+        return new String(c);
+    }
+
+    private static char[] minutePrefix(long epochMilli) {
+        LocalDateTime t = LocalDateTime.ofInstant(java.time.Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+        StringBuilder sb = new StringBuilder(14).append('R').append(t.getYear());
+        pad2(sb, t.getMonthValue());
+        pad2(sb, t.getDayOfMonth()).append('-');
+        pad2(sb, t.getHour());
+        pad2(sb, t.getMinute());
+        char[] c = new char[14];
+        sb.getChars(0, 14, c, 0);
+        return c;
+    }
+
+    /** State value of an existing ID, or -1 if it is not one of ours. */
+    private static long decode(String id) {
+        if (id == null) return -1;
+        String s = id.trim();
+        if (s.length() < 20 || s.charAt(0) != 'R' || s.charAt(9) != '-' || s.charAt(16) != '-') return -1;
+        try {
+            LocalDateTime t = LocalDateTime.of(num(s, 1, 4), num(s, 5, 2), num(s, 7, 2),
+                    num(s, 10, 2), num(s, 12, 2), num(s, 14, 2), num(s, 17, 3) * 1_000_000);
+            long millis = t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            int seq = (s.length() >= LENGTH && s.charAt(23) == '-') ? num(s, 24, 4) : 0;
+            return (millis << SEQ_BITS) | (seq & SEQ_MASK);
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static int num(String s, int from, int len) {
+        int v = 0;
+        for (int i = from; i < from + len; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) throw new NumberFormatException(s);
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    private static int initialNode() {
+        try {
+            int n = Integer.parseInt(System.getProperty("clinic.node", "0").trim());
+            return (n >= 0 && n <= 99) ? n : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static StringBuilder pad2(StringBuilder sb, int v) {
+        return sb.append((char) ('0' + v / 10)).append((char) ('0' + v % 10));
+    }
+
+    private static void put2(char[] c, int at, int v) {
+        c[at] = (char) ('0' + v / 10);
+        c[at + 1] = (char) ('0' + v % 10);
+    }
+
+    private static void put3(char[] c, int at, int v) {
+        c[at] = (char) ('0' + v / 100);
+        put2(c, at + 1, v % 100);
+    }
+}
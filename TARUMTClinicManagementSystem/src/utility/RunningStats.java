@@ -0,0 +1,37 @@
+package utility;
+
+/**
+ * Streaming mean / variance (Welford), O(1) per sample and no stored samples.
+ *
+ * Until {@code window} samples have been seen this is the exact population mean and
+ * variance; after that each new sample gets weight 1/window, so old samples fade out
+ * and the figures follow recent behaviour (an exponentially weighted Welford update).
+ *
+ * Not thread-safe; the owner serializes access.
+ */
+public final class RunningStats {
+
+    private final int window;
+    private long count;
+    private double mean;
+    private double variance;
+
+    public RunningStats(int window) {
+        if (window < 1) throw new IllegalArgumentException("window must be >= 1");
+        this.window = window;
+    }
+
+    public void add(double x) {
+        count++;
+        double alpha = 1.0 / Math.min(count, window);
+        double diff = x - mean;
+        double incr = alpha * diff;
+        mean += incr;
+        variance = (1.0 - alpha) * (variance + diff * incr);
+    }
+
+    public long count()      { return count; }
+    public double mean()     { return mean; }
+    public double variance() { return variance; }
+    public double stdDev()   { return Math.sqrt(variance); }
+}
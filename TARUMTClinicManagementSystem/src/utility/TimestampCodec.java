@@ -0,0 +1,174 @@
+package utility;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Fixed-width codec for the timestamp layouts used by the text files:
+ *   minute  : yyyy-MM-dd HH:mm
+ *   seconds : yyyy-MM-dd HH:mm:ss
+ *   ISO     : yyyy-MM-ddTHH:mm:ss[.fraction]   (same output as ISO_LOCAL_DATE_TIME)
+ *
+ * Digits are read/written directly (no DateTimeFormatter, no pattern compilation),
+ * and writers append into a caller-supplied StringBuilder so a save loop can reuse one buffer.
+ * Epoch-minute helpers let stores keep a timestamp as a single long.
+ */
+public final class TimestampCodec {
+
+    private TimestampCodec() {}
+
+    // ===== Epoch-minute =====
+    public static long toEpochMinute(LocalDateTime t) {
+        return t.toLocalDate().toEpochDay() * 1440L + t.getHour() * 60L + t.getMinute();
+    }
+
+    public static LocalDateTime fromEpochMinute(long epochMinute) {
+        long day = Math.floorDiv(epochMinute, 1440L);
+        int mod = (int) Math.floorMod(epochMinute, 1440L);
+        return LocalDate.ofEpochDay(day).atTime(mod / 60, mod % 60);
+    }
+
+    /** "yyyy-MM-dd HH:mm" (or 'T') at {@code from} -> epoch minute, without building objects. */
+    public static long parseEpochMinute(CharSequence s, int from) {
+        if (s.length() - from < 16) throw new IllegalArgumentException("expected yyyy-MM-dd HH:mm");
+        checkLayout(s, from);
+        int y = digits(s, from, 4), mo = digits(s, from + 5, 2), d = digits(s, from + 8, 2);
+        int h = digits(s, from + 11, 2), mi = digits(s, from + 14, 2);
+        checkRange(y, mo, d, h, mi, 0);
+        return epochDay(y, mo, d) * 1440L + h * 60L + mi;
+    }
+
+    public static StringBuilder appendEpochMinute(StringBuilder sb, long epochMinute) {
+        long day = Math.floorDiv(epochMinute, 1440L);
+        int mod = (int) Math.floorMod(epochMinute, 1440L);
+        appendDate(sb, LocalDate.ofEpochDay(day));
+        sb.append(' ');
+        pad2(sb, mod / 60).append(':');
+        return pad2(sb, mod % 60);
+    }
+
+    // ===== Parsing =====
+    /** Accepts yyyy-MM-dd HH:mm, with ' ' or 'T', optional :ss and optional .fraction. */
+    public static LocalDateTime parse(CharSequence s) {
+        return parse(s, 0, s.length());
+    }
+
+    public static LocalDateTime parse(CharSequence s, int from, int to) {
+        int len = to - from;
+        if (len < 16) throw new IllegalArgumentException("expected yyyy-MM-dd HH:mm");
+        checkLayout(s, from);
+        int y = digits(s, from, 4), mo = digits(s, from + 5, 2), d = digits(s, from + 8, 2);
+        int h = digits(s, from + 11, 2), mi = digits(s, from + 14, 2);
+        int sec = 0, nano = 0;
+        if (len > 16) {
+            if (len < 19 || s.charAt(from + 16) != ':') throw new IllegalArgumentException("bad seconds");
+            sec = digits(s, from + 17, 2);
+            if (len > 19) {
+                if (s.charAt(from + 19) != '.' || len > 29 || len == 20) throw new IllegalArgumentException("bad fraction");
+                int scale = 100_000_000;
+                for (int i = from + 20; i < to; i++, scale /= 10) nano += digit(s, i) * scale;
+            }
+        }
+        checkRange(y, mo, d, h, mi, sec);
+        return LocalDateTime.of(y, mo, d, h, mi, sec, nano);
+    }
+
+    // ===== Formatting =====
+    /** yyyy-MM-dd HH:mm */
+    public static StringBuilder appendMinute(StringBuilder sb, LocalDateTime t) {
+        appendDate(sb, t.toLocalDate()).append(' ');
+        pad2(sb, t.getHour()).append(':');
+        return pad2(sb, t.getMinute());
+    }
+
+    /** yyyy-MM-dd HH:mm:ss */
+    public static StringBuilder appendSeconds(StringBuilder sb, LocalDateTime t) {
+        appendMinute(sb, t).append(':');
+        return pad2(sb, t.getSecond());
+    }
+
+    /** yyyy-MM-ddTHH:mm:ss[.fraction], trailing zeros of the fraction dropped. */
+    public static StringBuilder appendIso(StringBuilder sb, LocalDateTime t) {
+        appendDate(sb, t.toLocalDate()).append('T');
+        pad2(sb, t.getHour()).append(':');
+        pad2(sb, t.getMinute()).append(':');
+        pad2(sb, t.getSecond());
+        int nano = t.getNano();
+        if (nano != 0) {
+            sb.append('.');
+            int scale = 100_000_000;
+            while (nano != 0) {
+                sb.append((char) ('0' + nano / scale));
+                nano %= scale;
+                scale /= 10;
+            }
+        }
+        return sb;
+    }
+
+    public static StringBuilder appendDate(StringBuilder sb, LocalDate d) {
+        int y = d.getYear();
+        if (y < 1000 || y > 9999) return sb.append(d); // outside fixed width: defer to the JDK
+        sb.append(y).append('-');
+        pad2(sb, d.getMonthValue()).append('-');
+        return pad2(sb, d.getDayOfMonth());
+    }
+
+    public static String formatMinute(LocalDateTime t) {
+        return t == null ? "" : appendMinute(new StringBuilder(16), t).toString();
+    }
+
+    public static String formatSeconds(LocalDateTime t) {
+        return t == null ? "" : appendSeconds(new StringBuilder(19), t).toString();
+    }
+
+    public static String formatIso(LocalDateTime t) {
+        return t == null ? "" : appendIso(new StringBuilder(29), t).toString();
+    }
+
+    // ===== Internals =====
+    private static void checkLayout(CharSequence s, int from) {
+        char sep = s.charAt(from + 10);
+        if (s.charAt(from + 4) != '-' || s.charAt(from + 7) != '-'
+                || (sep != ' ' && sep != 'T') || s.charAt(from + 13) != ':') {
+            throw new IllegalArgumentException("expected yyyy-MM-dd HH:mm");
+        }
+    }
+
+    private static void checkRange(int y, int mo, int d, int h, int mi, int sec) {
+        if (mo < 1 || mo > 12 || d < 1 || d > monthLength(y, mo) || h > 23 || mi > 59 || sec > 59) {
+            throw new IllegalArgumentException("date/time out of range");
+        }
+    }
+
+    private static int monthLength(int y, int mo) {
+        if (mo == 2) return ((y % 4 == 0 && y % 100 != 0) || y % 400 == 0) ? 29 : 28;
+        return (mo == 4 || mo == 6 || mo == 9 || mo == 11) ? 30 : 31;
+    }
+
+    /** Days since 1970-01-01 for a proleptic Gregorian date (civil-from-days inverse). */
+    private static long epochDay(int y, int m, int d) {
+        y -= (m <= 2) ? 1 : 0;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153L * (m + (m > 2 ? -3 : 9)) + 2) / 5 + d - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    private static int digits(CharSequence s, int from, int count) {
+        int v = 0;
+        for (int i = from; i < from + count; i++) v = v * 10 + digit(s, i);
+        return v;
+    }
+
+    private static int digit(CharSequence s, int i) {
+        int d = s.charAt(i) - '0';
+        if (d < 0 || d > 9) throw new IllegalArgumentException("bad digit at " + i);
+        return d;
+    }
+
+    private static StringBuilder pad2(StringBuilder sb, int v) {
+        return sb.append((char) ('0' + v / 10)).append((char) ('0' + v % 10));
+    }
+}
@@ -0,0 +1,147 @@
+package tarumtclinicmanagementsystem;
+
+import adt.ClinicADT;
+import control.PharmacyControl;
+import control.PharmacyQueueControl;
+import entity.Medicine;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress and scaling check for several pharmacy counters sharing one stock. It lives in the
+ * test source root, so it is never packaged into the application jar.
+ *
+ * It restocks and dispenses for real, so run it from a scratch directory holding a copy of the data:
+ *   mkdir -p /tmp/stress/src && cp -r src/textFile /tmp/stress/src/ && cd /tmp/stress
+ *   java -cp &lt;project&gt;/build/classes:&lt;project&gt;/build/test/classes tarumtclinicmanagementsystem.DispenseStress [lines] [maxCounters]
+ *
+ * Each round empties the READY queue, queues {@code lines} one-unit lines spread over the
+ * catalogue, then appends more lines of one "scarce" medicine than it has in stock. The given
+ * number of counter threads drain the queue with dispenseFront() until the front line can no
+ * longer be filled. The round then checks that no quantity went negative, that the scarce
+ * medicine was emptied exactly (no oversell, nothing lost), that every other line was
+ * dispensed, and that the stock drop equals the units dispensed. Rounds run with 1, 2, 4, ...
+ * counters and print throughput and how many file rewrites the dispenses cost.
+ */
+public final class DispenseStress {
+
+    private static final String READY_FILE = "src/textFile/ready_queue.txt";
+    private static final int SCARCE_EXTRA = 25;   // lines queued beyond the scarce medicine's stock
+
+    public static void main(String[] args) throws Exception {
+        if (new File("build.xml").exists() || !new File(READY_FILE).exists()) {
+            System.out.println("Run from a scratch directory containing a copy of src/textFile (see class comment).");
+            return;
+        }
+        int lines = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+        int maxCounters = (args.length > 1) ? Integer.parseInt(args[1]) : 8;
+
+        System.out.printf("%-8s | %8s | %10s | %7s | %14s | %12s | %s%n",
+                "Counters", "Lines", "Lines/s", "Speedup", "medicine.txt", "ready file", "Checks");
+        double base = 0;
+        for (int counters = 1; counters <= maxCounters; counters *= 2) {
+            Round r = runRound(lines, counters);
+            if (base == 0) base = r.perSecond;
+            System.out.printf("%-8d | %8d | %10.0f | %6.2fx | %14d | %12d | %s%n",
+                    counters, r.dispensed, r.perSecond, r.perSecond / base,
+                    r.stockWrites, r.readyWrites, r.failure == null ? "ok" : "FAILED: " + r.failure);
+            if (r.failure != null) System.exit(1);
+        }
+    }
+
+    private static final class Round {
+        int dispensed;
+        double perSecond;
+        long stockWrites, readyWrites;
+        String failure;
+    }
+
+    private static Round runRound(int lines, int counters) throws Exception {
+        new FileOutputStream(READY_FILE).close();   // start every round from an empty READY queue
+
+        PharmacyControl stock = new PharmacyControl();
+        PharmacyQueueControl queue = new PharmacyQueueControl();
+        stock.setReservationSource(queue);
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Round r = new Round();
+        try {
+            ClinicADT<Medicine> meds = stock.getAllMedicines();
+            int n = meds.size();
+            if (n < 2) throw new IllegalStateException("need at least two medicines");
+
+            // every medicine but the last gets enough fresh stock for its share of the lines
+            LocalDate expiry = LocalDate.now().plusYears(1);
+            int share = lines / (n - 1) + 1;
+            for (int i = 0; i < n - 1; i++) {
+                for (int left = share; left > 0; left -= 1000) {
+                    stock.restockMedicineById(meds.get(i).getId(), Math.min(1000, left), expiry);
+                }
+            }
+            Medicine scarce = meds.get(n - 1);
+            int scarceStock = stock.getAvailableQty(scarce);
+
+            int[] before = new int[n];
+            for (int i = 0; i < n; i++) before[i] = meds.get(i).getQuantity();
+            long stockWrites0 = stock.getFileWriteCount();
+
+            for (int k = 0; k < lines; k++) {
+                Medicine m = meds.get(k % (n - 1));
+                queue.enqueue("PSTRESS", "Stress Patient", 1, m.getId(), m.getName(), 1, "-", "-", 0.0);
+            }
+            for (int k = 0; k < scarceStock + SCARCE_EXTRA; k++) {
+                queue.enqueue("PSTRESS", "Stress Patient", 1, scarce.getId(), scarce.getName(), 1, "-", "-", 0.0);
+            }
+            int queued = queue.getReadyQueue().size();
+            long readyWrites0 = queue.getReadyFileWriteCount();
+
+            AtomicInteger dispensed = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] workers = new Thread[counters];
+            for (int c = 0; c < counters; c++) {
+                workers[c] = new Thread(() -> {
+                    try { start.await(); } catch (InterruptedException e) { return; }
+                    while (queue.dispenseFront(stock)) dispensed.incrementAndGet();
+                }, "counter-" + (c + 1));
+                workers[c].start();
+            }
+            long t0 = System.nanoTime();
+            start.countDown();
+            for (Thread w : workers) w.join();
+            long elapsed = System.nanoTime() - t0;
+
+            r.dispensed = dispensed.get();
+            r.perSecond = r.dispensed / (elapsed / 1e9);
+            r.stockWrites = stock.getFileWriteCount() - stockWrites0;
+            r.readyWrites = queue.getReadyFileWriteCount() - readyWrites0;
+
+            long drop = 0;
+            for (int i = 0; i < n; i++) {
+                int q = meds.get(i).getQuantity();
+                if (q < 0 && r.failure == null) r.failure = meds.get(i).getId() + " went negative (" + q + ")";
+                drop += before[i] - q;
+            }
+            int left = queue.getReadyQueue().size();
+            // all plentiful lines plus exactly the scarce stock: any oversell or lost line shows here
+            if (r.failure == null && r.dispensed != lines + scarceStock) {
+                r.failure = "dispensed " + r.dispensed + ", expected " + (lines + scarceStock);
+            } else if (r.failure == null && r.dispensed + left != queued) {
+                r.failure = "lines lost: " + queued + " queued, " + r.dispensed + " dispensed, " + left + " left";
+            } else if (r.failure == null && drop != r.dispensed) {
+                r.failure = "stock dropped by " + drop + " for " + r.dispensed + " units";
+            }
+        } finally {
+            System.setOut(console);
+        }
+        return r;
+    }
+
+    private DispenseStress() {}
+}